@@ -0,0 +1,73 @@
+package com.example.securityjwt.config;
+
+import com.example.securityjwt.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et vérification des tokens JWT (chemin de chaque requête authentifiée)
+ * validateCached : token déjà vérifié, servi par le cache de JwtUtils
+ * validateUncached : cache désactivé, signature HMAC et parsing à chaque appel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET =
+            "mySecretKey123456789012345678901234567890123456789012345678901234567890";
+
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtils = newJwtUtils(10_000);
+        uncachedJwtUtils = newJwtUtils(0);
+
+        UserDetailsImpl user = new UserDetailsImpl(1L, "bench", "bench@example.com", "Bench User", "{noop}",
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE"), new SimpleGrantedAuthority("ROLE_MANAGER")));
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = cachedJwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cachedJwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cachedJwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        return uncachedJwtUtils.validateJwtToken(token);
+    }
+
+    private static JwtUtils newJwtUtils(int verifiedCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.securityjwt.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de RateLimiter.tryAcquire, appelé pour chaque requête : objectif sous la microseconde
+ *   accepted     : un utilisateur, débit assez haut pour ne jamais être limité
+ *   rejected     : un utilisateur toujours au-delà de son débit (chemin du 429)
+ *   manyUsers    : 100 000 utilisateurs, recherche du seau dans le cache Caffeine
+ *   contended    : quatre threads sur le même seau (CAS en échec)
+ * Règles par défaut, plus une règle par rôle devant : le parcours des règles est mesuré aussi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final String PATH = "/api/accounts/42/operations";
+
+    private RateLimiter unlimited;
+    private RateLimiter limited;
+    private Authentication authentication;
+    private Authentication[] users;
+
+    @Setup
+    public void setUp() {
+        unlimited = newRateLimiter("/api/admin/**@ADMIN=1000:1000,/api/auth/**@ip=2:20,/**=1000000000:1000000");
+        limited = newRateLimiter("/api/admin/**@ADMIN=1000:1000,/api/auth/**@ip=2:20,/**=0.001:1");
+
+        authentication = user("bench");
+        users = new Authentication[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = user("user" + i);
+        }
+        // Seaux déjà créés : on mesure le régime établi
+        for (Authentication user : users) {
+            unlimited.tryAcquire(PATH, user, "10.0.0.1");
+        }
+        limited.tryAcquire(PATH, authentication, "10.0.0.1");
+    }
+
+    @Benchmark
+    public long accepted() {
+        return unlimited.tryAcquire(PATH, authentication, "10.0.0.1");
+    }
+
+    @Benchmark
+    public long rejected() {
+        return limited.tryAcquire(PATH, authentication, "10.0.0.1");
+    }
+
+    @Benchmark
+    public long manyUsers() {
+        return unlimited.tryAcquire(PATH, users[ThreadLocalRandom.current().nextInt(USERS)], "10.0.0.1");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long contended() {
+        return unlimited.tryAcquire(PATH, authentication, "10.0.0.1");
+    }
+
+    private static RateLimiter newRateLimiter(String rules) {
+        RateLimiter rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "rulesSpec", rules);
+        ReflectionTestUtils.setField(rateLimiter, "maximumKeys", 2L * USERS);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "init");
+        return rateLimiter;
+    }
+
+    private static Authentication user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.securityjwt.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Identifiants : coût de génération, puis débit d'insertion dans une table H2 sur disque
+ *   SNOWFLAKE : BIGINT croissant, calculé en mémoire
+ *   UUID      : VARCHAR(36) aléatoire (ancien identifiant des comptes)
+ *   SEQUENCE  : BIGINT lu par un SELECT NEXT VALUE avant chaque insert (séquence sans allocation)
+ * La table grossit d'une itération à l'autre : l'écart se creuse avec la taille de l'index
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdGeneratorBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    private static final SnowflakeIds IDS = SnowflakeIds.forNode(1);
+
+    @Benchmark
+    public long snowflake() {
+        return IDS.nextId();
+    }
+
+    /**
+     * Quatre threads sur le même AtomicLong : coût des CAS en échec
+     */
+    @Benchmark
+    @Threads(4)
+    public long snowflakeContended() {
+        return IDS.nextId();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    public enum Strategy {
+        SNOWFLAKE, UUID, SEQUENCE
+    }
+
+    @State(Scope.Thread)
+    public static class Table {
+
+        @Param({"SNOWFLAKE", "UUID", "SEQUENCE"})
+        Strategy strategy;
+
+        Path directory;
+        Connection connection;
+        PreparedStatement insert;
+        PreparedStatement nextValue;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, SQLException {
+            directory = Files.createTempDirectory("jmh-ids");
+            connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("ids"), "sa", "");
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                String idType = strategy == Strategy.UUID ? "VARCHAR(36)" : "BIGINT";
+                // Principales colonnes d'account_operation
+                statement.execute("CREATE TABLE operation (id " + idType + " PRIMARY KEY, account_id BIGINT, "
+                        + "amount_minor BIGINT, operation_time TIMESTAMP)");
+                statement.execute("CREATE SEQUENCE operation_seq");
+            }
+            insert = connection.prepareStatement(
+                    "INSERT INTO operation (id, account_id, amount_minor, operation_time) VALUES (?, ?, ?, CURRENT_TIMESTAMP)");
+            nextValue = connection.prepareStatement("SELECT NEXT VALUE FOR operation_seq");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException, SQLException {
+            connection.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        void setId() throws SQLException {
+            switch (strategy) {
+                case SNOWFLAKE -> insert.setLong(1, IDS.nextId());
+                case UUID -> insert.setString(1, UUID.randomUUID().toString());
+                case SEQUENCE -> {
+                    try (ResultSet resultSet = nextValue.executeQuery()) {
+                        resultSet.next();
+                        insert.setLong(1, resultSet.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Un lot de 1000 inserts dans une transaction (hibernate.jdbc.batch_size le permet avec
+     * SNOWFLAKE) ; score en lignes par seconde
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch(Table table) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < BATCH; i++) {
+            table.setId();
+            table.insert.setLong(2, random.nextLong(1, 100_000));
+            table.insert.setLong(3, random.nextLong(1, 1_000_000));
+            table.insert.addBatch();
+        }
+        table.insert.executeBatch();
+        table.connection.commit();
+    }
+}
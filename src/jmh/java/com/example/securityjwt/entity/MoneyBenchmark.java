@@ -0,0 +1,76 @@
+package com.example.securityjwt.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cumul de montants : long en centimes (moteurs de soldes), Money, BigDecimal
+ * Avec -prof gc, les allocations par opération montrent l'écart entre les trois
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private static final int AMOUNTS = 1_000;
+
+    private long[] minorAmounts;
+    private Money[] moneyAmounts;
+    private BigDecimal[] decimalAmounts;
+
+    @Setup
+    public void setUp() {
+        minorAmounts = new long[AMOUNTS];
+        moneyAmounts = new Money[AMOUNTS];
+        decimalAmounts = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            long minor = 1 + (i * 7919L) % 100_000;
+            minorAmounts[i] = minor;
+            moneyAmounts[i] = Money.ofMinor(minor);
+            decimalAmounts[i] = BigDecimal.valueOf(minor, Money.SCALE);
+        }
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long total = 0;
+        for (long amount : minorAmounts) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        Money total = Money.ZERO;
+        for (Money amount : moneyAmounts) {
+            total = total.plus(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    /**
+     * Conversion aux frontières (JSON -> DTO)
+     */
+    @Benchmark
+    public Money fromBigDecimal() {
+        return Money.of(decimalAmounts[AMOUNTS / 2]);
+    }
+}
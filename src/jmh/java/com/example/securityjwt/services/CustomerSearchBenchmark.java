@@ -0,0 +1,118 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence de CustomerSearchIndex.search sur 1 million de clients : objectif p99 < 10 ms
+ * (mode SampleTime : JMH publie les percentiles p0.99 de chaque benchmark)
+ *   exact     : nom et prénom d'un client, trigrammes rares
+ *   typo      : même requête avec une faute de frappe
+ *   prefix    : début d'un nom de famille
+ *   common    : prénom porté par un client sur 40 (requête peu sélective, plafond de candidats)
+ *   phone     : fragment de numéro de téléphone
+ * L'index occupe plusieurs Go : le fork est lancé avec un tas plus grand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(jvmArgsAppend = "-Xmx12g")
+public class CustomerSearchBenchmark {
+
+    private static final int CUSTOMERS = 1_000_000;
+    private static final int LIMIT = 20;
+
+    private static final String[] FIRST_NAMES = {
+            "jean", "marie", "pierre", "sophie", "nicolas", "julie", "thomas", "camille", "antoine", "léa",
+            "david", "sarah", "michel", "laura", "philippe", "emma", "laurent", "chloé", "olivier", "manon",
+            "éric", "inès", "stéphane", "clara", "frédéric", "alice", "julien", "lucie", "mathieu", "hélène",
+            "sébastien", "amandine", "christophe", "pauline", "yann", "margaux", "karim", "nadia", "hugo", "zoé"};
+
+    private static final String CONSONANTS = "bcdfglmnprstvz";
+    private static final String VOWELS = "aeiouy";
+
+    private CustomerSearchIndex index;
+    private String exactQuery;
+    private String typoQuery;
+    private String prefixQuery;
+    private String phoneQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new CustomerSearchIndex();
+        Customer probe = null;
+        for (long id = 1; id <= CUSTOMERS; id++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = lastName(random);
+            Customer customer = new Customer();
+            customer.setId(id);
+            customer.setName(firstName + " " + lastName);
+            customer.setEmail(firstName + "." + lastName + id + "@mail.fr");
+            customer.setPhone(String.format("06 %02d %02d %02d %02d", random.nextInt(100), random.nextInt(100),
+                    random.nextInt(100), random.nextInt(100)));
+            index.index(customer);
+            if (id == CUSTOMERS / 2) {
+                probe = customer;
+            }
+        }
+
+        exactQuery = probe.getName();
+        typoQuery = exactQuery.substring(0, exactQuery.length() - 2) + "x" + exactQuery.charAt(exactQuery.length() - 1);
+        String lastName = exactQuery.substring(exactQuery.indexOf(' ') + 1);
+        prefixQuery = lastName.substring(0, Math.min(4, lastName.length()));
+        phoneQuery = probe.getPhone().replace(" ", "").substring(2, 8);
+    }
+
+    @Benchmark
+    public List<Long> exact() {
+        return index.search(exactQuery, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> typo() {
+        return index.search(typoQuery, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> prefix() {
+        return index.search(prefixQuery, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> common() {
+        return index.search("marie", LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> phone() {
+        return index.search(phoneQuery, LIMIT);
+    }
+
+    /**
+     * Nom de famille de 2 à 4 syllabes consonne-voyelle, parfois terminé par une consonne
+     */
+    private static String lastName(Random random) {
+        int syllables = 2 + random.nextInt(3);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        if (random.nextBoolean()) {
+            name.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.SecurityJwtApplication;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Historique d'un compte de 200 000 opérations, page 1 et page 10 000 (20 lignes par page)
+ *   offset : LIMIT/OFFSET plus COUNT(*), comme la pagination Spring Data (Page)
+ *   keyset : BankAccountService.accountHistory avec le curseur de la page précédente, sans total
+ * L'offset relit toutes les lignes sautées : son coût croît avec la page, celui du curseur non
+ * Contexte Spring complet sur la base H2 embarquée (schéma et index de l'application)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistoryPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int OPERATIONS = 200_000;
+    private static final int BATCH = 1_000;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountService bankAccountService;
+    private EntityManagerFactory entityManagerFactory;
+    private Long accountId;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SecurityJwtApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        bankAccountService = context.getBean(BankAccountService.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        CurrentAccount account = new CurrentAccount();
+        account.setBalance(0);
+        account.setCurrency(Money.DEFAULT_CURRENCY);
+        accountId = context.getBean(BankAccountRepository.class).save(account).getId();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        insertOperations(jdbcTemplate);
+
+        // Curseur de la dernière ligne de la page précédente, tel que le client l'aurait reçu
+        if (page > 1) {
+            cursor = jdbcTemplate.queryForObject("SELECT operation_time, id FROM account_operation "
+                            + "WHERE account_id = ? ORDER BY operation_time DESC, id DESC LIMIT 1 OFFSET ?",
+                    (rs, row) -> new HistoryCursor(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)).encode(),
+                    accountId, (page - 1) * PAGE_SIZE - 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AccountOperation> offset() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<AccountOperation> operations = entityManager.createQuery(
+                            "SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId "
+                                    + "ORDER BY o.operationTime DESC, o.id DESC", AccountOperation.class)
+                    .setParameter("accountId", accountId)
+                    .setFirstResult((page - 1) * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            // Total de la Page : une requête de plus à chaque page
+            entityManager.createQuery("SELECT COUNT(o) FROM AccountOperation o WHERE o.bankAccount.id = :accountId",
+                            Long.class)
+                    .setParameter("accountId", accountId)
+                    .getSingleResult();
+            return operations;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public Object keyset() {
+        return bankAccountService.accountHistory(accountId, cursor, PAGE_SIZE, false);
+    }
+
+    /**
+     * Une opération par minute sur les 200 000 dernières minutes, insérées par lots JDBC
+     */
+    private void insertOperations(JdbcTemplate jdbcTemplate) {
+        LocalDateTime origin = LocalDateTime.now().minusMinutes(OPERATIONS);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        long id = 1;
+        for (int i = 0; i < OPERATIONS; i++) {
+            rows.add(new Object[]{id++, Timestamp.valueOf(origin.plusMinutes(i)), 100L, "bench",
+                    OperationType.CREDIT.name(), accountId, "bench", 100L * (i + 1)});
+            if (rows.size() == BATCH || i == OPERATIONS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO account_operation (id, operation_time, amount_minor, "
+                        + "description, operation_type, account_id, performed_by, balance_after_minor) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.SecurityJwtApplication;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Débit, crédit et virement par BankAccountService, contre la base H2 embarquée
+ * Contexte Spring complet (transactions, moteur de soldes, métriques, invalidation des caches),
+ * sans serveur web ni logs SQL
+ * ledgerMode : jpa (UPDATE conditionnels) ou memory (moteur en mémoire, journal dans un répertoire temporaire)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LedgerBenchmark {
+
+    private static final Money AMOUNT = Money.ofMinor(100);
+
+    @Param({"jpa", "memory"})
+    public String ledgerMode;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountService bankAccountService;
+    private Long source;
+    private Long destination;
+    private Path dataDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("ledger-bench");
+        context = new SpringApplicationBuilder(SecurityJwtApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "bankmanagement.ledger.mode=" + ledgerMode,
+                        "bankmanagement.ledger.dataDir=" + dataDir,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        bankAccountService = context.getBean(BankAccountService.class);
+
+        BankAccountRepository bankAccountRepository = context.getBean(BankAccountRepository.class);
+        BalanceEngine balanceEngine = context.getBean(BalanceEngine.class);
+        source = createAccount(bankAccountRepository, balanceEngine);
+        destination = createAccount(bankAccountRepository, balanceEngine);
+
+        // getCurrentUser() lit le contexte de sécurité : partagé par tous les threads du benchmark
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bench", null, List.of()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void debit() {
+        bankAccountService.debit(source, AMOUNT, "bench");
+    }
+
+    @Benchmark
+    public void credit() {
+        bankAccountService.credit(source, AMOUNT, "bench");
+    }
+
+    @Benchmark
+    public void transfer() {
+        bankAccountService.transfer(source, destination, AMOUNT);
+    }
+
+    private static Long createAccount(BankAccountRepository bankAccountRepository, BalanceEngine balanceEngine) {
+        CurrentAccount account = new CurrentAccount();
+        // Assez pour ne jamais tomber à découvert pendant une mesure
+        account.setBalance(Long.MAX_VALUE / 2);
+        account.setCurrency(Money.DEFAULT_CURRENCY);
+        Long accountId = bankAccountRepository.save(account).getId();
+        // Le moteur en mémoire ne connaît que les comptes présents au démarrage ou ouverts ensuite
+        balanceEngine.accountOpened(accountId, account.getBalance());
+        return accountId;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.AccountOperationDTO;
+import com.example.securityjwt.dtos.BankAccountDTO;
+import com.example.securityjwt.dtos.CustomerDTO;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.BankAccount;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Customer;
+import com.example.securityjwt.entity.Role;
+import com.example.securityjwt.entity.SavingAccount;
+import com.example.securityjwt.entity.User;
+import com.example.securityjwt.enums.ERole;
+import com.example.securityjwt.enums.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mappers entité -> DTO de BankAccountServiceImpl et UserDetailsImpl.build
+ * Sans base de données : seules la copie des champs et les allocations sont mesurées
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    // Taille d'une liste de comptes : 10 clients de 10 comptes
+    private static final int ACCOUNTS = 100;
+
+    private BankAccountServiceImpl service;
+    private Customer customer;
+    private CurrentAccount currentAccount;
+    private SavingAccount savingAccount;
+    private AccountOperation operation;
+    private List<BankAccount> accounts;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // Moteur JPA sans dépôt : currentBalance est vide, le solde vient de l'entité
+        service = new BankAccountServiceImpl(null, null, null, new LedgerEngine(null, null, null, null, null), null, null, null, null, null);
+
+        customer = newCustomer(1L);
+        currentAccount = new CurrentAccount();
+        currentAccount.setId(1L);
+        currentAccount.setBalance(123_456);
+        currentAccount.setOverDraft(50_000);
+        currentAccount.setCurrency("EUR");
+        currentAccount.setCreatedAt(LocalDateTime.now());
+        currentAccount.setCustomer(customer);
+
+        savingAccount = new SavingAccount();
+        savingAccount.setId(2L);
+        savingAccount.setBalance(987_654);
+        savingAccount.setInterestRate(2.5);
+        savingAccount.setCurrency("EUR");
+        savingAccount.setCreatedAt(LocalDateTime.now());
+        savingAccount.setCustomer(customer);
+
+        operation = new AccountOperation();
+        operation.setId(1L);
+        operation.setOperationTime(LocalDateTime.now());
+        operation.setAmount(1_000);
+        operation.setOperationType(OperationType.DEBIT);
+        operation.setDescription("Benchmark");
+        operation.setBankAccount(currentAccount);
+        operation.setPerformedBy("bench");
+        operation.setBalanceAfter(122_456L);
+
+        accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            CurrentAccount account = new CurrentAccount();
+            account.setId((long) i);
+            account.setBalance(i * 100L);
+            account.setCurrency("EUR");
+            account.setCustomer(newCustomer(i / 10));
+            accounts.add(account);
+        }
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("bench");
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv1234567890ABCDEFGHIJKLMNOPQRSTU");
+        user.setFullName("Bench User");
+        user.setRoles(Set.of(new Role(ERole.ROLE_EMPLOYEE), new Role(ERole.ROLE_MANAGER)));
+    }
+
+    @Benchmark
+    public CustomerDTO mapFromCustomer() {
+        return service.mapFromCustomer(customer);
+    }
+
+    @Benchmark
+    public Object mapFromCurrentAccount() {
+        return service.mapFromCurrentAccount(currentAccount);
+    }
+
+    @Benchmark
+    public Object mapFromSavingAccount() {
+        return service.mapFromSavingAccount(savingAccount);
+    }
+
+    @Benchmark
+    public AccountOperationDTO mapFromAccountOperation() {
+        return service.mapFromAccountOperation(operation);
+    }
+
+    /**
+     * Liste de 100 comptes : un CustomerDTO par client, partagé entre ses comptes
+     */
+    @Benchmark
+    public List<BankAccountDTO> mapFromBankAccounts() {
+        return service.mapFromBankAccounts(accounts);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildUserDetails() {
+        return UserDetailsImpl.build(user);
+    }
+
+    private static Customer newCustomer(long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName("Customer " + id);
+        customer.setEmail("customer" + id + "@example.com");
+        customer.setPhone("0600000000");
+        customer.setAddress("1 rue de la Paix");
+        customer.setCreatedAt(LocalDateTime.now());
+        return customer;
+    }
+}
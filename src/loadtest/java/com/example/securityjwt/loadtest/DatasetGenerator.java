@@ -0,0 +1,245 @@
+package com.example.securityjwt.loadtest;
+
+import com.example.securityjwt.entity.SnowflakeIds;
+import com.example.securityjwt.enums.ERole;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.services.BalanceEngine;
+import com.example.securityjwt.services.CustomerSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jeu de données synthétique : utilisateurs MANAGER, clients, comptes et historique d'opérations
+ * Inserts JDBC groupés (batchUpdate), sans passer par JPA ni par les contrôleurs ;
+ * identifiants tirés du même SnowflakeIds que l'application (même numéro de nœud)
+ * Les noms sont tirés de listes courtes pour que la recherche renvoie plusieurs résultats
+ */
+class DatasetGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    static final String USER_PREFIX = "loadtest-";
+
+    private static final int MAX_HISTORY_DAYS = 3650;
+
+    private static final String[] FIRST_NAMES = {"Alice", "Bruno", "Camille", "David", "Emma", "Farid",
+            "Gabriel", "Hugo", "Ines", "Jules", "Karim", "Lea", "Manon", "Nathan", "Olivia", "Paul"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+            "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "Roux"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final BalanceEngine balanceEngine;
+    private final CustomerSearchService customerSearchService;
+    private final SnowflakeIds ids;
+    private final int batchSize;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    DatasetGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, BalanceEngine balanceEngine,
+                     CustomerSearchService customerSearchService, SnowflakeIds ids, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.balanceEngine = balanceEngine;
+        this.customerSearchService = customerSearchService;
+        this.ids = ids;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Identifiants produits, utilisés pour construire les requêtes
+     */
+    record Dataset(List<String> usernames, String password, long[] customerIds, long[] accountIds,
+                   String[] searchKeywords) {
+    }
+
+    Dataset generate(int users, String password, int customers, int accountsPerCustomer,
+                     int operationsPerAccount, long initialBalanceMinor) {
+        long start = System.currentTimeMillis();
+        List<String> usernames = insertUsers(users, password);
+        long[] customerIds = insertCustomers(customers);
+        long[] accountIds = insertAccounts(customerIds, accountsPerCustomer, initialBalanceMinor);
+        long operations = insertOperations(accountIds, operationsPerAccount, initialBalanceMinor);
+
+        // Index de recherche construit au démarrage, avant les inserts : reconstruit ici
+        customerSearchService.buildIndex();
+        // Moteur en mémoire : les comptes insérés hors service doivent lui être annoncés
+        for (long accountId : accountIds) {
+            balanceEngine.accountOpened(accountId, initialBalanceMinor);
+        }
+
+        logger.info("Dataset: {} users, {} customers, {} accounts, {} operations in {} ms",
+                users, customerIds.length, accountIds.length, operations, System.currentTimeMillis() - start);
+
+        String[] keywords = new String[LAST_NAMES.length + FIRST_NAMES.length];
+        for (int i = 0; i < LAST_NAMES.length; i++) {
+            keywords[i] = LAST_NAMES[i].toLowerCase();
+        }
+        for (int i = 0; i < FIRST_NAMES.length; i++) {
+            // Préfixe seul : exerce la recherche par début de mot
+            keywords[LAST_NAMES.length + i] = FIRST_NAMES[i].substring(0, 3).toLowerCase();
+        }
+        return new Dataset(usernames, password, customerIds, accountIds, keywords);
+    }
+
+    private List<String> insertUsers(int users, String password) {
+        long roleId = managerRoleId();
+        // Un seul hachage BCrypt : tous les utilisateurs de charge partagent le mot de passe
+        String hash = passwordEncoder.encode(password);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<String> usernames = new ArrayList<>(users);
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String username = USER_PREFIX + i;
+            usernames.add(username);
+            rows.add(new Object[]{ids.nextId(), username, username + "@loadtest.local", hash, "Load Test " + i, true, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email, password, full_name, enabled, created_date) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) "
+                + "SELECT id, ? FROM users WHERE username LIKE ?", roleId, USER_PREFIX + "%");
+        return usernames;
+    }
+
+    private long managerRoleId() {
+        List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM roles WHERE name = ?", Long.class,
+                ERole.ROLE_MANAGER.name());
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        long id = ids.nextId();
+        jdbcTemplate.update("INSERT INTO roles (id, name, description) VALUES (?, ?, ?)",
+                id, ERole.ROLE_MANAGER.name(), "Manager");
+        return id;
+    }
+
+    private long[] insertCustomers(int customers) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] customerIds = new long[customers];
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < customers; i++) {
+            long id = ids.nextId();
+            customerIds[i] = id;
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            rows.add(new Object[]{id, firstName + " " + lastName,
+                    firstName.toLowerCase() + "." + lastName.toLowerCase() + id + "@example.com",
+                    String.format("06%08d", id % 100_000_000), id + " rue de la Paix", "loadtest", now, now});
+            if (rows.size() == batchSize) {
+                flushCustomers(rows);
+            }
+        }
+        flushCustomers(rows);
+        return customerIds;
+    }
+
+    private void flushCustomers(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, email, phone, address, created_by, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private long[] insertAccounts(long[] customerIds, int accountsPerCustomer, long initialBalanceMinor) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] accountIds = new long[customerIds.length * accountsPerCustomer];
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        int index = 0;
+        for (long customerId : customerIds) {
+            for (int i = 0; i < accountsPerCustomer; i++) {
+                long id = ids.nextId();
+                accountIds[index++] = id;
+                boolean current = i % 2 == 0;
+                rows.add(new Object[]{current ? "CA" : "SA", id, initialBalanceMinor, "EUR", now, now, "loadtest",
+                        customerId, current ? 50_000L : 0L, current ? 0.0 : 2.5});
+                if (rows.size() == batchSize) {
+                    flushAccounts(rows);
+                }
+            }
+        }
+        flushAccounts(rows);
+        return accountIds;
+    }
+
+    private void flushAccounts(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO bank_account (account_type, id, balance_minor, currency, "
+                    + "created_at, updated_at, created_by, customer_id, over_draft_minor, interest_rate) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    /**
+     * Compte supplémentaire à très long historique, pour l'export de relevé en flux
+     */
+    long insertStatementAccount(long customerId, int operations, long initialBalanceMinor) {
+        long start = System.currentTimeMillis();
+        long[] accountIds = insertAccounts(new long[]{customerId}, 1, initialBalanceMinor);
+        insertOperations(accountIds, operations, initialBalanceMinor);
+        balanceEngine.accountOpened(accountIds[0], initialBalanceMinor);
+        logger.info("Statement account {}: {} operations in {} ms",
+                accountIds[0], operations, System.currentTimeMillis() - start);
+        return accountIds[0];
+    }
+
+    /**
+     * Historique réparti sur les jours passés, en crédits et débits de même total :
+     * le solde final reste le solde initial et balance_after reste cohérent
+     * Au-delà de MAX_HISTORY_DAYS opérations, plusieurs opérations par jour
+     */
+    private long insertOperations(long[] accountIds, int operationsPerAccount, long initialBalanceMinor) {
+        if (operationsPerAccount == 0) {
+            return 0;
+        }
+        long spanSeconds = TimeUnit.DAYS.toSeconds(Math.min(operationsPerAccount, MAX_HISTORY_DAYS));
+        int stepSeconds = (int) Math.max(1, spanSeconds / operationsPerAccount);
+        LocalDateTime origin = LocalDateTime.now().minusSeconds(spanSeconds);
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        long operations = 0;
+        for (long accountId : accountIds) {
+            long balance = initialBalanceMinor;
+            long amount = 0;
+            for (int i = 0; i < operationsPerAccount; i++) {
+                // Paires crédit puis débit du même montant ; une opération impaire finale est un crédit nul
+                boolean credit = i % 2 == 0;
+                if (credit) {
+                    amount = i == operationsPerAccount - 1 ? 0 : 100 + random.nextInt(100_000);
+                    balance += amount;
+                } else {
+                    balance -= amount;
+                }
+                operations++;
+                LocalDateTime time = origin.plusSeconds(i * spanSeconds / operationsPerAccount + random.nextInt(stepSeconds));
+                rows.add(new Object[]{ids.nextId(), Timestamp.valueOf(time),
+                        amount, credit ? "Versement" : "Retrait",
+                        (credit ? OperationType.CREDIT : OperationType.DEBIT).name(),
+                        accountId, "loadtest", balance});
+                if (rows.size() == batchSize) {
+                    flushOperations(rows);
+                }
+            }
+        }
+        flushOperations(rows);
+        return operations;
+    }
+
+    private void flushOperations(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO account_operation (id, operation_time, amount_minor, description, "
+                    + "operation_type, account_id, performed_by, balance_after_minor) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+}
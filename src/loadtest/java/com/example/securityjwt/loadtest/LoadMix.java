@@ -0,0 +1,172 @@
+package com.example.securityjwt.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Répartition pondérée des requêtes, ex. "account:30,search:15,debit:10,transfer:10"
+ * Comptes, clients, mots-clés et utilisateurs sont tirés au hasard dans le jeu de données
+ */
+class LoadMix {
+
+    enum Endpoint {
+        ACCOUNT, CUSTOMER, CUSTOMER_ACCOUNTS, HISTORY, SEARCH, DEBIT, CREDIT, TRANSFER, SIGNIN;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        static Endpoint parse(String label) {
+            return valueOf(label.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    static final String SIGNIN_FLOOD = "signin_flood";
+
+    /**
+     * Requête prête à envoyer et libellé sous lequel sa latence est comptée
+     */
+    record Call(String endpoint, HttpRequest request) {
+    }
+
+    private final URI baseUri;
+    private final DatasetGenerator.Dataset dataset;
+    private final List<String> tokens;
+    private final Duration requestTimeout;
+    private final boolean idempotencyKeys;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    LoadMix(String mix, URI baseUri, DatasetGenerator.Dataset dataset, List<String> tokens,
+            Duration requestTimeout, boolean idempotencyKeys) {
+        this.baseUri = baseUri;
+        this.dataset = dataset;
+        this.tokens = tokens;
+        this.requestTimeout = requestTimeout;
+        this.idempotencyKeys = idempotencyKeys;
+
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrée de mélange invalide (endpoint:poids) : " + entry);
+            }
+            weights.merge(Endpoint.parse(parts[0]), Integer.parseInt(parts[1].trim()), Integer::sum);
+        }
+        endpoints = weights.keySet().toArray(new Endpoint[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mélange sans poids positif : " + mix);
+        }
+    }
+
+    Call next(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < endpoints.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return call(endpoints[i], random);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private Call call(Endpoint endpoint, SplittableRandom random) {
+        long account = pick(dataset.accountIds(), random);
+        return switch (endpoint) {
+            case ACCOUNT -> get(endpoint, "/api/accounts/" + account, random);
+            case CUSTOMER -> get(endpoint, "/api/customers/" + pick(dataset.customerIds(), random), random);
+            case CUSTOMER_ACCOUNTS -> get(endpoint, "/api/accounts/customer/" + pick(dataset.customerIds(), random), random);
+            case HISTORY -> get(endpoint, "/api/accounts/" + account + "/history?size=20", random);
+            case SEARCH -> get(endpoint, "/api/customers/search?keyword=" + pick(dataset.searchKeywords(), random), random);
+            case DEBIT -> post(endpoint, "/api/accounts/debit", movement(account, random, "Retrait"), random);
+            case CREDIT -> post(endpoint, "/api/accounts/credit", movement(account, random, "Versement"), random);
+            case TRANSFER -> post(endpoint, "/api/accounts/transfer", "{\"accountSource\":\"" + account
+                    + "\",\"accountDestination\":\"" + otherAccount(account, random)
+                    + "\",\"amount\":" + amount(random) + ",\"description\":\"loadtest\"}", random);
+            case SIGNIN -> signin(Endpoint.SIGNIN.label(), pick(dataset.usernames(), random), dataset.password());
+        };
+    }
+
+    /**
+     * Tentative avec un mauvais mot de passe (flux de saturation de la connexion)
+     */
+    Call failedSignin(SplittableRandom random) {
+        return signin(SIGNIN_FLOOD, pick(dataset.usernames(), random), "wrong-" + random.nextInt());
+    }
+
+    /**
+     * Connexion d'un utilisateur du jeu de données, sans token
+     */
+    Call signin(String endpoint, String username, String password) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/auth/signin"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username
+                        + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        return new Call(endpoint, request);
+    }
+
+    private Call get(Endpoint endpoint, String path, SplittableRandom random) {
+        return new Call(endpoint.label(), authorized(path, random).GET().build());
+    }
+
+    private Call post(Endpoint endpoint, String path, String body, SplittableRandom random) {
+        HttpRequest.Builder builder = authorized(path, random)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKeys) {
+            builder.header("Idempotency-Key", UUID.randomUUID().toString());
+        }
+        return new Call(endpoint.label(), builder.build());
+    }
+
+    private HttpRequest.Builder authorized(String path, SplittableRandom random) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())));
+    }
+
+    private static String movement(long account, SplittableRandom random, String description) {
+        return "{\"accountId\":\"" + account + "\",\"amount\":" + amount(random)
+                + ",\"description\":\"" + description + "\"}";
+    }
+
+    // Entre 1,00 et 100,00 : les soldes initiaux couvrent la durée d'un passage
+    private static String amount(SplittableRandom random) {
+        long minor = 100 + random.nextInt(9_901);
+        return minor / 100 + "." + String.format("%02d", minor % 100);
+    }
+
+    private long otherAccount(long account, SplittableRandom random) {
+        long destination = pick(dataset.accountIds(), random);
+        while (destination == account && dataset.accountIds().length > 1) {
+            destination = pick(dataset.accountIds(), random);
+        }
+        return destination;
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String pick(List<String> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static long pick(long[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.securityjwt.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences et débit par point d'entrée, sur la fenêtre de mesure (après la chauffe)
+ * Latences en microsecondes, mesurées depuis l'heure d'envoi prévue par le planificateur
+ */
+class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    static final class EndpointStats {
+        // Redimensionnement automatique ; 3 chiffres significatifs
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    void record(String endpoint, long latencyNanos, int status) {
+        EndpointStats stats = stats(endpoint);
+        stats.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * Erreur réseau ou délai dépassé : pas de statut HTTP, la latence reste enregistrée
+     */
+    void recordFailure(String endpoint, long latencyNanos) {
+        EndpointStats stats = stats(endpoint);
+        stats.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        stats.failures.increment();
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+    }
+
+    void print(PrintStream out, double measuredSeconds) {
+        out.printf("%n%-18s %9s %9s %9s %9s %9s %9s %9s %9s  %s%n", "endpoint", "count", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "statuts");
+        long total = 0;
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram h = stats.latencies;
+            long count = h.getTotalCount();
+            total += count;
+            out.printf("%-18s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d  %s%n", entry.getKey(), count,
+                    count / measuredSeconds,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()), errors(stats), statuses(stats));
+        }
+        out.printf("%-18s %9d %9.1f%n", "total", total, total / measuredSeconds);
+    }
+
+    /**
+     * Une distribution par point d'entrée, au format HdrHistogram (.hgrm, valeurs en ms) :
+     * à comparer entre deux passages avec le HdrHistogram plotter
+     */
+    void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static long errors(EndpointStats stats) {
+        long errors = stats.failures.sum();
+        for (Map.Entry<Integer, LongAdder> status : stats.statuses.entrySet()) {
+            if (status.getKey() >= 400) {
+                errors += status.getValue().sum();
+            }
+        }
+        return errors;
+    }
+
+    private static String statuses(EndpointStats stats) {
+        StringBuilder builder = new StringBuilder();
+        stats.statuses.forEach((status, count) -> builder.append(status).append('=').append(count.sum()).append(' '));
+        if (stats.failures.sum() > 0) {
+            builder.append("io=").append(stats.failures.sum());
+        }
+        return builder.toString().trim();
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
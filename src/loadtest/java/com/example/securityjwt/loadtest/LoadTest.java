@@ -0,0 +1,160 @@
+package com.example.securityjwt.loadtest;
+
+import com.example.securityjwt.SecurityJwtApplication;
+import com.example.securityjwt.entity.SnowflakeIds;
+import com.example.securityjwt.services.BalanceEngine;
+import com.example.securityjwt.services.BankAggregates;
+import com.example.securityjwt.services.CustomerSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge autonome : démarre l'application sur un port libre, insère le jeu de données,
+ * obtient un JWT par utilisateur via /api/auth/signin, puis joue le mélange de requêtes en boucle
+ * ouverte et affiche latences et débit par point d'entrée
+ *
+ * Options (arguments --loadtest.*) ; tout autre argument est une propriété Spring,
+ * ex. --bankmanagement.ledger.mode=memory ou --spring.datasource.url=...
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX =
+            "account:30,customer:10,customer_accounts:10,history:10,search:15,debit:10,credit:5,transfer:10";
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SecurityJwtApplication.class)
+                .properties(
+                        "server.port=0",
+                        // Mesure du serveur, pas du limiteur : un utilisateur de charge dépasserait son quota
+                        "bankmanagement.ratelimit.enabled=false",
+                        "bankmanagement.ledger.dataDir=target/loadtest/ledger-data",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.securityjwt=INFO",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run(args);
+        try {
+            run(context);
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(ConfigurableApplicationContext context) throws Exception {
+        Environment env = context.getEnvironment();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        URI baseUri = URI.create("http://localhost:" + port);
+
+        // 1. Jeu de données
+        DatasetGenerator generator = new DatasetGenerator(
+                context.getBean(JdbcTemplate.class),
+                context.getBean(PasswordEncoder.class),
+                context.getBean(BalanceEngine.class),
+                context.getBean(CustomerSearchService.class),
+                SnowflakeIds.forNode(env.getProperty("bankmanagement.ids.nodeId", Integer.class, 0)),
+                env.getProperty("loadtest.batchSize", Integer.class, 1000));
+        long initialBalanceMinor = env.getProperty("loadtest.initialBalanceMinor", Long.class, 100_000_000L);
+        DatasetGenerator.Dataset dataset = generator.generate(
+                env.getProperty("loadtest.users", Integer.class, 20),
+                env.getProperty("loadtest.password", "LoadTest#2024"),
+                env.getProperty("loadtest.customers", Integer.class, 10_000),
+                env.getProperty("loadtest.accountsPerCustomer", Integer.class, 2),
+                env.getProperty("loadtest.operationsPerAccount", Integer.class, 20),
+                initialBalanceMinor);
+        // Comptes insérés directement en base : agrégats de la banque recalculés
+        context.getBean(BankAggregates.class).rebuild();
+
+        Duration timeout = Duration.ofMillis(env.getProperty("loadtest.timeoutMs", Long.class, 10_000L));
+        ExecutorService responses = Executors.newFixedThreadPool(
+                env.getProperty("loadtest.clientThreads", Integer.class, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(responses)
+                .build();
+        try {
+            // 2. Un JWT par utilisateur, obtenu par le vrai point d'entrée de connexion
+            List<String> tokens = new ArrayList<>(dataset.usernames().size());
+            LoadMix mix = new LoadMix(env.getProperty("loadtest.mix", DEFAULT_MIX), baseUri, dataset, tokens, timeout,
+                    env.getProperty("loadtest.idempotencyKeys", Boolean.class, true));
+            signin(client, mix, dataset, tokens);
+
+            // Scénario d'export de relevé en flux : remplace le mélange
+            int statementRows = env.getProperty("loadtest.statementRows", Integer.class, 0);
+            if (statementRows > 0) {
+                long accountId = generator.insertStatementAccount(dataset.customerIds()[0], statementRows,
+                        initialBalanceMinor);
+                StatementStreamCheck check = new StatementStreamCheck(client, baseUri, tokens.get(0), timeout);
+                if (!check.run(accountId, statementRows, System.out)) {
+                    throw new IllegalStateException("Statement export check failed");
+                }
+                return;
+            }
+
+            // 3. Flux en boucle ouverte : le mélange, plus une éventuelle saturation de la connexion
+            double rate = env.getProperty("loadtest.rate", Double.class, 500.0);
+            double signinFloodRate = env.getProperty("loadtest.signinFloodRate", Double.class, 0.0);
+            List<OpenLoopDriver.Stream> streams = new ArrayList<>();
+            streams.add(new OpenLoopDriver.Stream("mix", rate, mix::next));
+            if (signinFloodRate > 0) {
+                streams.add(new OpenLoopDriver.Stream(LoadMix.SIGNIN_FLOOD, signinFloodRate, mix::failedSignin));
+            }
+
+            long warmupSeconds = env.getProperty("loadtest.warmupSeconds", Long.class, 10L);
+            long durationSeconds = env.getProperty("loadtest.durationSeconds", Long.class, 60L);
+            System.out.printf("%nLoad test on %s: %.0f req/s for %ds (warmup %ds), signin flood %.0f req/s%n",
+                    baseUri, rate, durationSeconds, warmupSeconds, signinFloodRate);
+
+            OpenLoopDriver driver = new OpenLoopDriver(client, env.getProperty("loadtest.maxInFlight", Integer.class, 1000));
+            LoadReport report = new LoadReport();
+            driver.run(streams, TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(durationSeconds),
+                    report);
+
+            // 4. Résultats
+            report.print(System.out, durationSeconds);
+            if (driver.lateSends() > 0) {
+                System.out.printf("%nWARNING: %d sends started more than 1 ms late (client saturated?)%n",
+                        driver.lateSends());
+            }
+            Path output = Path.of(env.getProperty("loadtest.output", "target/loadtest"));
+            report.writeHistograms(output);
+            System.out.println("Latency distributions: " + output.toAbsolutePath());
+        } finally {
+            responses.shutdownNow();
+        }
+    }
+
+    private static void signin(HttpClient client, LoadMix mix, DatasetGenerator.Dataset dataset, List<String> tokens)
+            throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String username : dataset.usernames()) {
+            HttpResponse<String> response = client.send(
+                    mix.signin(LoadMix.Endpoint.SIGNIN.label(), username, dataset.password()).request(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Signin failed for " + username + ": "
+                        + response.statusCode() + " " + response.body());
+            }
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.securityjwt.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Planificateur en boucle ouverte : la requête n est due à start + n / débit, que les précédentes
+ * aient répondu ou non. La latence est mesurée depuis cette heure prévue et non depuis l'envoi
+ * effectif : un serveur qui ralentit fait grimper les percentiles au lieu de ralentir le client
+ * (pas d'omission coordonnée). Au-delà de maxInFlight requêtes en cours, l'envoi attend une place,
+ * et cette attente est comptée dans la latence
+ */
+class OpenLoopDriver {
+
+    /**
+     * Flux de requêtes à débit constant (requêtes par seconde)
+     */
+    record Stream(String name, double rate, Function<SplittableRandom, LoadMix.Call> calls) {
+    }
+
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final AtomicLong late = new AtomicLong();
+
+    OpenLoopDriver(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Joue les flux en parallèle pendant warmup + duration ; seules les requêtes prévues après
+     * la chauffe sont enregistrées dans le rapport
+     */
+    void run(List<Stream> streams, long warmupNanos, long durationNanos, LoadReport report)
+            throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+
+        List<Thread> schedulers = new ArrayList<>(streams.size());
+        long seed = 42;
+        for (Stream stream : streams) {
+            SplittableRandom random = new SplittableRandom(seed++);
+            Thread scheduler = new Thread(() -> schedule(stream, random, start, measureFrom, end, report),
+                    "loadtest-" + stream.name());
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        // Attend les réponses encore en vol (bornées par le délai des requêtes)
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    /**
+     * Nombre d'envois partis plus d'une milliseconde après l'heure prévue : s'il est élevé,
+     * c'est le client qui sature et les résultats ne reflètent plus le serveur
+     */
+    long lateSends() {
+        return late.get();
+    }
+
+    private void schedule(Stream stream, SplittableRandom random, long start, long measureFrom, long end,
+                          LoadReport report) {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / stream.rate();
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadMix.Call call = stream.calls().apply(random);
+            inFlight.acquireUninterruptibly();
+            if (System.nanoTime() - intended > TimeUnit.MILLISECONDS.toNanos(1)) {
+                late.incrementAndGet();
+            }
+            boolean measured = intended >= measureFrom;
+            client.sendAsync(call.request(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - intended;
+                        inFlight.release();
+                        if (!measured) {
+                            return;
+                        }
+                        if (failure != null) {
+                            report.recordFailure(call.endpoint(), latency);
+                        } else {
+                            report.record(call.endpoint(), latency, response.statusCode());
+                        }
+                    });
+        }
+    }
+}
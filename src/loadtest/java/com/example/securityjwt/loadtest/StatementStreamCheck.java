@@ -0,0 +1,129 @@
+package com.example.securityjwt.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Export en flux d'un relevé de plusieurs millions de lignes (GET /api/accounts/{id}/statement),
+ * en CSV puis en NDJSON, lu ligne à ligne par le client
+ * Vérifie le nombre de lignes et que chaque ligne NDJSON est un objet JSON seul ;
+ * le pic de tas (application et client dans la même JVM) montre que rien n'est chargé en mémoire :
+ * lancer avec un petit tas (-Xmx256m) et une base sur disque
+ */
+class StatementStreamCheck {
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final String token;
+    private final Duration timeout;
+
+    StatementStreamCheck(HttpClient client, URI baseUri, String token, Duration timeout) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.token = token;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return false si un des exports est incomplet ou mal formé
+     */
+    boolean run(long accountId, long expectedRows, PrintStream out) throws Exception {
+        out.printf("%nStatement export of %d operations, max heap %d MB%n", expectedRows,
+                Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        out.printf("%-8s %12s %12s %10s %10s %14s  %s%n", "format", "lines", "bytes", "seconds", "rows/s",
+                "peak heap MB", "result");
+        boolean csv = export(accountId, "csv", expectedRows + 1, out);
+        boolean ndjson = export(accountId, "ndjson", expectedRows, out);
+        return csv && ndjson;
+    }
+
+    private boolean export(long accountId, String format, long expectedLines, PrintStream out) throws Exception {
+        System.gc();
+        resetPeakHeap();
+        HttpRequest request = HttpRequest.newBuilder(
+                        baseUri.resolve("/api/accounts/" + accountId + "/statement?format=" + format))
+                // Délai de la première réponse ; la lecture du corps n'est pas bornée
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            out.printf("%-8s HTTP %d%n", format, response.statusCode());
+            return false;
+        }
+
+        long lines = 0;
+        long bytes = 0;
+        String error = null;
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                bytes += line.length() + 1;
+                if (error == null && "ndjson".equals(format)) {
+                    error = checkNdjson(line, lines, objectMapper);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (error == null && lines != expectedLines) {
+            error = "expected " + expectedLines + " lines";
+        }
+        out.printf("%-8s %12d %12d %10.1f %10.0f %14d  %s%n", format, lines, bytes, seconds, lines / seconds,
+                peakHeap() / (1024 * 1024), error == null ? "OK" : error);
+        return error == null;
+    }
+
+    /**
+     * Objet JSON complet sur chaque ligne ; analyse complète d'une ligne sur 100 000 seulement
+     */
+    private static String checkNdjson(String line, long number, ObjectMapper objectMapper) throws IOException {
+        if (line.isEmpty() || line.charAt(0) != '{' || line.charAt(line.length() - 1) != '}') {
+            return "line " + number + " is not a JSON object: " + line;
+        }
+        if (number % 100_000 == 1 && !objectMapper.readTree(line).isObject()) {
+            return "line " + number + " does not parse: " + line;
+        }
+        return null;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Somme des pics de chaque zone : majorant du pic réel
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
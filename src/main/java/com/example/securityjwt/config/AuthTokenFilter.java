@@ -1,22 +1,25 @@
 package com.example.securityjwt.config;
 
+import com.example.securityjwt.services.UserDetailsImpl;
 import com.example.securityjwt.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.logging.Logger;
 
 /**
  * Filtre qui intercepte chaque requête HTTP pour vérifier le token JWT
@@ -31,8 +34,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    // Résultats propres au filtre, à côté de ceux de JwtUtils (auth.jwt.validations{outcome})
+    private Counter revoked;
+    private Counter disabled;
+    private Counter error;
+
+    @PostConstruct
+    void initMetrics() {
+        revoked = JwtUtils.validationCounter(meterRegistry, "revoked");
+        disabled = JwtUtils.validationCounter(meterRegistry, "disabled");
+        error = JwtUtils.validationCounter(meterRegistry, "error");
+    }
+
     /**
      * Méthode principale du filtre - s'exécute pour chaque requête
      */
@@ -45,30 +66,41 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             // 1. Extraction du token JWT de l'en-tête Authorization
             String jwt = parseJwt(request);
 
-            // 2. Vérification et validation du token
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-
-                // 3. Extraction du nom d'utilisateur du token
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                // 4. Chargement des détails de l'utilisateur depuis la DB
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                // 5. Création de l'objet d'authentification Spring Security
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails,
-                                null,
-                                userDetails.getAuthorities());
+            // 2. Vérification du token en une seule passe (signature, expiration)
+            VerifiedToken verified = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
 
-                // 6. Ajout des détails de la requête (IP, session, etc.)
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (verified != null) {
 
-                // 7. Définition de l'authentification dans le contexte Spring Security
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                // 3. Extraction du nom d'utilisateur du token
+                String username = verified.subject();
+
+                // 4. État courant de l'utilisateur (cache des utilisateurs) : autorités, activation
+                // et révocation ne sont jamais lues dans le token
+                UserDetailsImpl user = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+
+                // 5. Création de l'objet d'authentification (jamais pour un token révoqué ou un compte désactivé)
+                if (revocationRegistry.isRevoked(user, verified.version())) {
+                    revoked.increment();
+                } else if (user.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(user,
+                                    null,
+                                    user.getAuthorities());
+
+                    // 6. Ajout des détails de la requête (IP, session, etc.)
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    // 7. Définition de l'authentification dans le contexte Spring Security
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    disabled.increment();
+                }
             }
 
         } catch (Exception e) {
-            // Log l'erreur mais ne bloque pas la requête
+            // Log l'erreur mais ne bloque pas la requête (elle continue sans authentification)
+            logger.error("Cannot set user authentication: {}", e.getMessage(), e);
+            error.increment();
         }
 
         // 8. Continue la chaîne de filtres (très important !)
@@ -0,0 +1,55 @@
+package com.example.securityjwt.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration des caches de lecture (comptes et clients)
+ * Caffeine par défaut ; avec bankmanagement.cache.provider=spring, le CacheManager
+ * est celui configuré par Spring Boot (spring.cache.type : redis, hazelcast...)
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BANK_ACCOUNTS = "bankAccounts";
+    public static final String CUSTOMERS = "customers";
+
+    @Value("${bankmanagement.cache.bankAccounts.maximumSize:10000}")
+    private long bankAccountsMaximumSize;
+
+    @Value("${bankmanagement.cache.bankAccounts.ttlSeconds:60}")
+    private long bankAccountsTtlSeconds;
+
+    @Value("${bankmanagement.cache.customers.maximumSize:10000}")
+    private long customersMaximumSize;
+
+    @Value("${bankmanagement.cache.customers.ttlSeconds:300}")
+    private long customersTtlSeconds;
+
+    @Bean
+    @ConditionalOnProperty(name = "bankmanagement.cache.provider", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Limites propres à chaque cache, statistiques activées pour les métriques
+        cacheManager.registerCustomCache(BANK_ACCOUNTS, Caffeine.newBuilder()
+                .maximumSize(bankAccountsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(bankAccountsTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CUSTOMERS, Caffeine.newBuilder()
+                .maximumSize(customersMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(customersTtlSeconds))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.securityjwt.config;
+
+import com.example.securityjwt.entity.SnowflakeIdGenerator;
+import com.example.securityjwt.entity.SnowflakeIds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transmet le numéro de nœud des identifiants (bankmanagement.ids.nodeId) aux générateurs Hibernate
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Value("${bankmanagement.ids.nodeId:0}")
+    private int nodeId;
+
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeNodeCustomizer() {
+        if (nodeId < 0 || nodeId > SnowflakeIds.MAX_NODE) {
+            throw new IllegalStateException("bankmanagement.ids.nodeId doit être compris entre 0 et "
+                    + SnowflakeIds.MAX_NODE + " : " + nodeId);
+        }
+        return properties -> properties.put(SnowflakeIdGenerator.NODE_SETTING, nodeId);
+    }
+}
@@ -1,12 +1,35 @@
 package com.example.securityjwt.config;
 
-import lombok.Value;
+import com.example.securityjwt.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.logging.Logger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
 
 /**
  * Utilitaire pour générer, valider et parser les tokens JWT
@@ -17,14 +40,65 @@ public class JwtUtils {
     // Logger pour tracer les erreurs JWT
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    // Clé secrète depuis application.yml
-    @Value("${app.jwtSecret}")
+    // Clé secrète depuis application.properties
+    @Value("${bankmanagement.app.jwtSecret}")
     private String jwtSecret;
 
     // Durée d'expiration du token (24h par défaut)
-    @Value("${app.jwtExpirationMs}")
+    @Value("${bankmanagement.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    // Nombre de tokens déjà vérifiés gardés en mémoire
+    @Value("${bankmanagement.app.jwtVerifiedCacheSize:10000}")
+    private int verifiedCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Clé et parser construits une seule fois (immuables et thread-safe)
+    private Key key;
+    private JwtParser parser;
+
+    // Cache borné (Caffeine, sans verrou global) : empreinte SHA-256 du token -> (subject, expiration)
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    // auth.jwt.validations{outcome} : résultat de chaque vérification de token
+    private Counter validCached;
+    private Counter valid;
+    private Counter expired;
+    private Counter invalidSignature;
+    private Counter malformed;
+    private Counter unsupported;
+    private Counter empty;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        // Un token n'est plus utile après son expiration : même durée de vie dans le cache (0 : pas de cache)
+        verifiedTokens = verifiedCacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+        validCached = validationCounter(meterRegistry, "valid_cached");
+        valid = validationCounter(meterRegistry, "valid");
+        expired = validationCounter(meterRegistry, "expired");
+        invalidSignature = validationCounter(meterRegistry, "invalid_signature");
+        malformed = validationCounter(meterRegistry, "malformed");
+        unsupported = validationCounter(meterRegistry, "unsupported");
+        empty = validationCounter(meterRegistry, "empty");
+    }
+
+    /**
+     * Compteur auth.jwt.validations pour un résultat ; aussi utilisé par AuthTokenFilter
+     */
+    static Counter validationCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("auth.jwt.validations")
+                .description("Vérifications de tokens JWT par résultat")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
     /**
      * Génère un token JWT à partir de l'authentification
      */
@@ -35,29 +109,76 @@ public class JwtUtils {
 
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))  // Nom d'utilisateur comme subject
+                .claim("ver", userPrincipal.getTokenVersion())  // Version révocable (TokenRevocationRegistry)
                 .setIssuedAt(new Date())                     // Date de création
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))  // Date d'expiration
-                .signWith(key(), SignatureAlgorithm.HS256)   // Signature avec clé secrète
+                .signWith(key, SignatureAlgorithm.HS256)     // Signature avec clé secrète
                 .compact();                                  // Génère le token final
     }
 
     /**
-     * Génère la clé de signature à partir du secret
+     * Vérifie le token une seule fois et retourne ses informations utiles
+     * Un token déjà vérifié et non expiré est servi depuis le cache, sans recalcul HMAC
+     * Retourne null si le token est invalide ou expiré
      */
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public VerifiedToken verifyJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            empty.increment();
+            return null;
+        }
+
+        String digest = verifiedTokens != null ? digest(authToken) : null;
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = digest != null ? verifiedTokens.getIfPresent(digest) : null;
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                validCached.increment();
+                return cached;
+            }
+            verifiedTokens.invalidate(digest);
+            logger.error("JWT token is expired");
+            expired.increment();
+            return null;
+        }
+
+        try {
+            // Parse et vérifie la signature et l'expiration en une passe
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            VerifiedToken verified = toVerifiedToken(claims);
+            if (digest != null) {
+                verifiedTokens.put(digest, verified);
+            }
+            valid.increment();
+            return verified;
+
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            invalidSignature.increment();
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+            malformed.increment();
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+            expired.increment();
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+            unsupported.increment();
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+            empty.increment();
+        }
+
+        return null;
     }
 
     /**
      * Extrait le nom d'utilisateur du token JWT
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())           // Utilise la même clé pour vérifier
-                .build()
-                .parseClaimsJws(token)          // Parse et vérifie le token
-                .getBody()                      // Récupère le payload
-                .getSubject();                  // Extrait le subject (username)
+        VerifiedToken verified = verifyJwtToken(token);
+        return verified != null ? verified.subject() : null;
     }
 
     /**
@@ -65,24 +186,25 @@ public class JwtUtils {
      * Vérifie la signature, l'expiration, etc.
      */
     public boolean validateJwtToken(String authToken) {
-        try {
-            // Tente de parser le token
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(authToken);
-            return true;
+        return verifyJwtToken(authToken) != null;
+    }
 
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        }
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        Number version = claims.get("ver", Number.class);
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                version != null ? version.longValue() : 0L,
+                claims.getExpiration().getTime());
+    }
 
-        return false;
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
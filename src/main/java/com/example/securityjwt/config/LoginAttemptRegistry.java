@@ -0,0 +1,76 @@
+package com.example.securityjwt.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compteurs d'échecs de connexion par nom d'utilisateur et par adresse IP
+ * Au-delà du seuil, la connexion est refusée avant tout calcul BCrypt, jusqu'à la fin
+ * de la fenêtre ouverte par le premier échec. Une connexion réussie remet à zéro le compteur
+ * de l'utilisateur (pas celui de l'adresse IP, qui peut essayer de nombreux comptes)
+ */
+@Component
+public class LoginAttemptRegistry {
+
+    @Value("${bankmanagement.auth.maxFailedAttempts:5}")
+    private int maxFailedAttempts;
+
+    @Value("${bankmanagement.auth.maxFailedAttemptsPerIp:20}")
+    private int maxFailedAttemptsPerIp;
+
+    @Value("${bankmanagement.auth.failedAttemptsWindowSeconds:900}")
+    private long windowSeconds;
+
+    @Value("${bankmanagement.ratelimit.maximumKeys:100000}")
+    private long maximumKeys;
+
+    private Cache<String, AtomicInteger> failuresByUsername;
+    private Cache<String, AtomicInteger> failuresByIp;
+
+    @PostConstruct
+    void init() {
+        failuresByUsername = newCounters();
+        failuresByIp = newCounters();
+    }
+
+    /**
+     * true si l'utilisateur ou l'adresse IP a dépassé le nombre d'échecs autorisé
+     */
+    public boolean isBlocked(String username, String clientIp) {
+        return exceeds(failuresByUsername.getIfPresent(username), maxFailedAttempts)
+                || exceeds(failuresByIp.getIfPresent(clientIp), maxFailedAttemptsPerIp);
+    }
+
+    public void loginFailed(String username, String clientIp) {
+        failuresByUsername.get(username, key -> new AtomicInteger()).incrementAndGet();
+        failuresByIp.get(clientIp, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void loginSucceeded(String username) {
+        failuresByUsername.invalidate(username);
+    }
+
+    /**
+     * Durée restante du blocage, en secondes (majorant : la fenêtre complète)
+     */
+    public long retryAfterSeconds() {
+        return windowSeconds;
+    }
+
+    private Cache<String, AtomicInteger> newCounters() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    private static boolean exceeds(AtomicInteger failures, int max) {
+        return failures != null && failures.get() >= max;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.securityjwt.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dédié aux calculs BCrypt (connexion)
+ * Un hachage coûte des dizaines de millisecondes de CPU : exécutés sur les threads Tomcat,
+ * une rafale de connexions bloquerait tous les autres endpoints. Ici le nombre de threads et
+ * la file d'attente sont bornés ; une fois la file pleine, les demandes sont refusées
+ * immédiatement (RejectedExecutionException) au lieu de s'accumuler
+ * Volontairement pas un bean Executor : Spring Boot ne créerait plus son exécuteur par défaut
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    // 0 : la moitié des processeurs (au moins 1)
+    @Value("${bankmanagement.auth.hashThreads:0}")
+    private int threads;
+
+    @Value("${bankmanagement.auth.hashQueueCapacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Exécute task sur le pool ; lève RejectedExecutionException si la file est pleine
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) throws RejectedExecutionException {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
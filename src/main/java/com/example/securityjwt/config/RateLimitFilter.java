@@ -0,0 +1,70 @@
+package com.example.securityjwt.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Filtre de limitation de débit, placé juste après AuthTokenFilter dans la chaîne de sécurité
+ * (l'utilisateur du JWT est déjà connu). Au-delà du débit autorisé : 429 avec Retry-After
+ * Volontairement pas un @Component : Spring Boot l'enregistrerait aussi comme filtre de servlet,
+ * exécuté avant la chaîne de sécurité et donc sans utilisateur
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long waitNanos = rateLimiter.tryAcquire(path,
+                SecurityContextHolder.getContext().getAuthentication(), request.getRemoteAddr());
+
+        if (waitNanos > 0) {
+            // Retry-After en secondes entières, arrondi au-dessus
+            long retryAfter = (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+            final Map<String, Object> body = new HashMap<>();
+            body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            body.put("error", "Too Many Requests");
+            body.put("message", "Trop de requêtes, réessayer dans " + retryAfter + " s");
+            body.put("path", request.getServletPath());
+            body.put("timestamp", System.currentTimeMillis());
+            MAPPER.writeValue(response.getOutputStream(), body);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.securityjwt.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitation de débit par utilisateur (sujet du JWT), ou par adresse IP sans authentification
+ * Règles bankmanagement.ratelimit.rules, séparées par des virgules, évaluées dans l'ordre :
+ *   motif[@RÔLE|@ip]=requêtesParSeconde:rafale
+ * La première règle dont le motif correspond (et dont l'utilisateur a le rôle) s'applique ;
+ * "@ip" compte par adresse IP même pour un utilisateur authentifié (login, inscription)
+ * Chaque compteur est un seau à jetons sans verrou : un seul AtomicLong qui contient l'instant
+ * théorique du prochain jeton, avancé par compareAndSet (algorithme GCRA)
+ */
+@Component
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Value("${bankmanagement.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bankmanagement.ratelimit.rules:/api/auth/**@ip=2:20,/**=50:100}")
+    private String rulesSpec;
+
+    // Nombre maximal de compteurs gardés en mémoire (utilisateurs et adresses IP)
+    @Value("${bankmanagement.ratelimit.maximumKeys:100000}")
+    private long maximumKeys;
+
+    private record Rule(int index, PathPattern pattern, String authority, boolean perIp,
+                        long intervalNanos, long toleranceNanos) {
+    }
+
+    private record BucketKey(int rule, String client) {
+    }
+
+    private List<Rule> rules;
+
+    private Cache<BucketKey, AtomicLong> buckets;
+
+    // Horloge en nanosecondes, remplacée dans les tests
+    private final LongSupplier clock;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        rules = parseRules(rulesSpec);
+        // Un seau inactif plus longtemps que son temps de remplissage est plein : inutile de le garder
+        long refillNanos = rules.stream().mapToLong(Rule::toleranceNanos).max().orElse(0);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(refillNanos, NANOS_PER_SECOND)))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consomme un jeton pour cette requête
+     * Retourne 0 si elle est acceptée, sinon le délai en nanosecondes avant le prochain jeton
+     */
+    public long tryAcquire(String path, Authentication authentication, String clientIp) {
+        boolean authenticated = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+        Rule rule = matchingRule(PathContainer.parsePath(path), authenticated ? authentication : null);
+        if (rule == null) {
+            return 0;
+        }
+
+        String client = rule.perIp() || !authenticated ? clientIp : authentication.getName();
+        AtomicLong theoreticalArrival = buckets.get(new BucketKey(rule.index(), client),
+                key -> new AtomicLong(Long.MIN_VALUE));
+
+        long now = clock.getAsLong();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + rule.intervalNanos();
+            long wait = next - now - rule.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Rule matchingRule(PathContainer path, Authentication authentication) {
+        for (Rule rule : rules) {
+            if (rule.authority() != null && !hasAuthority(authentication, rule.authority())) {
+                continue;
+            }
+            if (rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        if (authentication == null) {
+            return false;
+        }
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Rule> parseRules(String spec) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            int colon = entry.lastIndexOf(':');
+            if (equals < 0 || colon < equals) {
+                throw new IllegalArgumentException("Invalid rate limit rule: " + entry);
+            }
+            String selector = entry.substring(0, equals).trim();
+            double perSecond = Double.parseDouble(entry.substring(equals + 1, colon).trim());
+            int burst = Integer.parseInt(entry.substring(colon + 1).trim());
+            if (perSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Invalid rate limit rule: " + entry);
+            }
+
+            String pattern = selector;
+            String authority = null;
+            boolean perIp = false;
+            int at = selector.indexOf('@');
+            if (at >= 0) {
+                pattern = selector.substring(0, at);
+                String qualifier = selector.substring(at + 1);
+                if (qualifier.equalsIgnoreCase("ip")) {
+                    perIp = true;
+                } else {
+                    authority = "ROLE_" + qualifier.toUpperCase();
+                }
+            }
+
+            long intervalNanos = (long) (NANOS_PER_SECOND / perSecond);
+            parsed.add(new Rule(parsed.size(), PathPatternParser.defaultInstance.parse(pattern), authority,
+                    perIp, intervalNanos, intervalNanos * burst));
+        }
+        return List.copyOf(parsed);
+    }
+}
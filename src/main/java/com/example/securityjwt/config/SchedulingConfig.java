@@ -0,0 +1,12 @@
+package com.example.securityjwt.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les traitements planifiés (calcul nocturne des intérêts)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,39 @@
+package com.example.securityjwt.config;
+
+import com.example.securityjwt.repositories.UserRepository;
+import com.example.securityjwt.services.UserDetailsImpl;
+import com.example.securityjwt.services.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Révocation des tokens "stateless", persistée en base (users.token_version)
+ * Chaque token porte la version de son utilisateur au moment de sa création ; révoquer ses tokens
+ * enregistre une nouvelle version et rejette tous ses tokens antérieurs, y compris après un redémarrage
+ * La version courante est lue dans le cache des utilisateurs : immédiat sur cette instance,
+ * au plus tard après bankmanagement.app.userCacheTtlSeconds sur les autres
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    /**
+     * Rejette tous les tokens déjà émis pour cet utilisateur
+     */
+    public void revoke(String username) {
+        userRepository.incrementTokenVersion(username, System.currentTimeMillis());
+        userDetailsService.evictUser(username);
+    }
+
+    /**
+     * Un token est révoqué s'il a été émis avant la dernière révocation de son utilisateur
+     */
+    public boolean isRevoked(UserDetailsImpl user, long tokenVersion) {
+        return tokenVersion < user.getTokenVersion();
+    }
+}
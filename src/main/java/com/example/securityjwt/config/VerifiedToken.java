@@ -0,0 +1,12 @@
+package com.example.securityjwt.config;
+
+/**
+ * Résultat d'une vérification JWT réussie : ce dont le filtre a besoin,
+ * sans reparser le token
+ */
+public record VerifiedToken(String subject, long version, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -2,10 +2,15 @@ package com.example.securityjwt.config;
 
 import com.example.securityjwt.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,12 +19,15 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Configuration principale de Spring Security
@@ -36,6 +44,17 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Coût BCrypt (2^strength itérations) ; les hachages d'un autre coût sont recalculés à la connexion
+    @Value("${bankmanagement.auth.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    // Réseaux autorisés à collecter /actuator/prometheus sans token (adresse de connexion, CIDR)
+    @Value("${bankmanagement.management.prometheusNetworks:127.0.0.1/32,::1/128}")
+    private String prometheusNetworks;
+
     /**
      * Crée le filtre JWT personnalisé
      */
@@ -54,6 +73,7 @@ public class WebSecurityConfig {
 
         authProvider.setUserDetailsService(userDetailsService);  // Notre service pour charger les users
         authProvider.setPasswordEncoder(passwordEncoder());      // BCrypt pour hasher les mots de passe
+        authProvider.setUserDetailsPasswordService(userDetailsService);  // Re-hachage si le coût a changé
 
         return authProvider;
     }
@@ -69,10 +89,31 @@ public class WebSecurityConfig {
 
     /**
      * Encodeur de mot de passe - BCrypt (recommandé)
+     * Un hachage dont le coût diffère de bcryptStrength (plus haut ou plus bas) est signalé
+     * à upgradeEncoding : DaoAuthenticationProvider le recalcule après une connexion réussie
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();    // Hash avec salt automatique
+        return new BCryptPasswordEncoder(bcryptStrength) {    // Hash avec salt automatique
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return super.upgradeEncoding(encodedPassword) || bcryptCost(encodedPassword) != bcryptStrength;
+            }
+        };
+    }
+
+    /**
+     * Coût d'un hachage "$2a$10$...", -1 s'il n'est pas au format BCrypt
+     */
+    private static int bcryptCost(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     /**
@@ -128,9 +169,12 @@ public class WebSecurityConfig {
                         .requestMatchers("/h2-console/**").permitAll()        // Console H2 (dev only)
                         .requestMatchers("/swagger-ui/**").permitAll()        // Documentation API
                         .requestMatchers("/v3/api-docs/**").permitAll()       // OpenAPI docs
+                        .requestMatchers("/actuator/health/**").permitAll()   // Sondes de disponibilité
 
                         // ===== ROUTES AVEC RÔLES SPÉCIFIQUES =====
+                        .requestMatchers("/actuator/prometheus").access(prometheusScrapers())  // Réseaux de collecte ou Admin
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")               // Admin seulement
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")                // Autres endpoints de supervision
                         .requestMatchers("/api/manager/**").hasAnyRole("ADMIN", "MANAGER")  // Admin ou Manager
 
                         // ===== ROUTES PROTÉGÉES (authentification requise) =====
@@ -149,9 +193,27 @@ public class WebSecurityConfig {
         http.addFilterBefore(authenticationJwtTokenFilter(),
                 UsernamePasswordAuthenticationFilter.class);
 
+        // Limitation de débit juste après le filtre JWT : compteur par utilisateur (ou par IP)
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), AuthTokenFilter.class);
+
         // Configuration pour H2 Console (développement uniquement)
         http.headers(headers -> headers.frameOptions().sameOrigin());
 
         return http.build();
     }
+
+    /**
+     * Collecte Prometheus : sans token depuis les réseaux configurés, sinon rôle ADMIN
+     * L'adresse testée est celle de la connexion (pas X-Forwarded-For, sauf server.forward-headers-strategy)
+     */
+    private AuthorizationManager<RequestAuthorizationContext> prometheusScrapers() {
+        List<IpAddressMatcher> networks = Arrays.stream(prometheusNetworks.split(","))
+                .map(String::trim)
+                .filter(network -> !network.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        AuthorizationManager<RequestAuthorizationContext> fromNetwork = (authentication, context) ->
+                new AuthorizationDecision(networks.stream().anyMatch(network -> network.matches(context.getRequest())));
+        return AuthorizationManagers.anyOf(fromNetwork, AuthorityAuthorizationManager.hasRole("ADMIN"));
+    }
 }
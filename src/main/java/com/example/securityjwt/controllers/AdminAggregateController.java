@@ -0,0 +1,55 @@
+package com.example.securityjwt.controllers;
+
+import com.example.securityjwt.dtos.BankAggregatesDTO;
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.services.BankAggregates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Contrôleur REST des agrégats de la banque, lus en mémoire (aucune requête en base)
+ * Accessible uniquement aux ADMINS (voir WebSecurityConfig : /api/admin/**)
+ */
+@RestController
+@RequestMapping("/api/admin/aggregates")
+@CrossOrigin(origins = "*")
+public class AdminAggregateController {
+
+    @Autowired
+    BankAggregates bankAggregates;
+
+    /**
+     * AGRÉGATS ET PLUS GRANDS SOLDES
+     * GET /api/admin/aggregates?top=10 (top borné par bankmanagement.aggregates.topSize)
+     */
+    @GetMapping
+    public ResponseEntity<BankAggregatesDTO> aggregates(@RequestParam(required = false) Integer top) {
+        int size = top == null ? bankAggregates.topSize() : Math.max(0, top);
+        return ResponseEntity.ok(bankAggregates.snapshot(size));
+    }
+
+    /**
+     * RECALCUL COMPLET DEPUIS LA BASE
+     * POST /api/admin/aggregates/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> startRebuild() {
+        if (!bankAggregates.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Recalcul déjà en cours"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Recalcul lancé"));
+    }
+
+    /**
+     * ÉTAT DU RECALCUL
+     * GET /api/admin/aggregates/rebuild
+     */
+    @GetMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStatus() {
+        return ResponseEntity.ok(Map.of("running", bankAggregates.isRebuilding()));
+    }
+}
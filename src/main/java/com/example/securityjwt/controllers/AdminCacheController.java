@@ -0,0 +1,48 @@
+package com.example.securityjwt.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contrôleur REST d'observation des caches de lecture
+ * Accessible uniquement aux ADMINS (voir WebSecurityConfig : /api/admin/**)
+ */
+@RestController
+@RequestMapping("/api/admin/caches")
+@CrossOrigin(origins = "*")
+public class AdminCacheController {
+
+    @Autowired
+    CacheManager cacheManager;
+
+    /**
+     * STATISTIQUES DES CACHES
+     * GET /api/admin/caches
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                Map<String, Object> cacheBody = new LinkedHashMap<>();
+                cacheBody.put("size", caffeineCache.getNativeCache().estimatedSize());
+                cacheBody.put("hits", stats.hitCount());
+                cacheBody.put("misses", stats.missCount());
+                cacheBody.put("hitRate", stats.hitRate());
+                cacheBody.put("evictions", stats.evictionCount());
+                body.put(name, cacheBody);
+            }
+        }
+        return ResponseEntity.ok(body);
+    }
+}
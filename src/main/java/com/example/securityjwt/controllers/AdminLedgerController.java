@@ -0,0 +1,159 @@
+package com.example.securityjwt.controllers;
+
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.services.BalanceAfterBackfill;
+import com.example.securityjwt.services.DailySummaryRebuildJob;
+import com.example.securityjwt.services.InterestAccrualJob;
+import com.example.securityjwt.services.OperationPartitionManager;
+import com.example.securityjwt.services.OutboxPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contrôleur REST des tâches de maintenance du grand livre
+ * Accessible uniquement aux ADMINS (voir WebSecurityConfig : /api/admin/**)
+ */
+@RestController
+@RequestMapping("/api/admin/ledger")
+@CrossOrigin(origins = "*")
+public class AdminLedgerController {
+
+    @Autowired
+    BalanceAfterBackfill balanceAfterBackfill;
+
+    @Autowired
+    DailySummaryRebuildJob dailySummaryRebuildJob;
+
+    // Absent avec bankmanagement.ledger.mode=memory
+    @Autowired(required = false)
+    InterestAccrualJob interestAccrualJob;
+
+    @Autowired
+    OutboxPublisher outboxPublisher;
+
+    // Présent uniquement avec bankmanagement.partitioning.enabled=true (profil postgresql)
+    @Autowired(required = false)
+    OperationPartitionManager operationPartitionManager;
+
+    /**
+     * RATTRAPAGE DU SOLDE APRÈS OPÉRATION SUR L'HISTORIQUE EXISTANT
+     * POST /api/admin/ledger/backfill-balance-after
+     */
+    @PostMapping("/backfill-balance-after")
+    public ResponseEntity<?> startBalanceAfterBackfill() {
+        if (!balanceAfterBackfill.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Rattrapage déjà en cours"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Rattrapage lancé"));
+    }
+
+    /**
+     * ÉTAT DU RATTRAPAGE
+     * GET /api/admin/ledger/backfill-balance-after
+     */
+    @GetMapping("/backfill-balance-after")
+    public ResponseEntity<Map<String, Object>> balanceAfterBackfillStatus() {
+        return ResponseEntity.ok(Map.of("running", balanceAfterBackfill.isRunning()));
+    }
+
+    /**
+     * RECONSTRUCTION DES RÉSUMÉS QUOTIDIENS DEPUIS L'HISTORIQUE
+     * POST /api/admin/ledger/rebuild-daily-summaries
+     */
+    @PostMapping("/rebuild-daily-summaries")
+    public ResponseEntity<?> startDailySummaryRebuild() {
+        if (!dailySummaryRebuildJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Reconstruction déjà en cours"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Reconstruction lancée"));
+    }
+
+    /**
+     * ÉTAT DE LA RECONSTRUCTION
+     * GET /api/admin/ledger/rebuild-daily-summaries
+     */
+    @GetMapping("/rebuild-daily-summaries")
+    public ResponseEntity<Map<String, Object>> dailySummaryRebuildStatus() {
+        return ResponseEntity.ok(Map.of("running", dailySummaryRebuildJob.isRunning()));
+    }
+
+    /**
+     * CALCUL DES INTÉRÊTS DES COMPTES ÉPARGNE
+     * POST /api/admin/ledger/interest-accrual?date=2024-01-31 (veille par défaut)
+     * Relancer pour la même date reprend le calcul interrompu sans double crédit
+     */
+    @PostMapping("/interest-accrual")
+    public ResponseEntity<?> startInterestAccrual(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        if (interestAccrualJob == null) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Calcul indisponible avec ce moteur de soldes"));
+        }
+        LocalDate accrualDate = date != null ? date : LocalDate.now().minusDays(1);
+        if (!interestAccrualJob.start(accrualDate)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Calcul déjà en cours"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Calcul des intérêts lancé pour le " + accrualDate));
+    }
+
+    /**
+     * ÉTAT DU CALCUL DES INTÉRÊTS (dernier compte rendu)
+     * GET /api/admin/ledger/interest-accrual
+     */
+    @GetMapping("/interest-accrual")
+    public ResponseEntity<Map<String, Object>> interestAccrualStatus() {
+        if (interestAccrualJob == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("running", interestAccrualJob.isRunning());
+        body.put("lastReport", interestAccrualJob.lastReport());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * CRÉATION DES PARTITIONS À VENIR ET ARCHIVAGE DES PLUS ANCIENNES
+     * POST /api/admin/ledger/operation-partitions
+     */
+    @PostMapping("/operation-partitions")
+    public ResponseEntity<?> startOperationPartitionMaintenance() {
+        if (operationPartitionManager == null) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Partitionnement des opérations désactivé"));
+        }
+        if (!operationPartitionManager.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Archivage déjà en cours"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("Archivage lancé"));
+    }
+
+    /**
+     * ÉTAT DE L'ARCHIVAGE
+     * GET /api/admin/ledger/operation-partitions
+     */
+    @GetMapping("/operation-partitions")
+    public ResponseEntity<Map<String, Object>> operationPartitionStatus() {
+        if (operationPartitionManager == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("running", operationPartitionManager.isRunning()));
+    }
+
+    /**
+     * ÉTAT DE LA PUBLICATION DES ÉVÉNEMENTS D'OPÉRATIONS (outbox)
+     * GET /api/admin/ledger/outbox
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> outboxStatus() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("running", outboxPublisher.isRunning());
+        body.put("pending", outboxPublisher.pending());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.securityjwt.controllers;
+
+import com.example.securityjwt.config.TokenRevocationRegistry;
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.entity.User;
+import com.example.securityjwt.repositories.UserRepository;
+import com.example.securityjwt.services.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contrôleur REST d'administration des utilisateurs
+ * Accessible uniquement aux ADMINS (voir WebSecurityConfig : /api/admin/**)
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@CrossOrigin(origins = "*")
+public class AdminUserController {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    /**
+     * STATISTIQUES DU CACHE DES UTILISATEURS
+     * GET /api/admin/users/cache-stats
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        CacheStats stats = userDetailsService.cacheStats();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * DÉSACTIVER UN UTILISATEUR
+     * POST /api/admin/users/{username}/disable
+     * Ses tokens déjà émis sont immédiatement rejetés
+     */
+    @PostMapping("/{username}/disable")
+    public ResponseEntity<?> disableUser(@PathVariable String username) {
+        return setEnabled(username, false);
+    }
+
+    /**
+     * RÉACTIVER UN UTILISATEUR
+     * POST /api/admin/users/{username}/enable
+     */
+    @PostMapping("/{username}/enable")
+    public ResponseEntity<?> enableUser(@PathVariable String username) {
+        return setEnabled(username, true);
+    }
+
+    /**
+     * RÉVOQUER LES TOKENS D'UN UTILISATEUR (sans le désactiver)
+     * POST /api/admin/users/{username}/revoke-tokens
+     */
+    @PostMapping("/{username}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable String username) {
+        if (!userRepository.existsByUsername(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        revocationRegistry.revoke(username);
+        return ResponseEntity.ok(new MessageResponse("Tokens révoqués"));
+    }
+
+    private ResponseEntity<?> setEnabled(String username, boolean enabled) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        user.setEnabled(enabled);
+        userRepository.save(user);
+        userDetailsService.evictUser(username);
+
+        if (!enabled) {
+            revocationRegistry.revoke(username);
+        }
+        return ResponseEntity.ok(new MessageResponse(enabled ? "Utilisateur activé" : "Utilisateur désactivé"));
+    }
+}
@@ -3,6 +3,9 @@ package com.example.securityjwt.controllers;
 
 
 import com.example.securityjwt.config.JwtUtils;
+import com.example.securityjwt.config.LoginAttemptRegistry;
+import com.example.securityjwt.config.PasswordHashingExecutor;
+import com.example.securityjwt.config.VerifiedToken;
 import com.example.securityjwt.dtos.JwtResponse;
 import com.example.securityjwt.dtos.LoginRequest;
 import com.example.securityjwt.dtos.MessageResponse;
@@ -13,13 +16,19 @@ import com.example.securityjwt.enums.ERole;
 import com.example.securityjwt.repositories.RoleRepository;
 import com.example.securityjwt.repositories.UserRepository;
 import com.example.securityjwt.services.UserDetailsImpl;
+import com.example.securityjwt.services.UserDetailsServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,6 +36,10 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -53,54 +66,97 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    PasswordHashingExecutor passwordHashing;
+
+    // Exécuteur par défaut de Spring Boot : suite de la connexion, hors du pool BCrypt
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    Executor taskExecutor;
+
+    @Autowired
+    LoginAttemptRegistry loginAttempts;
+
     /**
      * ENDPOINT DE CONNEXION
      * POST /api/auth/signin
+     * La vérification BCrypt s'exécute sur le pool dédié (PasswordHashingExecutor) et la réponse
+     * est asynchrone : le thread Tomcat est libéré pendant le hachage
+     * La suite (dernière connexion en base, token) passe sur l'exécuteur applicatif : les threads
+     * du pool borné ne font que du hachage
      */
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-
-        try {
-            // 1. Authentification avec Spring Security
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername(),
-                            loginRequest.getPassword())
-            );
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
 
-            // 2. Définit l'authentification dans le contexte de sécurité
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        String username = loginRequest.getUsername();
+        String clientIp = request.getRemoteAddr();
 
-            // 3. Génère le token JWT
-            String jwt = jwtUtils.generateJwtToken(authentication);
+        // 0. Trop d'échecs récents : refus sans calcul BCrypt
+        if (loginAttempts.isBlocked(username, clientIp)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginAttempts.retryAfterSeconds()))
+                    .body(new MessageResponse("Trop de tentatives de connexion, réessayer plus tard")));
+        }
 
-            // 4. Récupère les détails de l'utilisateur authentifié
-            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            List<String> roles = userDetails.getAuthorities().stream()
-                    .map(item -> item.getAuthority())
-                    .collect(Collectors.toList());
+        CompletableFuture<Authentication> authenticated;
+        try {
+            // 1. Authentification avec Spring Security (BCrypt) sur le pool dédié
+            authenticated = passwordHashing.submit(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, loginRequest.getPassword())));
+        } catch (RejectedExecutionException e) {
+            // File du pool pleine : refus immédiat plutôt qu'une attente sans fin
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Service de connexion saturé, réessayer dans un instant")));
+        }
 
-            // 5. Met à jour la dernière connexion
-            User user = userRepository.findByUsername(userDetails.getUsername()).orElse(null);
-            if (user != null) {
-                user.setLastLogin(LocalDateTime.now());
-                userRepository.save(user);
+        return authenticated.handleAsync((authentication, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                if (cause instanceof BadCredentialsException) {
+                    loginAttempts.loginFailed(username, clientIp);
+                }
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Erreur lors de la connexion: " + cause.getMessage()));
             }
-
-            // 6. Retourne la réponse avec le JWT et les infos utilisateur
-            return ResponseEntity.ok(new JwtResponse(
-                    jwt,
-                    userDetails.getId(),
-                    userDetails.getUsername(),
-                    userDetails.getEmail(),
-                    userDetails.getFullName(),
-                    roles
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Erreur lors de la connexion: " + e.getMessage()));
-        }
+            loginAttempts.loginSucceeded(username);
+
+            try {
+                // 2. Génère le token JWT (pas de contexte de sécurité à remplir : l'API est stateless)
+                String jwt = jwtUtils.generateJwtToken(authentication);
+
+                // 3. Récupère les détails de l'utilisateur authentifié
+                UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                List<String> roles = userDetails.getAuthorities().stream()
+                        .map(item -> item.getAuthority())
+                        .collect(Collectors.toList());
+
+                // 4. Met à jour la dernière connexion
+                User user = userRepository.findByUsername(userDetails.getUsername()).orElse(null);
+                if (user != null) {
+                    user.setLastLogin(LocalDateTime.now());
+                    userRepository.save(user);
+                }
+
+                // 5. Retourne la réponse avec le JWT et les infos utilisateur
+                return ResponseEntity.ok(new JwtResponse(
+                        jwt,
+                        userDetails.getId(),
+                        userDetails.getUsername(),
+                        userDetails.getEmail(),
+                        userDetails.getFullName(),
+                        roles
+                ));
+
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Erreur lors de la connexion: " + e.getMessage()));
+            }
+        }, taskExecutor);
     }
 
     /**
@@ -168,6 +224,7 @@ public class AuthController {
 
             // 4. Sauvegarde en base de données
             userRepository.save(user);
+            userDetailsService.evictUser(user.getUsername());
 
             return ResponseEntity.ok(new MessageResponse("Utilisateur enregistré avec succès!"));
 
@@ -200,8 +257,9 @@ public class AuthController {
             // Supprime "Bearer " du début
             String jwt = token.substring(7);
 
-            if (jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            VerifiedToken verified = jwtUtils.verifyJwtToken(jwt);
+            if (verified != null) {
+                String username = verified.subject();
 
                 // Optionnel : Récupère les infos utilisateur mises à jour
                 User user = userRepository.findByUsername(username).orElse(null);
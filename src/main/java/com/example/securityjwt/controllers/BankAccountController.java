@@ -1,18 +1,41 @@
 package com.example.securityjwt.controllers;
 
+import com.example.securityjwt.dtos.AccountHistoryPageDTO;
+import com.example.securityjwt.dtos.BalanceAtDTO;
 import com.example.securityjwt.dtos.BankAccountDTO;
+import com.example.securityjwt.dtos.CurrentAccountDTO;
 import com.example.securityjwt.dtos.CurrentBankAccountDTO;
+import com.example.securityjwt.dtos.DailySummaryDTO;
+import com.example.securityjwt.dtos.DebitCreditDTO;
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.dtos.SavingAccountDTO;
+import com.example.securityjwt.dtos.SavingBankAccountDTO;
+import com.example.securityjwt.dtos.TransferDTO;
+import com.example.securityjwt.dtos.TransferResultDTO;
+import com.example.securityjwt.enums.StatementFormat;
 import com.example.securityjwt.exception.BankAccountNotFoundException;
 import com.example.securityjwt.exception.CustomerNotFoundException;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import com.example.securityjwt.exception.MovementOutcomeUnknownException;
+import com.example.securityjwt.services.AccountStatementExporter;
 import com.example.securityjwt.services.BankAccountService;
+import com.example.securityjwt.services.DailySummaryService;
+import com.example.securityjwt.services.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Contrôleur REST pour la gestion des comptes bancaires
@@ -25,6 +48,17 @@ public class BankAccountController {
     @Autowired
     private BankAccountService bankAccountService;
 
+    @Autowired
+    private AccountStatementExporter statementExporter;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private DailySummaryService dailySummaryService;
+
+    private static final int MAX_SUMMARY_DAYS = 366;
+
     /**
      * RÉCUPÉRER TOUS LES COMPTES
      * GET /api/accounts
@@ -44,7 +78,7 @@ public class BankAccountController {
      * GET /api/accounts/{accountId}
      */
     @GetMapping("/{accountId}")
-    public ResponseEntity<BankAccountDTO> getAccount(@PathVariable String accountId) {
+    public ResponseEntity<BankAccountDTO> getAccount(@PathVariable Long accountId) {
         try {
             BankAccountDTO account = bankAccountService.getBankAccount(accountId);
             return ResponseEntity.ok(account);
@@ -71,6 +105,133 @@ public class BankAccountController {
         }
     }
 
+    /**
+     * HISTORIQUE D'UN COMPTE (pagination par curseur)
+     * GET /api/accounts/{accountId}/history?cursor=...&size=20&withTotal=false
+     * Passer nextCursor de la réponse précédente pour obtenir la page suivante
+     */
+    @GetMapping("/{accountId}/history")
+    public ResponseEntity<?> getAccountHistory(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        if (size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body("La taille de page doit être comprise entre 1 et 500");
+        }
+        try {
+            AccountHistoryPageDTO history = bankAccountService.accountHistory(accountId, cursor, size, withTotal);
+            return ResponseEntity.ok(history);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Curseur invalide");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * SOLDE D'UN COMPTE À UNE DATE
+     * GET /api/accounts/{accountId}/balance?at=2024-01-31T23:59:59
+     */
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<BalanceAtDTO> getBalanceAt(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+    ) {
+        try {
+            return ResponseEntity.ok(bankAccountService.balanceAt(accountId, at));
+        } catch (BankAccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * RELEVÉ COMPLET D'UN COMPTE (audit)
+     * GET /api/accounts/{accountId}/statement?format=csv|ndjson
+     * Le relevé est écrit en flux dans la réponse, sans charger l'historique en mémoire
+     */
+    @GetMapping("/{accountId}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "csv") String format
+    ) {
+        StatementFormat statementFormat;
+        try {
+            statementFormat = StatementFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            statementExporter.checkAccountExists(accountId);
+        } catch (BankAccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean csv = statementFormat == StatementFormat.CSV;
+        StreamingResponseBody body = out -> statementExporter.export(accountId, statementFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-" + accountId + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    /**
+     * RÉSUMÉS QUOTIDIENS D'UN COMPTE (nombre d'opérations, crédits, débits, solde de clôture)
+     * GET /api/accounts/{accountId}/daily-summaries?from=2024-01-01&to=2024-01-31
+     * Jours sans opération absents ; 366 jours au plus par requête
+     */
+    @GetMapping("/{accountId}/daily-summaries")
+    public ResponseEntity<?> getAccountDailySummaries(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (!validSummaryRange(from, to)) {
+            return ResponseEntity.badRequest().body("Période invalide (366 jours au plus)");
+        }
+        try {
+            List<DailySummaryDTO> summaries = dailySummaryService.accountSummaries(accountId, from, to);
+            return ResponseEntity.ok(summaries);
+        } catch (BankAccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * RÉSUMÉS QUOTIDIENS DE TOUS LES COMPTES D'UN CLIENT
+     * GET /api/accounts/customer/{customerId}/daily-summaries?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/customer/{customerId}/daily-summaries")
+    public ResponseEntity<?> getCustomerDailySummaries(
+            @PathVariable Long customerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (!validSummaryRange(from, to)) {
+            return ResponseEntity.badRequest().body("Période invalide (366 jours au plus)");
+        }
+        try {
+            List<DailySummaryDTO> summaries = dailySummaryService.customerSummaries(customerId, from, to);
+            return ResponseEntity.ok(summaries);
+        } catch (CustomerNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static boolean validSummaryRange(LocalDate from, LocalDate to) {
+        return !to.isBefore(from) && !to.isAfter(from.plusDays(MAX_SUMMARY_DAYS - 1));
+    }
+
     /**
      * CRÉER UN COMPTE COURANT
      * POST /api/accounts/current
@@ -80,10 +241,10 @@ public class BankAccountController {
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<?> createCurrentAccount(@Valid @RequestBody CurrentBankAccountDTO accountDTO) {
         try {
-            CurrentBankAccountDTO savedAccount = bankAccountService.saveCurrentBankAccount(
+            CurrentAccountDTO savedAccount = bankAccountService.saveCurrentBankAccount(
                     accountDTO.getBalance(),
-                    accountDTO.getCustomerId(),
-                    accountDTO.getOverDraft()
+                    accountDTO.getOverDraft(),
+                    accountDTO.getCustomerId()
             );
             return ResponseEntity.status(HttpStatus.CREATED).body(savedAccount);
         } catch (CustomerNotFoundException e) {
@@ -102,10 +263,10 @@ public class BankAccountController {
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<?> createSavingAccount(@Valid @RequestBody SavingBankAccountDTO accountDTO) {
         try {
-            SavingBankAccountDTO savedAccount = bankAccountService.saveSavingBankAccount(
+            SavingAccountDTO savedAccount = bankAccountService.saveSavingBankAccount(
                     accountDTO.getBalance(),
-                    accountDTO.getCustomerId(),
-                    accountDTO.getInterestRate()
+                    accountDTO.getInterestRate(),
+                    accountDTO.getCustomerId()
             );
             return ResponseEntity.status(HttpStatus.CREATED).body(savedAccount);
         } catch (CustomerNotFoundException e) {
@@ -115,4 +276,93 @@ public class BankAccountController {
                     .body("Erreur lors de la création du compte: " + e.getMessage());
         }
     }
+
+    /**
+     * DÉBITER UN COMPTE
+     * POST /api/accounts/debit
+     * En-tête Idempotency-Key optionnel : une répétition reçoit la même réponse sans nouveau débit
+     */
+    @PostMapping("/debit")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> debit(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DebitCreditDTO debitDTO
+    ) {
+        return idempotencyService.execute(idempotencyKey, "debit", debitDTO, () -> movement(() -> {
+            bankAccountService.debit(debitDTO.getAccountId(), debitDTO.getAmount(), debitDTO.getDescription());
+            return ResponseEntity.ok(new MessageResponse("Débit effectué"));
+        }));
+    }
+
+    /**
+     * CRÉDITER UN COMPTE
+     * POST /api/accounts/credit
+     */
+    @PostMapping("/credit")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> credit(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DebitCreditDTO creditDTO
+    ) {
+        return idempotencyService.execute(idempotencyKey, "credit", creditDTO, () -> movement(() -> {
+            bankAccountService.credit(creditDTO.getAccountId(), creditDTO.getAmount(), creditDTO.getDescription());
+            return ResponseEntity.ok(new MessageResponse("Crédit effectué"));
+        }));
+    }
+
+    /**
+     * VIREMENT ENTRE DEUX COMPTES
+     * POST /api/accounts/transfer
+     */
+    @PostMapping("/transfer")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> transfer(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody TransferDTO transferDTO
+    ) {
+        return idempotencyService.execute(idempotencyKey, "transfer", transferDTO, () -> movement(() -> {
+            bankAccountService.transfer(transferDTO.getAccountSource(), transferDTO.getAccountDestination(),
+                    transferDTO.getAmount());
+            return ResponseEntity.ok(new MessageResponse("Virement effectué"));
+        }));
+    }
+
+    /**
+     * VIREMENTS GROUPÉS (paie, fichiers de règlement)
+     * POST /api/accounts/transfers/batch
+     * Retourne le résultat de chaque ligne ; les lignes rejetées n'annulent pas les autres
+     */
+    @PostMapping("/transfers/batch")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> transferBatch(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody List<TransferDTO> transfers
+    ) {
+        return idempotencyService.execute(idempotencyKey, "transfers/batch", transfers, () -> {
+            try {
+                List<TransferResultDTO> results = bankAccountService.transferBatch(transfers);
+                return ResponseEntity.ok(results);
+            } catch (MovementOutcomeUnknownException e) {
+                // Lot encore en cours : aucune réponse à mémoriser
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Erreur lors des virements groupés: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Les refus métier deviennent des réponses (mémorisées pour les répétitions) ;
+     * les erreurs inattendues remontent et ne sont pas mémorisées
+     */
+    private ResponseEntity<?> movement(Supplier<ResponseEntity<?>> action) {
+        try {
+            return action.get();
+        } catch (BankAccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse(e.getMessage()));
+        } catch (InsufficientBalanceException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
 }
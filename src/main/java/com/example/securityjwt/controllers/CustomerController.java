@@ -144,13 +144,17 @@ public class CustomerController {
     }
 
     /**
-     * RECHERCHER DES CLIENTS
-     * GET /api/customers/search?keyword=dupont
+     * RECHERCHER DES CLIENTS (nom, email, téléphone ; préfixe et fautes de frappe tolérées)
+     * GET /api/customers/search?keyword=dupont&limit=20
+     * Résultats classés par pertinence
      */
     @GetMapping("/search")
-    public ResponseEntity<List<CustomerDTO>> searchCustomers(@RequestParam String keyword) {
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
         try {
-            List<CustomerDTO> customers = bankAccountService.searchCustomers(keyword);
+            List<CustomerDTO> customers = bankAccountService.searchCustomers(keyword, Math.min(limit, 100));
             return ResponseEntity.ok(customers);
 
         } catch (Exception e) {
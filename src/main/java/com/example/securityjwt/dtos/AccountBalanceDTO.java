@@ -0,0 +1,16 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+/**
+ * Solde courant d'un compte (classement des plus grands soldes)
+ */
+@Data
+public class AccountBalanceDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountId;
+    private Money balance;
+}
@@ -0,0 +1,20 @@
+package com.example.securityjwt.dtos;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page d'historique paginée par curseur
+ * nextCursor est null sur la dernière page ; totalElements n'est calculé que sur demande
+ */
+@Data
+public class AccountHistoryPageDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountId;
+    private List<AccountOperationDTO> operations;
+    private String nextCursor;
+    private Long totalElements;
+}
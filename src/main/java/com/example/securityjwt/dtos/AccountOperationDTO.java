@@ -1,16 +1,21 @@
 package com.example.securityjwt.dtos;
 
+import com.example.securityjwt.entity.Money;
 import com.example.securityjwt.enums.OperationType;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Data
 public class AccountOperationDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private LocalDateTime operationDate;
-    private double amount;
+    private Money amount;
     private String description;
     private OperationType type;
     private String performedBy;
+    private Money balanceAfter;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solde d'un compte à une date donnée
+ * operationId : dernière opération prise en compte (null si aucune avant cette date)
+ */
+@Data
+public class BalanceAtDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountId;
+    private LocalDateTime at;
+    private Money balance;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long operationId;
+}
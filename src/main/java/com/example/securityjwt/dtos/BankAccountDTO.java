@@ -1,16 +1,21 @@
 package com.example.securityjwt.dtos;
 
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Data
 public class BankAccountDTO {
-    private String id;
-    private double balance;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    private Money balance;
+    private String currency;
     private LocalDateTime createdAt;
     private String type;
     private CustomerDTO customer;
-    private double overDraft; // pour CurrentAccount
+    private Money overDraft; // pour CurrentAccount
     private double interestRate;
 }
@@ -0,0 +1,24 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agrégats de toute la banque
+ * totalDeposits : somme des soldes positifs ; overdrawn : découvert utilisé ;
+ * overdraftLimits : découverts autorisés des comptes courants
+ * rebuiltAt : dernier recalcul complet depuis la base, tenus à jour en continu depuis
+ */
+@Data
+public class BankAggregatesDTO {
+    private Money totalDeposits;
+    private Money overdrawn;
+    private Money overdraftLimits;
+    private long currentAccounts;
+    private long savingAccounts;
+    private List<AccountBalanceDTO> topBalances;
+    private LocalDateTime rebuiltAt;
+}
@@ -1,15 +1,19 @@
 package com.example.securityjwt.dtos;
 
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Data
 public class CurrentAccountDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long Id;
-    private double Balance;
+    private Money Balance;
     private LocalDateTime CreatedAt;
-    private double OverDraft;
-    private String Customer;
+    private Money OverDraft;
+    private CustomerDTO Customer;
     private String Type;
 }
@@ -1,11 +1,15 @@
 package com.example.securityjwt.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Data
 public class CustomerDTO {
+    // Identifiant 64 bits (SnowflakeIds) : en chaîne, au-delà de la précision des nombres JavaScript
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String name;
     private String email;
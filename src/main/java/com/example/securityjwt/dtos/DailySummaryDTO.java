@@ -0,0 +1,19 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Résumé d'une journée : d'un compte, ou de tous les comptes d'un client
+ * closingBalance : uniquement par compte (null pour un client ou si l'historique n'a pas de solde)
+ */
+@Data
+public class DailySummaryDTO {
+    private LocalDate date;
+    private long operationCount;
+    private Money credits;
+    private Money debits;
+    private Money closingBalance;
+}
@@ -1,14 +1,15 @@
 package com.example.securityjwt.dtos;
 
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import com.example.securityjwt.entity.Money;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 public class DebitCreditDTO {
-    @NotBlank
-    private String accountId;
-    @Positive
-    private double amount;
+    // Accepté en nombre ou en chaîne ("123") ; un identifiant non numérique est refusé en 400
+    @NotNull
+    private Long accountId;
+    @NotNull
+    private Money amount;
     private String description;
 }
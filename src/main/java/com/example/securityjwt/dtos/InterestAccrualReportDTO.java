@@ -0,0 +1,21 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Compte rendu d'un calcul d'intérêts
+ * accounts : comptes épargne parcourus ; credited : comptes effectivement crédités
+ */
+@Data
+public class InterestAccrualReportDTO {
+    private LocalDate accrualDate;
+    private int partitions;
+    private long accounts;
+    private long credited;
+    private Money totalInterest;
+    private long elapsedMs;
+    private double accountsPerSecond;
+}
@@ -1,5 +1,7 @@
 package com.example.securityjwt.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.util.List;
@@ -13,6 +15,7 @@ public class JwtResponse {
 
     private String token;
     private String type = "Bearer";    // Type de token
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String username;
     private String email;
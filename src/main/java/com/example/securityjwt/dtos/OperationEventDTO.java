@@ -0,0 +1,31 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.enums.OperationType;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié pour chaque opération (notifications, entrepôt du grand livre)
+ * Livraison au moins une fois : eventId permet aux destinataires d'écarter les doublons
+ * Dans l'ordre des opérations pour un même compte : accountSequence vaut 1, 2, 3... pour chaque compte
+ */
+@Data
+public class OperationEventDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long eventId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long operationId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountId;
+    private long accountSequence;
+    private OperationType operationType;
+    private Money amount;
+    private Money balanceAfter;
+    private LocalDateTime operationTime;
+    private String description;
+    private String performedBy;
+}
@@ -0,0 +1,12 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.enums.OperationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de relevé projetée directement par la requête (aucune entité gérée)
+ */
+public record OperationExportRow(Long id, LocalDateTime operationTime, OperationType operationType,
+                                 long amount, String description, String performedBy) {
+}
@@ -1,15 +1,18 @@
 package com.example.securityjwt.dtos;
 
-import com.example.securityjwt.entity.Customer;
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 @Data
 public class SavingAccountDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long Id;
-    private double Balance;
+    private Money Balance;
     private LocalDateTime CreatedAt;
     private double InterestRate;
-    private Customer Customer;
+    private CustomerDTO Customer;
     private String Type;
 }
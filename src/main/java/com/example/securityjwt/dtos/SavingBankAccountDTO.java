@@ -1,7 +1,11 @@
 package com.example.securityjwt.dtos;
 
+import com.example.securityjwt.entity.Money;
+import lombok.Data;
+
+@Data
 public class SavingBankAccountDTO {
-    private Double Balance;
+    private Money Balance;
     private Long CustomerId;
     private double interestRate;
 }
@@ -1,16 +1,16 @@
 package com.example.securityjwt.dtos;
 
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import com.example.securityjwt.entity.Money;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 public class TransferDTO {
-    @NotBlank
-    private String accountSource;
-    @NotBlank
-    private String accountDestination;
-    @Positive
-    private double amount;
+    @NotNull
+    private Long accountSource;
+    @NotNull
+    private Long accountDestination;
+    @NotNull
+    private Money amount;
     private String description;
 }
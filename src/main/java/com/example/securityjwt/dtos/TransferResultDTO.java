@@ -0,0 +1,25 @@
+package com.example.securityjwt.dtos;
+
+import com.example.securityjwt.entity.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une ligne d'un virement groupé
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDTO {
+    private int line;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountSource;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long accountDestination;
+    private Money amount;
+    private boolean accepted;
+    private String message;
+}
@@ -0,0 +1,43 @@
+package com.example.securityjwt.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Résumé quotidien d'un compte (modèle de lecture), tenu à jour dans la transaction de chaque mouvement
+ * par DailySummaryProjector et régénérable depuis l'historique par DailySummaryRebuildJob
+ * Une ligne par compte et par jour ayant au moins une opération
+ */
+@Entity
+@Table(name = "account_daily_summary", uniqueConstraints = {
+        // Sert aussi les lectures par compte et par plage de dates
+        @UniqueConstraint(name = "uk_daily_summary_account_date", columnNames = {"account_id", "summary_date"})
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountDailySummary {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(name = "summary_date", nullable = false)
+    private LocalDate day;
+    private long operationCount;
+    // Unités mineures (centimes)
+    @Column(name = "credits_minor")
+    private long credits;
+    @Column(name = "debits_minor")
+    private long debits;
+    // balanceAfter de la dernière opération du jour (null si elle n'en a pas encore)
+    @Column(name = "closing_balance_minor")
+    private Long closingBalance;
+    // Identifiant de cette dernière opération : une opération plus ancienne ne la remplace jamais
+    private Long lastOperationId;
+}
@@ -9,16 +9,25 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // Historique par compte, plus récent d'abord : sert la pagination par curseur
+        // et la recherche du solde à une date (une seule descente d'index)
+        @Index(name = "idx_operation_account_time_id", columnList = "account_id, operation_time DESC, id DESC")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class AccountOperation {
+    // Ordonné dans le temps : l'ordre des identifiants suit celui des inserts
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
 
+    @Column(name = "operation_time")
     private LocalDateTime operationTime;
-    private double amount;
+    // Unités mineures (centimes), dans la devise du compte
+    @Column(name = "amount_minor")
+    private long amount;
     private String description;
     @Enumerated(EnumType.STRING)
     private OperationType operationType;
@@ -26,10 +35,17 @@ public class AccountOperation {
     @JoinColumn(name = "account_id")
     private BankAccount bankAccount;
     private String performedBy;
+    // Solde du compte juste après l'opération, écrit dans la même transaction que le mouvement
+    // (null pour l'historique antérieur tant que BalanceAfterBackfill n'est pas passé)
+    @Column(name = "balance_after_minor")
+    private Long balanceAfter;
 
     @PrePersist
     public void prePersist() {
-        operationTime = LocalDateTime.now();
+        // Conserve l'heure réelle d'une opération persistée en différé
+        if (operationTime == null) {
+            operationTime = LocalDateTime.now();
+        }
     }
 
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -15,15 +16,26 @@ import java.time.LocalDateTime;
 @DiscriminatorColumn(name = "AccountType", length = 5)
 public class BankAccount {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
-    private double balance;
+    // Montants en unités mineures (centimes), voir Money
+    @Column(name = "balance_minor")
+    private long balance;
+    // Code ISO 4217 ; toutes les opérations du compte sont dans cette devise
+    @Column(length = 3)
+    private String currency;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String createdBy;
     private String updatedBy;
+    // Dernier numéro d'événement d'outbox du compte, avancé sous le verrou de la ligne
+    // (voir OperationOutbox) ; jamais écrit par l'entité, qui pourrait en porter une valeur périmée
+    @ColumnDefault("0")
+    @Column(name = "event_sequence", nullable = false, insertable = false, updatable = false)
+    private long eventSequence;
 
-    @ManyToOne
+    // LAZY : les listes de comptes chargent le client par JOIN FETCH (voir BankAccountRepository)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
@@ -1,5 +1,6 @@
 package com.example.securityjwt.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import lombok.AllArgsConstructor;
@@ -12,5 +13,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class CurrentAccount extends BankAccount {
-    private double overDraft;
+    // Unités mineures (centimes)
+    @Column(name = "over_draft_minor")
+    private long overDraft;
 }
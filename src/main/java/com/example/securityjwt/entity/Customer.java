@@ -13,13 +13,15 @@ import java.time.LocalDateTime;
 @Entity
 public class Customer {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
     private String name;
     private String email;
     private String phone;
     private String address;
-    private String setUpdatedBy;
+    // Colonne historique set_updated_by : seul le nom du champ change
+    @Column(name = "set_updated_by")
+    private String updatedBy;
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
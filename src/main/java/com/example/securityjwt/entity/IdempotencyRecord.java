@@ -0,0 +1,40 @@
+package com.example.securityjwt.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réponse enregistrée pour une clé d'idempotence (bankmanagement.idempotency.store=database)
+ * Partagée entre les instances ; status est null tant que la requête est en cours
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // utilisateur:clé
+    @Id
+    @Column(length = 300)
+    private String idempotencyKey;
+    @Column(length = 64)
+    private String fingerprint;
+    private Integer status;
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String responseBody;
+    private LocalDateTime createdAt;
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.example.securityjwt.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Point de reprise d'un traitement, mis à jour dans la même transaction que le travail effectué
+ * operations : dernière entrée du journal du moteur en mémoire persistée en base
+ * interest:{date}:{tranche} : dernier compte épargne traité par le calcul des intérêts
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+    @Id
+    private String name;
+    private long lastSequence;
+}
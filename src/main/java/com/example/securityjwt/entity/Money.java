@@ -0,0 +1,67 @@
+package com.example.securityjwt.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Montant exact en unités mineures (centimes), dans la devise du compte
+ * En base et dans les moteurs de soldes, les montants sont de simples long : aucune allocation
+ * sur le chemin débit/crédit. Money n'est utilisé qu'aux frontières (DTO, JSON, relevés)
+ * En JSON, un montant est un nombre décimal (12.34) ; plus de deux décimales est une erreur
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    // Devise des comptes ouverts par l'application (deux décimales, comme SCALE)
+    public static final String DEFAULT_CURRENCY = "EUR";
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    /**
+     * Conversion exacte : lève ArithmeticException si le montant a plus de deux décimales
+     * ou dépasse la capacité d'un long
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
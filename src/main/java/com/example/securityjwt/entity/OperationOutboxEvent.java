@@ -0,0 +1,54 @@
+package com.example.securityjwt.entity;
+
+import com.example.securityjwt.enums.OperationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement d'opération à publier, inséré dans la transaction du mouvement et supprimé une fois livré
+ * Copie des champs de l'opération : la publication ne relit ni les opérations ni les comptes
+ */
+@Entity
+@Table(name = "operation_outbox", indexes = {
+        // Lot d'une partition dans l'ordre d'insertion
+        @Index(name = "idx_outbox_partition_id", columnList = "partition_key, id"),
+        // Premier événement en attente de chaque compte du lot
+        @Index(name = "idx_outbox_partition_account_sequence", columnList = "partition_key, account_id, account_sequence")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationOutboxEvent {
+    // Ordonné dans le temps sur une instance seulement (horloges des instances décalées) :
+    // l'ordre par compte est donné par accountSequence
+    @Id
+    @SnowflakeId
+    private Long id;
+    // Partition du compte, voir OperationOutbox.partitionOf
+    @Column(name = "partition_key")
+    private int partitionKey;
+    private Long operationId;
+    private Long accountId;
+    // Numéro de l'événement pour le compte (1, 2, 3...), attribué sous le verrou de sa ligne
+    @Column(name = "account_sequence")
+    private long accountSequence;
+    @Enumerated(EnumType.STRING)
+    private OperationType operationType;
+    @Column(name = "amount_minor")
+    private long amount;
+    @Column(name = "balance_after_minor")
+    private Long balanceAfter;
+    private LocalDateTime operationTime;
+    private String description;
+    private String performedBy;
+}
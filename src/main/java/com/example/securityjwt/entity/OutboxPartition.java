@@ -0,0 +1,28 @@
+package com.example.securityjwt.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partition de l'outbox : verrouillée (SKIP LOCKED) par le publieur qui la traite,
+ * une seule livraison à la fois par partition et donc par compte, même sur plusieurs instances
+ */
+@Entity
+@Table(name = "outbox_partition")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxPartition {
+    @Id
+    @Column(name = "partition_key")
+    private int partitionKey;
+    private Long lastEventId;
+    private LocalDateTime lastPublishedAt;
+}
@@ -18,7 +18,7 @@ import lombok.NoArgsConstructor;
 public class Role {
 
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
 
     // Nom du rôle (ADMIN, EMPLOYEE, etc.)
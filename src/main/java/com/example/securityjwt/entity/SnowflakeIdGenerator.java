@@ -0,0 +1,41 @@
+package com.example.securityjwt.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Générateur Hibernate des champs @SnowflakeId
+ * Le numéro de nœud est lu dans les réglages Hibernate (NODE_SETTING, renseigné par IdGeneratorConfig)
+ * Généré avant l'insert : les inserts restent groupés (hibernate.jdbc.batch_size)
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String NODE_SETTING = "bankmanagement.ids.nodeId";
+
+    private final SnowflakeIds ids;
+
+    // Hibernate cherche ce constructeur par ses types exacts (CustomIdGeneratorCreationContext, pas l'interface parente)
+    public SnowflakeIdGenerator(SnowflakeId config, Member idMember, CustomIdGeneratorCreationContext creationContext) {
+        Object node = creationContext.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(NODE_SETTING);
+        this.ids = SnowflakeIds.forNode(node == null ? 0 : Integer.parseInt(node.toString().trim()));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return ids.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.securityjwt.entity;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Identifiants 64 bits ordonnés dans le temps (type Snowflake), sans aller-retour en base
+ *   41 bits : millisecondes depuis EPOCH (jusqu'en 2093)
+ *   10 bits : numéro de nœud (0 à 1023), distinct pour chaque instance qui écrit
+ *   12 bits : compteur dans la milliseconde (4096 identifiants par milliseconde et par nœud)
+ * Les identifiants successifs sont croissants : les inserts se font en fin d'index
+ * Au-delà de 2^53, ils sont exposés en chaîne dans les DTO (@JsonSerialize(using = ToStringSerializer.class))
+ *
+ * Sans verrou : l'horodatage et le compteur tiennent dans un seul AtomicLong mis à jour par CAS.
+ * Compteur épuisé ou horloge qui recule : on continue sur la milliseconde suivante au lieu
+ * d'attendre, l'unicité et l'ordre sont conservés et l'horloge rattrape ensuite
+ */
+public final class SnowflakeIds {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH = 1_704_067_200_000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Une instance par nœud : tous les générateurs Hibernate du nœud partagent le même état,
+    // un identifiant est donc unique dans toute la base et pas seulement dans sa table
+    private static final Map<Integer, SnowflakeIds> NODES = new ConcurrentHashMap<>();
+
+    private final long node;
+    private final LongSupplier clock;
+    // (millisecondes depuis EPOCH << SEQUENCE_BITS) | compteur, du dernier identifiant émis
+    private final AtomicLong last = new AtomicLong();
+
+    private SnowflakeIds(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    // Horloge injectable pour les tests (milliseconde figée, retour en arrière)
+    SnowflakeIds(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Numéro de nœud hors de [0, " + MAX_NODE + "] : " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    public static SnowflakeIds forNode(int node) {
+        return NODES.computeIfAbsent(node, SnowflakeIds::new);
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            // Nouvelle milliseconde : compteur à zéro ; sinon compteur + 1 (qui déborde sur la milliseconde suivante)
+            long next = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Instant d'émission d'un identifiant (à la milliseconde)
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /**
+     * Plus petit identifiant émis à partir d'un instant : borne de tranche par date de création
+     */
+    public static long firstIdAt(Instant instant) {
+        return Math.max(0, instant.toEpochMilli() - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.securityjwt.entity;
 
-import com.example.securityjwt.enums.ERole;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,7 +17,7 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     // Nom d'utilisateur unique pour la connexion
@@ -40,6 +39,10 @@ public class User {
     // Compte actif ou bloqué
     private boolean enabled = true;
 
+    // Version des tokens : un token portant une version inférieure est révoqué (TokenRevocationRegistry)
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
     // Date de création du compte
     @Column(name = "created_date")
     private LocalDateTime createdDate;
@@ -55,7 +58,14 @@ public class User {
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
-    private Set<ERole> roles = new HashSet<>();
+    private Set<Role> roles = new HashSet<>();
+
+    public User(String username, String email, String password, String fullName) {
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.fullName = fullName;
+    }
 
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,5 @@
+package com.example.securityjwt.enums;
+
+public enum StatementFormat {
+    CSV, NDJSON
+}
@@ -0,0 +1,10 @@
+package com.example.securityjwt.exception;
+
+/**
+ * Requête avec la même clé d'idempotence encore en cours d'exécution
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
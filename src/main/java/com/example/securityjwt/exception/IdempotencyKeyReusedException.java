@@ -0,0 +1,10 @@
+package com.example.securityjwt.exception;
+
+/**
+ * Clé d'idempotence déjà utilisée pour une requête différente
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
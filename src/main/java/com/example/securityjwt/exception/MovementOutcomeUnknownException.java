@@ -0,0 +1,22 @@
+package com.example.securityjwt.exception;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mouvement soumis dont le résultat n'est pas encore connu (délai d'attente dépassé) :
+ * il peut encore être appliqué. outcome est complété avec le corps de la réponse une fois
+ * le mouvement journalisé (null pour un mouvement simple), ou en erreur s'il n'est pas appliqué
+ */
+public class MovementOutcomeUnknownException extends RuntimeException {
+
+    private final transient CompletableFuture<Object> outcome;
+
+    public MovementOutcomeUnknownException(String message, CompletableFuture<Object> outcome, Throwable cause) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<Object> getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.securityjwt.repositories;
+
+import com.example.securityjwt.entity.AccountDailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountDailySummaryRepository extends JpaRepository<AccountDailySummary, Long> {
+
+    List<AccountDailySummary> findByAccountIdAndDayBetweenOrderByDay(Long accountId, LocalDate from, LocalDate to);
+
+    /**
+     * Totaux par jour de tous les comptes d'un client : date, nombre, crédits, débits
+     */
+    @Query("SELECT s.day, SUM(s.operationCount), SUM(s.credits), SUM(s.debits) FROM AccountDailySummary s " +
+            "WHERE s.accountId IN (SELECT b.id FROM BankAccount b WHERE b.customer.id = :customerId) " +
+            "AND s.day BETWEEN :from AND :to GROUP BY s.day ORDER BY s.day")
+    List<Object[]> sumByCustomerAndDay(@Param("customerId") Long customerId,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Ajoute des mouvements au résumé d'un jour ; 0 si la ligne n'existe pas encore
+     * Le solde de clôture n'est remplacé que par celui d'une opération plus récente
+     * (les expressions du SET lisent toutes les valeurs d'avant la mise à jour)
+     */
+    @Modifying
+    @Query("UPDATE AccountDailySummary s SET s.operationCount = s.operationCount + :count, " +
+            "s.credits = s.credits + :credits, s.debits = s.debits + :debits, " +
+            "s.closingBalance = CASE WHEN s.lastOperationId IS NULL OR s.lastOperationId < :lastOperationId " +
+            "THEN :closingBalance ELSE s.closingBalance END, " +
+            "s.lastOperationId = CASE WHEN s.lastOperationId IS NULL OR s.lastOperationId < :lastOperationId " +
+            "THEN :lastOperationId ELSE s.lastOperationId END " +
+            "WHERE s.accountId = :accountId AND s.day = :day")
+    int addMovements(@Param("accountId") Long accountId, @Param("day") LocalDate day,
+                     @Param("count") long count, @Param("credits") long credits, @Param("debits") long debits,
+                     @Param("closingBalance") Long closingBalance, @Param("lastOperationId") Long lastOperationId);
+
+    @Modifying
+    @Query("DELETE FROM AccountDailySummary s WHERE s.accountId IN :accountIds")
+    int deleteByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+}
@@ -1,13 +1,116 @@
 package com.example.securityjwt.repositories;
 
+import com.example.securityjwt.dtos.OperationExportRow;
 import com.example.securityjwt.entity.AccountOperation;
-import org.hibernate.query.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.awt.print.Pageable;
+import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountOperationRepository extends JpaRepository<AccountOperation, Long> {
-    Page<AccountOperation> findByBankAccountIdOrderByOperationDateDesc(String accountId, Pageable pageable);
-}
\ No newline at end of file
+    Page<AccountOperation> findByBankAccountIdOrderByOperationTimeDesc(Long accountId, Pageable pageable);
+
+    /**
+     * Première page de l'historique (pagination par curseur, sans COUNT)
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId " +
+            "ORDER BY o.operationTime DESC, o.id DESC")
+    List<AccountOperation> findHistoryFirstPage(@Param("accountId") Long accountId, Limit limit);
+
+    /**
+     * Page suivante : reprend strictement après la dernière ligne lue (operationTime, id)
+     * Coût constant quelle que soit la profondeur, grâce à l'index (account_id, operation_time, id)
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId " +
+            "AND (o.operationTime < :operationTime OR (o.operationTime = :operationTime AND o.id < :id)) " +
+            "ORDER BY o.operationTime DESC, o.id DESC")
+    List<AccountOperation> findHistoryPageAfter(@Param("accountId") Long accountId,
+                                                @Param("operationTime") LocalDateTime operationTime,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    long countByBankAccountId(Long accountId);
+
+    /**
+     * Dernière opération à une date donnée : une seule descente de l'index (account_id, operation_time, id)
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId AND o.operationTime <= :at " +
+            "ORDER BY o.operationTime DESC, o.id DESC")
+    List<AccountOperation> findLatestAt(@Param("accountId") Long accountId,
+                                        @Param("at") LocalDateTime at, Limit limit);
+
+    /**
+     * Première opération après une date (solde avant la première opération connue)
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId AND o.operationTime > :at " +
+            "ORDER BY o.operationTime, o.id")
+    List<AccountOperation> findEarliestAfter(@Param("accountId") Long accountId,
+                                             @Param("at") LocalDateTime at, Limit limit);
+
+    /**
+     * Somme signée des mouvements postérieurs à une date (repli pour l'historique non complété)
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN o.operationType = com.example.securityjwt.enums.OperationType.CREDIT " +
+            "THEN o.amount ELSE -o.amount END), 0) " +
+            "FROM AccountOperation o WHERE o.bankAccount.id = :accountId AND o.operationTime > :at")
+    long sumMovementsAfter(@Param("accountId") Long accountId, @Param("at") LocalDateTime at);
+
+    /**
+     * Comptes dont une partie de l'historique n'a pas encore de solde après opération
+     */
+    @Query("SELECT DISTINCT o.bankAccount.id FROM AccountOperation o WHERE o.balanceAfter IS NULL")
+    List<Long> findAccountsWithoutBalanceAfter();
+
+    /**
+     * Plus ancienne opération déjà renseignée : point d'ancrage du calcul à rebours
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId AND o.balanceAfter IS NOT NULL " +
+            "ORDER BY o.operationTime, o.id")
+    List<AccountOperation> findOldestWithBalanceAfter(@Param("accountId") Long accountId, Limit limit);
+
+    /**
+     * Opérations non renseignées, les plus récentes d'abord
+     */
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId AND o.balanceAfter IS NULL " +
+            "ORDER BY o.operationTime DESC, o.id DESC")
+    List<AccountOperation> findNewestWithoutBalanceAfter(@Param("accountId") Long accountId, Limit limit);
+
+    /**
+     * Historique complet en flux, du plus ancien au plus récent
+     * Projection sans entité gérée et curseur côté serveur : mémoire constante
+     * Doit être consommé dans une transaction en lecture seule
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.securityjwt.dtos.OperationExportRow(" +
+            "o.id, o.operationTime, o.operationType, o.amount, o.description, o.performedBy) " +
+            "FROM AccountOperation o WHERE o.bankAccount.id = :accountId " +
+            "ORDER BY o.operationTime, o.id")
+    Stream<OperationExportRow> streamStatement(@Param("accountId") Long accountId);
+
+    /**
+     * Opérations d'un lot de comptes pour la reconstruction des résumés quotidiens
+     * Colonnes : compte, date, type, montant, solde après, identifiant ; sans ordre, en flux
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.bankAccount.id, o.operationTime, o.operationType, o.amount, o.balanceAfter, o.id " +
+            "FROM AccountOperation o WHERE o.bankAccount.id IN :accountIds")
+    Stream<Object[]> streamForDailySummaries(@Param("accountIds") Collection<Long> accountIds);
+}
@@ -1,9 +1,117 @@
 package com.example.securityjwt.repositories;
 
 import com.example.securityjwt.entity.BankAccount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
+
+    /**
+     * Débit atomique : le contrôle du solde et la mise à jour se font dans un seul UPDATE
+     * Retourne 0 si le compte n'existe pas ou si le solde est insuffisant
+     */
+    @Modifying
+    @Query("UPDATE BankAccount b SET b.balance = b.balance - :amount, b.updatedBy = :user, b.updatedAt = :now " +
+            "WHERE b.id = :accountId AND b.balance >= :amount")
+    int debitIfSufficient(@Param("accountId") Long accountId, @Param("amount") long amount,
+                          @Param("user") String user, @Param("now") LocalDateTime now);
+
+    /**
+     * Crédit atomique, sans lecture préalable du compte
+     * Retourne 0 si le compte n'existe pas
+     */
+    @Modifying
+    @Query("UPDATE BankAccount b SET b.balance = b.balance + :amount, b.updatedBy = :user, b.updatedAt = :now " +
+            "WHERE b.id = :accountId")
+    int creditBalance(@Param("accountId") Long accountId, @Param("amount") long amount,
+                      @Param("user") String user, @Param("now") LocalDateTime now);
+
+    /**
+     * Solde courant relu juste après un UPDATE de la même transaction :
+     * la ligne est verrouillée, c'est donc exactement le solde produit par ce mouvement
+     */
+    @Query("SELECT b.balance FROM BankAccount b WHERE b.id = :accountId")
+    long findBalanceById(@Param("accountId") Long accountId);
+
+    /**
+     * Charge et verrouille un ensemble de comptes, toujours par ordre croissant d'identifiant
+     * (l'ordre des virements simples) pour que deux lots concurrents ne puissent pas s'interbloquer
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BankAccount b WHERE b.id IN :accountIds ORDER BY b.id")
+    List<BankAccount> findAllForUpdate(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Comptes et clients en une seule requête (pas de N+1 sur le client)
+     */
+    @Query("SELECT b FROM BankAccount b LEFT JOIN FETCH b.customer ORDER BY b.id")
+    List<BankAccount> findAllWithCustomer();
+
+    @Query("SELECT b FROM BankAccount b JOIN FETCH b.customer c WHERE c.id = :customerId ORDER BY b.id")
+    List<BankAccount> findByCustomerIdWithCustomer(@Param("customerId") Long customerId);
+
+    @Query("SELECT b FROM BankAccount b LEFT JOIN FETCH b.customer WHERE b.id = :accountId")
+    Optional<BankAccount> findByIdWithCustomer(@Param("accountId") Long accountId);
+
+    /**
+     * Mouvement net appliqué en différé par le moteur en mémoire
+     */
+    @Modifying
+    @Query("UPDATE BankAccount b SET b.balance = b.balance + :delta WHERE b.id = :accountId")
+    int applyBalanceDelta(@Param("accountId") Long accountId, @Param("delta") long delta);
+
+    /**
+     * Réserve count numéros d'événement d'outbox du compte, dont la ligne est déjà verrouillée
+     * par l'UPDATE du solde ; requête native : la colonne n'est pas modifiable par l'entité
+     */
+    @Modifying
+    @Query(value = "UPDATE bank_account SET event_sequence = event_sequence + :count WHERE id = :accountId",
+            nativeQuery = true)
+    int advanceEventSequence(@Param("accountId") Long accountId, @Param("count") long count);
+
+    @Query(value = "SELECT event_sequence FROM bank_account WHERE id = :accountId", nativeQuery = true)
+    long findEventSequence(@Param("accountId") Long accountId);
+
+    /**
+     * Identifiants et soldes de tous les comptes (amorçage du moteur en mémoire)
+     */
+    @Query("SELECT b.id, b.balance FROM BankAccount b")
+    List<Object[]> findAllBalances();
+
+    @Query("SELECT b.id, b.balance FROM BankAccount b WHERE b.id IN :accountIds")
+    List<Object[]> findBalances(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Page d'identifiants de comptes, par ordre croissant (traitements par lots)
+     */
+    @Query("SELECT b.id FROM BankAccount b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Plus grands soldes, du plus grand au plus petit (classement de BankAggregates)
+     */
+    @Query("SELECT b.id, b.balance FROM BankAccount b ORDER BY b.balance DESC, b.id DESC")
+    List<Object[]> findLargestBalances(Limit limit);
+
+    @Query("SELECT MAX(s.id) FROM SavingAccount s")
+    Long findMaxSavingAccountId();
+
+    /**
+     * Lot de comptes épargne d'une tranche d'identifiants, sans verrou (calcul des intérêts)
+     */
+    @Query("SELECT s.id, s.balance, s.interestRate FROM SavingAccount s " +
+            "WHERE s.id > :afterId AND s.id < :endId ORDER BY s.id")
+    List<Object[]> findSavingAccountsChunk(@Param("afterId") long afterId, @Param("endId") long endId, Limit limit);
 }
@@ -1,13 +1,15 @@
 package com.example.securityjwt.repositories;
 
 import com.example.securityjwt.entity.Customer;
-import org.hibernate.query.Page;
+import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.awt.print.Pageable;
+import org.springframework.data.domain.Pageable;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -15,4 +17,20 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Page<Customer> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Parcours complet en flux, pour construire l'index de recherche en mémoire
+     */
+    @Query("SELECT c FROM Customer c")
+    Stream<Customer> streamAll();
+
+    /**
+     * Recherche approchée PostgreSQL (bankmanagement.search.mode=pg_trgm)
+     * Nécessite l'extension pg_trgm et les index GIN de db/postgresql/customer-search.sql
+     */
+    @Query(value = "SELECT * FROM customer c " +
+            "WHERE c.name % :keyword OR c.email % :keyword OR c.phone LIKE CONCAT(:keyword, '%') " +
+            "ORDER BY GREATEST(similarity(c.name, :keyword), similarity(c.email, :keyword)) DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Customer> searchByTrigram(@Param("keyword") String keyword, @Param("limit") int limit);
 }
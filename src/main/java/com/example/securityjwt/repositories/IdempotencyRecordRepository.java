@@ -0,0 +1,45 @@
+package com.example.securityjwt.repositories;
+
+import com.example.securityjwt.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Enregistre la réponse ; 0 si la réservation n'est plus celle de cette requête (reprise)
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.responseBody = :body, r.expiresAt = :expiresAt " +
+            "WHERE r.idempotencyKey = :key AND r.status IS NULL AND r.createdAt = :reservedAt")
+    int complete(@Param("key") String key, @Param("reservedAt") LocalDateTime reservedAt,
+                 @Param("status") int status, @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Reprend une réservation abandonnée, si personne ne l'a reprise ou terminée entre-temps
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now, r.expiresAt = :expiresAt " +
+            "WHERE r.idempotencyKey = :key AND r.status IS NULL AND r.createdAt = :reservedAt")
+    int takeOver(@Param("key") String key, @Param("reservedAt") LocalDateTime reservedAt,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Libère la réservation de cette requête ; une réponse enregistrée n'est jamais supprimée
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.idempotencyKey = :key AND r.status IS NULL AND r.createdAt = :reservedAt")
+    int release(@Param("key") String key, @Param("reservedAt") LocalDateTime reservedAt);
+}
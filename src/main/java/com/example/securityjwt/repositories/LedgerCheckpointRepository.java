@@ -0,0 +1,9 @@
+package com.example.securityjwt.repositories;
+
+import com.example.securityjwt.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+}
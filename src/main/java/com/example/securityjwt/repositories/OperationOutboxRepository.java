@@ -0,0 +1,43 @@
+package com.example.securityjwt.repositories;
+
+import com.example.securityjwt.entity.OperationOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OperationOutboxRepository extends JpaRepository<OperationOutboxEvent, Long> {
+
+    /**
+     * Plus anciens événements d'une partition, tous comptes confondus : aucun compte n'attend
+     * qu'un autre plus actif ait vidé son arriéré
+     */
+    List<OperationOutboxEvent> findByPartitionKeyOrderById(int partitionKey, Limit limit);
+
+    /**
+     * Premier événement en attente (plus petit numéro) de chacun de ces comptes
+     * Les identifiants ne suffisent pas entre instances aux horloges décalées : c'est lui qui ouvre
+     * la suite du compte, qu'il soit ou non parmi les plus anciens
+     */
+    @Query("SELECT e FROM OperationOutboxEvent e WHERE e.partitionKey = :partitionKey AND e.accountId IN :accountIds " +
+            "AND e.accountSequence = (SELECT MIN(m.accountSequence) FROM OperationOutboxEvent m " +
+            "WHERE m.partitionKey = :partitionKey AND m.accountId = e.accountId)")
+    List<OperationOutboxEvent> findFirstPendingOfAccounts(@Param("partitionKey") int partitionKey,
+                                                         @Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Partitions ayant des événements en attente (une seule requête quand l'outbox est vide)
+     */
+    @Query("SELECT DISTINCT e.partitionKey FROM OperationOutboxEvent e")
+    List<Integer> findPendingPartitions();
+
+    @Modifying
+    @Query("DELETE FROM OperationOutboxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
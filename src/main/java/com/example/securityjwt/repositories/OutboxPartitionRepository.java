@@ -0,0 +1,26 @@
+package com.example.securityjwt.repositories;
+
+import com.example.securityjwt.entity.OutboxPartition;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxPartitionRepository extends JpaRepository<OutboxPartition, Integer> {
+
+    /**
+     * Verrouille une partition, vide si un autre publieur la détient déjà
+     * (timeout -2 : FOR UPDATE SKIP LOCKED, sans attente)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM OutboxPartition p WHERE p.partitionKey = :partitionKey")
+    Optional<OutboxPartition> lockIfFree(@Param("partitionKey") int partitionKey);
+}
@@ -2,8 +2,11 @@ package com.example.securityjwt.repositories;
 
 import com.example.securityjwt.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -38,4 +41,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.username = :username")
     Optional<User> findByUsernameWithRoles(String username);
+
+    /**
+     * Nouvelle version de tokens : rejette tous les tokens déjà émis pour cet utilisateur
+     * Au moins now, pour dépasser les versions horodatées des tokens émis avant cette colonne
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = " +
+            "CASE WHEN u.tokenVersion >= :now THEN u.tokenVersion + 1 ELSE :now END " +
+            "WHERE u.username = :username")
+    int incrementTokenVersion(@Param("username") String username, @Param("now") long now);
 }
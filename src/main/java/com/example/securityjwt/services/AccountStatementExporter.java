@@ -0,0 +1,129 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationExportRow;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.enums.StatementFormat;
+import com.example.securityjwt.exception.BankAccountNotFoundException;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export du relevé complet d'un compte, écrit au fil de la lecture
+ * L'historique n'est jamais chargé en mémoire : une ligne lue, une ligne écrite
+ */
+@Service
+@AllArgsConstructor
+public class AccountStatementExporter {
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private BankAccountRepository bankAccountRepository;
+    private AccountOperationRepository accountOperationRepository;
+    private OperationArchive operationArchive;
+
+    public void checkAccountExists(Long accountId) {
+        if (!bankAccountRepository.existsById(accountId)) {
+            throw new BankAccountNotFoundException("Account not found");
+        }
+    }
+
+    /**
+     * Le flux de la requête reste ouvert pendant toute l'écriture : transaction en lecture seule
+     * Les lignes des partitions archivées, plus anciennes, sont écrites en premier
+     */
+    @Transactional(readOnly = true)
+    public void export(Long accountId, StatementFormat format, OutputStream out) throws IOException {
+        try (Stream<OperationExportRow> rows = Stream.concat(operationArchive.statement(accountId).stream(),
+                accountOperationRepository.streamStatement(accountId))) {
+            if (format == StatementFormat.NDJSON) {
+                writeNdjson(rows.iterator(), out);
+            } else {
+                writeCsv(rows.iterator(), out);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<OperationExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("id,operationTime,type,amount,description,performedBy\n");
+
+        int count = 0;
+        while (rows.hasNext()) {
+            OperationExportRow row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(String.valueOf(row.operationTime()));
+            writer.write(',');
+            writer.write(String.valueOf(row.operationType()));
+            writer.write(',');
+            writer.write(Money.ofMinor(row.amount()).toString());
+            writer.write(',');
+            writeCsvField(writer, row.description());
+            writer.write(',');
+            writeCsvField(writer, row.performedBy());
+            writer.write('\n');
+
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<OperationExportRow> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Séparateur par défaut entre valeurs racines : une espace, qui commencerait chaque ligne après la première
+        generator.setRootValueSeparator(null);
+
+        int count = 0;
+        while (rows.hasNext()) {
+            OperationExportRow row = rows.next();
+            generator.writeStartObject();
+            generator.writeStringField("id", String.valueOf(row.id()));
+            generator.writeStringField("operationTime", String.valueOf(row.operationTime()));
+            generator.writeStringField("type", String.valueOf(row.operationType()));
+            generator.writeNumberField("amount", Money.ofMinor(row.amount()).toBigDecimal());
+            generator.writeStringField("description", row.description());
+            generator.writeStringField("performedBy", row.performedBy());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.BankAccount;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Renseigne balanceAfter sur l'historique antérieur à la colonne
+ * Calcul à rebours, par lots, une transaction par lot : l'ancre est la plus ancienne opération
+ * déjà renseignée (ou le solde courant), puis on remonte vers les opérations plus anciennes
+ * Sans état : peut être interrompu et relancé à tout moment
+ */
+@Service
+public class BalanceAfterBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceAfterBackfill.class);
+
+    @Autowired
+    AccountOperationRepository accountOperationRepository;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${bankmanagement.ledger.backfillChunkSize:1000}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Lance le rattrapage en arrière-plan ; false s'il est déjà en cours
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                logger.error("Balance-after backfill failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, "balance-after-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long run() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long updated = 0;
+        List<Long> accountIds = accountOperationRepository.findAccountsWithoutBalanceAfter();
+        for (Long accountId : accountIds) {
+            int chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> backfillChunk(accountId));
+                updated += chunk;
+            } while (chunk == chunkSize);
+        }
+        logger.info("Balance-after backfill: {} operations on {} accounts in {} ms",
+                updated, accountIds.size(), System.currentTimeMillis() - start);
+        return updated;
+    }
+
+    private int backfillChunk(Long accountId) {
+        // Le verrou sur le compte empêche un mouvement de s'intercaler pendant la lecture de l'ancre
+        List<BankAccount> locked = bankAccountRepository.findAllForUpdate(List.of(accountId));
+        if (locked.isEmpty()) {
+            return 0;
+        }
+
+        // Les nouvelles opérations sont toujours renseignées : celles à compléter sont toutes plus anciennes
+        List<AccountOperation> anchor = accountOperationRepository.findOldestWithBalanceAfter(accountId, Limit.of(1));
+        long balance = anchor.isEmpty()
+                ? locked.get(0).getBalance()
+                : anchor.get(0).getBalanceAfter() - signedAmount(anchor.get(0));
+
+        List<AccountOperation> operations =
+                accountOperationRepository.findNewestWithoutBalanceAfter(accountId, Limit.of(chunkSize));
+        for (AccountOperation operation : operations) {
+            operation.setBalanceAfter(balance);
+            balance -= signedAmount(operation);
+        }
+        // Entités modifiées : UPDATE groupés au commit (hibernate.jdbc.batch_size)
+        return operations.size();
+    }
+
+    static long signedAmount(AccountOperation operation) {
+        return operation.getOperationType() == OperationType.CREDIT ? operation.getAmount() : -operation.getAmount();
+    }
+}
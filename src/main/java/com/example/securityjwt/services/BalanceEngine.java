@@ -0,0 +1,36 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.TransferDTO;
+import com.example.securityjwt.dtos.TransferResultDTO;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Moteur d'application des mouvements de solde utilisé par BankAccountService
+ * LedgerEngine (par défaut) : UPDATE conditionnels en base
+ * InMemoryBalanceEngine (bankmanagement.ledger.mode=memory) : soldes en mémoire, journal durable
+ */
+public interface BalanceEngine {
+
+    void debit(Long accountId, long amount, String description, String performedBy);
+
+    void credit(Long accountId, long amount, String description, String performedBy);
+
+    void transfer(Long accountIdSource, Long accountIdDestination, long amount, String performedBy);
+
+    List<TransferResultDTO> transferBatch(List<TransferDTO> transfers, String performedBy);
+
+    /**
+     * Appelé après la création d'un compte (transaction validée)
+     */
+    default void accountOpened(Long accountId, long initialBalance) {
+    }
+
+    /**
+     * Solde de référence quand il n'est pas celui de la base de données
+     */
+    default OptionalLong currentBalance(Long accountId) {
+        return OptionalLong.empty();
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.securityjwt.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal durable du moteur en mémoire
+ * Un seul thread écrit : les entrées en attente sont écrites par lots puis un seul fsync
+ * valide tout le lot (group commit) avant que les appelants ne soient acquittés
+ * Format d'une entrée : [longueur][CRC32][contenu] ; une fin de fichier tronquée est ignorée au rejeu
+ */
+final class BalanceJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceJournal.class);
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int MAX_BATCH = 1024;
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+
+    // File non bornée : le thread du journal ne doit jamais bloquer un thread de partition
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile IOException failure;
+    private volatile Path activeSegment;
+    private FileChannel channel;
+    private long nextSequence;
+
+    private record PendingAppend(LedgerRecord record, CompletableFuture<LedgerRecord> result) {
+    }
+
+    BalanceJournal(Path directory, long nextSequence, long segmentMaxBytes) throws IOException {
+        this.directory = directory;
+        this.nextSequence = nextSequence;
+        this.segmentMaxBytes = segmentMaxBytes;
+        openSegment();
+        thread = new Thread(this::run, "balance-journal");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Ajoute une entrée ; le futur est complété (avec son numéro de séquence) une fois sur disque
+     * Les callbacks s'exécutent sur le thread du journal, dans l'ordre des séquences
+     */
+    CompletableFuture<LedgerRecord> append(LedgerRecord record) {
+        return append(record, (written, failure) -> {
+        });
+    }
+
+    /**
+     * Variante où le callback est attaché avant la mise en file : il s'exécute toujours sur
+     * le thread du journal, donc dans l'ordre des séquences, même si l'écriture est très rapide
+     */
+    CompletableFuture<LedgerRecord> append(LedgerRecord record, BiConsumer<LedgerRecord, Throwable> onDurable) {
+        CompletableFuture<LedgerRecord> result = new CompletableFuture<>();
+        result.whenComplete(onDurable);
+        if (!running || failure != null) {
+            result.completeExceptionally(new IllegalStateException("Balance journal is not available", failure));
+            return result;
+        }
+        queue.add(new PendingAppend(record, result));
+        return result;
+    }
+
+    Path activeSegment() {
+        return activeSegment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void run() {
+        List<PendingAppend> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        if (failure != null) {
+            batch.forEach(p -> p.result().completeExceptionally(failure));
+            return;
+        }
+
+        List<LedgerRecord> written = new ArrayList<>(batch.size());
+        try {
+            for (PendingAppend pending : batch) {
+                LedgerRecord record = pending.record().withSequence(nextSequence++);
+                channel.write(frame(record.encode()));
+                written.add(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Après une écriture partielle, plus rien ne doit être ajouté derrière
+            logger.error("Balance journal write failed, journal is now read-only", e);
+            failure = e;
+            batch.forEach(p -> p.result().completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(written.get(i));
+        }
+
+        try {
+            if (channel.position() >= segmentMaxBytes) {
+                channel.close();
+                openSegment();
+            }
+        } catch (IOException e) {
+            logger.error("Balance journal rotation failed", e);
+            failure = e;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", PREFIX, nextSequence, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        activeSegment = segment;
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Segments du journal, du plus ancien au plus récent
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Relit un segment ; s'arrête à la première entrée incomplète ou corrompue (crash pendant l'écriture)
+     */
+    static List<LedgerRecord> read(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<LedgerRecord> records = new ArrayList<>();
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                logger.warn("Truncated entry at the end of {}", segment.getFileName());
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                logger.warn("Corrupted entry at the end of {}", segment.getFileName());
+                break;
+            }
+            records.add(LedgerRecord.decode(new DataInputStream(new ByteArrayInputStream(payload))));
+        }
+        return records;
+    }
+}
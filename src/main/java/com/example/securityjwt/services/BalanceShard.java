@@ -0,0 +1,83 @@
+package com.example.securityjwt.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partition du moteur en mémoire : un seul thread modifie les soldes de ses comptes,
+ * les commandes arrivent par une file bornée (pression arrière quand elle est pleine)
+ */
+final class BalanceShard {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceShard.class);
+
+    /**
+     * Solde modifié uniquement par le thread de la partition, lisible depuis les autres threads
+     */
+    static final class Balance {
+        volatile long value;
+
+        Balance(long value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<Long, Balance> balances = new ConcurrentHashMap<>();
+    private final BlockingQueue<Runnable> ring;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    BalanceShard(int index, int capacity) {
+        ring = new ArrayBlockingQueue<>(capacity);
+        thread = new Thread(this::run, "balance-shard-" + index);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void submit(Runnable command) {
+        try {
+            ring.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting a balance command", e);
+        }
+    }
+
+    Balance balance(Long accountId) {
+        return balances.get(accountId);
+    }
+
+    void load(Long accountId, long value) {
+        balances.put(accountId, new Balance(value));
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        while (running || !ring.isEmpty()) {
+            try {
+                Runnable command = ring.poll(100, TimeUnit.MILLISECONDS);
+                if (command != null) {
+                    command.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Balance command failed on {}", thread.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.securityjwt.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Instantanés des soldes du moteur en mémoire
+ * Un instantané est construit à partir du précédent et des segments de journal fermés,
+ * jamais à partir de l'état vivant des partitions : pas besoin d'arrêter les écritures
+ */
+final class BalanceSnapshots {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshots.class);
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    record Snapshot(long lastSequence, Map<Long, Long> balances) {
+    }
+
+    /**
+     * État reconstruit au démarrage : soldes, dernière séquence journalisée et entrées
+     * pas encore persistées en base (au-delà du point de reprise), à renvoyer au writer
+     */
+    record Recovery(Map<Long, Long> balances, long lastSequence, List<LedgerRecord> unpersisted, int replayed) {
+    }
+
+    private BalanceSnapshots() {
+    }
+
+    static Snapshot loadLatest(Path directory) throws IOException {
+        List<Path> snapshots = snapshots(directory);
+        if (snapshots.isEmpty()) {
+            return new Snapshot(0, new HashMap<>());
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(latest)))) {
+            long lastSequence = in.readLong();
+            int count = in.readInt();
+            Map<Long, Long> balances = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                balances.put(in.readLong(), in.readLong());
+            }
+            return new Snapshot(lastSequence, balances);
+        }
+    }
+
+    /**
+     * Dernier instantané puis rejeu des entrées du journal qui le suivent
+     */
+    static Recovery recover(Path directory, long persistedSequence) throws IOException {
+        Snapshot snapshot = loadLatest(directory);
+        Map<Long, Long> balances = snapshot.balances();
+        long lastSequence = snapshot.lastSequence();
+        List<LedgerRecord> unpersisted = new ArrayList<>();
+        int replayed = 0;
+        for (Path segment : BalanceJournal.segments(directory)) {
+            for (LedgerRecord record : BalanceJournal.read(segment)) {
+                if (record.sequence() <= lastSequence) {
+                    continue;
+                }
+                record.applyTo(balances);
+                lastSequence = record.sequence();
+                replayed++;
+                if (record.sequence() > persistedSequence) {
+                    unpersisted.add(record);
+                }
+            }
+        }
+        return new Recovery(balances, lastSequence, unpersisted, replayed);
+    }
+
+    /**
+     * Intègre au dernier instantané les segments fermés dont toutes les entrées sont déjà
+     * persistées en base, puis supprime ces segments
+     */
+    static void compact(Path directory, Path activeSegment, long persistedSequence) throws IOException {
+        Snapshot snapshot = loadLatest(directory);
+        Map<Long, Long> balances = snapshot.balances();
+        long lastSequence = snapshot.lastSequence();
+
+        String activeName = activeSegment.getFileName().toString();
+        List<Path> folded = new ArrayList<>();
+        for (Path segment : BalanceJournal.segments(directory)) {
+            if (segment.getFileName().toString().compareTo(activeName) >= 0) {
+                break;
+            }
+            List<LedgerRecord> records = BalanceJournal.read(segment);
+            long segmentLast = records.isEmpty() ? lastSequence : records.get(records.size() - 1).sequence();
+            if (segmentLast > persistedSequence) {
+                // Encore nécessaire pour reprendre la persistance après un redémarrage
+                break;
+            }
+            for (LedgerRecord record : records) {
+                if (record.sequence() > lastSequence) {
+                    record.applyTo(balances);
+                    lastSequence = record.sequence();
+                }
+            }
+            folded.add(segment);
+        }
+        if (folded.isEmpty()) {
+            return;
+        }
+
+        write(directory, new Snapshot(lastSequence, balances));
+        for (Path segment : folded) {
+            Files.deleteIfExists(segment);
+        }
+        logger.info("Balance snapshot written at sequence {} ({} accounts, {} segments folded)",
+                lastSequence, balances.size(), folded.size());
+    }
+
+    private static void write(Path directory, Snapshot snapshot) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, snapshot.lastSequence(), SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeLong(snapshot.lastSequence());
+            out.writeInt(snapshot.balances().size());
+            for (Map.Entry<Long, Long> entry : snapshot.balances().entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path older : snapshots(directory)) {
+            if (!older.equals(target)) {
+                Files.deleteIfExists(older);
+            }
+        }
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -4,8 +4,13 @@ import com.example.securityjwt.dtos.*;
 import com.example.securityjwt.entity.AccountOperation;
 import com.example.securityjwt.entity.CurrentAccount;
 import com.example.securityjwt.entity.Customer;
+import com.example.securityjwt.entity.Money;
 import com.example.securityjwt.entity.SavingAccount;
-import org.hibernate.query.Page;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface BankAccountService {
     CustomerDTO saveCustomer(CustomerDTO customerDTO);
@@ -13,16 +18,24 @@ public interface BankAccountService {
     void deleteCustomer(Long customerId);
     CustomerDTO getCustomer(Long customerId);
     Page<CustomerDTO> searchCustomers(String keyword, int page, int size);
+    Page<CustomerDTO> searchCustomers(String keyword, Pageable pageable);
+    Page<CustomerDTO> listCustomers(Pageable pageable);
+    List<CustomerDTO> searchCustomers(String keyword, int limit);
 
-    CurrentAccountDTO saveCurrentBankAccount(double initialBalance, double overDraft, Long customerId);
-    SavingAccountDTO saveSavingBankAccount(double initialBalance, double interestRate, Long customerId);
-    BankAccountDTO getBankAccount(String accountId);
+    CurrentAccountDTO saveCurrentBankAccount(Money initialBalance, Money overDraft, Long customerId);
+    SavingAccountDTO saveSavingBankAccount(Money initialBalance, double interestRate, Long customerId);
+    BankAccountDTO getBankAccount(Long accountId);
+    List<BankAccountDTO> bankAccountList();
+    List<BankAccountDTO> getAccountsByCustomerId(Long customerId);
 
-    void debit(String accountId, double amount, String description);
-    void credit(String accountId, double amount, String description);
-    void transfer(String accountIdSource, String accountIdDestination, double amount);
+    void debit(Long accountId, Money amount, String description);
+    void credit(Long accountId, Money amount, String description);
+    void transfer(Long accountIdSource, Long accountIdDestination, Money amount);
+    List<TransferResultDTO> transferBatch(List<TransferDTO> transfers);
 
-    Page<AccountOperationDTO> accountHistory(String accountId, int page, int size);
+    Page<AccountOperationDTO> accountHistory(Long accountId, int page, int size);
+    AccountHistoryPageDTO accountHistory(Long accountId, String cursor, int size, boolean withTotal);
+    BalanceAtDTO balanceAt(Long accountId, LocalDateTime at);
 
 
 }
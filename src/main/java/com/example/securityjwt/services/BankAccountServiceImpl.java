@@ -1,35 +1,56 @@
 package com.example.securityjwt.services;
 
+import com.example.securityjwt.config.CacheConfig;
 import com.example.securityjwt.dtos.*;
 import com.example.securityjwt.entity.*;
 import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.exception.*;
 import com.example.securityjwt.repositories.AccountOperationRepository;
 import com.example.securityjwt.repositories.BankAccountRepository;
 import com.example.securityjwt.repositories.CustomerRepository;
+import com.example.securityjwt.services.BankingMetrics.Movement;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
-import org.hibernate.query.Page;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.awt.print.Pageable;
-import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @AllArgsConstructor
+@Timed(value = "bank.service", histogram = true)  // Une série par méthode (tags class, method, exception)
 public class BankAccountServiceImpl implements BankAccountService {
 
     private CustomerRepository customerRepository;
     private BankAccountRepository bankAccountRepository;
     private AccountOperationRepository accountOperationRepository;
+    private BalanceEngine balanceEngine;
+    private CustomerSearchService customerSearchService;
+    private ReadCacheInvalidator readCacheInvalidator;
+    private BankingMetrics bankingMetrics;
+    private OperationArchive operationArchive;
+    private BankAggregates bankAggregates;
 
     @Override
     public CustomerDTO saveCustomer(CustomerDTO customerDTO) {
         Customer customer = mapFromCustomerDTO(customerDTO);
         customer.setCreatedBy(getCurrentUser());
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchService.onCustomerSaved(savedCustomer);
         return mapFromCustomer(savedCustomer);
     }
 
@@ -43,132 +64,276 @@ public class BankAccountServiceImpl implements BankAccountService {
         customer.setAddress(customerDTO.getAddress());
         customer.setUpdatedBy(getCurrentUser());
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchService.onCustomerSaved(savedCustomer);
+        readCacheInvalidator.customerChanged(savedCustomer.getId());
         return mapFromCustomer(savedCustomer);
     }
 
     @Override
     public void deleteCustomer(Long customerId) {
         customerRepository.deleteById(customerId);
+        customerSearchService.onCustomerDeleted(customerId);
+        readCacheInvalidator.customerChanged(customerId);
     }
 
     @Override
     public CustomerDTO getCustomer(Long customerId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        return mapFromCustomer(customer);
+        return readCacheInvalidator.read(CacheConfig.CUSTOMERS, customerId, () -> {
+            Customer customer = customerRepository.findById(customerId)
+                    .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+            return mapFromCustomer(customer);
+        });
     }
 
     @Override
     public Page<CustomerDTO> searchCustomers(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+        return searchCustomers(keyword, PageRequest.of(page, size));
+    }
+
+    @Override
+    public Page<CustomerDTO> searchCustomers(String keyword, Pageable pageable) {
         Page<Customer> customers = customerRepository.findByKeyword(keyword, pageable);
         return customers.map(this::mapFromCustomer);
     }
 
     @Override
-    public CurrentAccountDTO saveCurrentBankAccount(double initialBalance, double overDraft, Long customerId) {
+    public Page<CustomerDTO> listCustomers(Pageable pageable) {
+        return customerRepository.findAll(pageable).map(this::mapFromCustomer);
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String keyword, int limit) {
+        return customerSearchService.search(keyword, limit).stream()
+                .map(this::mapFromCustomer)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CurrentAccountDTO saveCurrentBankAccount(Money initialBalance, Money overDraft, Long customerId) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
 
         CurrentAccount currentAccount = new CurrentAccount();
-        currentAccount.setId(UUID.randomUUID().toString());
-        currentAccount.setBalance(initialBalance);
-        currentAccount.setOverDraft(overDraft);
+        currentAccount.setBalance(initialBalance.minorUnits());
+        currentAccount.setCurrency(Money.DEFAULT_CURRENCY);
+        currentAccount.setOverDraft(overDraft.minorUnits());
         currentAccount.setCustomer(customer);
         currentAccount.setCreatedBy(getCurrentUser());
 
         CurrentAccount savedAccount = bankAccountRepository.save(currentAccount);
+        AfterCommit.run(() -> balanceEngine.accountOpened(savedAccount.getId(),
+                savedAccount.getBalance()));
+        bankAggregates.accountOpened(savedAccount);
         return mapFromCurrentAccount(savedAccount);
     }
 
     @Override
-    public SavingAccountDTO saveSavingBankAccount(double initialBalance, double interestRate, Long customerId) {
+    public SavingAccountDTO saveSavingBankAccount(Money initialBalance, double interestRate, Long customerId) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
 
         SavingAccount savingAccount = new SavingAccount();
-        savingAccount.setId(UUID.randomUUID().toString());
-        savingAccount.setBalance(initialBalance);
+        savingAccount.setBalance(initialBalance.minorUnits());
+        savingAccount.setCurrency(Money.DEFAULT_CURRENCY);
         savingAccount.setInterestRate(interestRate);
         savingAccount.setCustomer(customer);
         savingAccount.setCreatedBy(getCurrentUser());
 
         SavingAccount savedAccount = bankAccountRepository.save(savingAccount);
+        AfterCommit.run(() -> balanceEngine.accountOpened(savedAccount.getId(),
+                savedAccount.getBalance()));
+        bankAggregates.accountOpened(savedAccount);
         return mapFromSavingAccount(savedAccount);
     }
 
     @Override
-    public BankAccountDTO getBankAccount(String accountId) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> new BankAccountNotFoundException("Account not found"));
-
-        if (bankAccount instanceof SavingAccount) {
-            return mapFromSavingAccount((SavingAccount) bankAccount);
-        } else {
-            return mapFromCurrentAccount((CurrentAccount) bankAccount);
-        }
+    public BankAccountDTO getBankAccount(Long accountId) {
+        return readCacheInvalidator.read(CacheConfig.BANK_ACCOUNTS, accountId, () -> {
+            BankAccount bankAccount = bankAccountRepository.findByIdWithCustomer(accountId)
+                    .orElseThrow(() -> new BankAccountNotFoundException("Account not found"));
+            Customer customer = bankAccount.getCustomer();
+            return mapFromBankAccount(bankAccount, customer == null ? null : mapFromCustomer(customer));
+        });
     }
 
     @Override
-    public void debit(String accountId, double amount, String description) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> new BankAccountNotFoundException("Account not found"));
+    public List<BankAccountDTO> bankAccountList() {
+        return mapFromBankAccounts(bankAccountRepository.findAllWithCustomer());
+    }
 
-        if (bankAccount.getBalance() < amount) {
-            throw new BalanceNotSufficientException("Balance not sufficient");
+    @Override
+    public List<BankAccountDTO> getAccountsByCustomerId(Long customerId) {
+        List<BankAccount> bankAccounts = bankAccountRepository.findByCustomerIdWithCustomer(customerId);
+        // Vérification de l'existence du client seulement quand il n'a aucun compte
+        if (bankAccounts.isEmpty() && !customerRepository.existsById(customerId)) {
+            throw new CustomerNotFoundException("Customer not found");
         }
-
-        AccountOperation accountOperation = new AccountOperation();
-        accountOperation.setOperationType(OperationType.DEBIT);
-        accountOperation.setAmount(amount);
-        accountOperation.setDescription(description);
-        accountOperation.setBankAccount(bankAccount);
-        accountOperation.setPerformedBy(getCurrentUser());
-        accountOperationRepository.save(accountOperation);
-
-        bankAccount.setBalance(bankAccount.getBalance() - amount);
-        bankAccount.setUpdatedBy(getCurrentUser());
-        bankAccountRepository.save(bankAccount);
+        return mapFromBankAccounts(bankAccounts);
     }
 
     @Override
-    public void credit(String accountId, double amount, String description) {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> new BankAccountNotFoundException("Account not found"));
+    public void debit(Long accountId, Money amount, String description) {
+        try {
+            long amountMinor = requirePositive(amount);
+            balanceEngine.debit(accountId, amountMinor, description, getCurrentUser());
+            bankingMetrics.accepted(Movement.DEBIT, amountMinor);
+        } catch (RuntimeException e) {
+            bankingMetrics.rejected(Movement.DEBIT, e);
+            throw e;
+        }
+        readCacheInvalidator.accountsChanged(List.of(accountId));
+    }
 
-        AccountOperation accountOperation = new AccountOperation();
-        accountOperation.setOperationType(OperationType.CREDIT);
-        accountOperation.setAmount(amount);
-        accountOperation.setDescription(description);
-        accountOperation.setBankAccount(bankAccount);
-        accountOperation.setPerformedBy(getCurrentUser());
-        accountOperationRepository.save(accountOperation);
+    @Override
+    public void credit(Long accountId, Money amount, String description) {
+        try {
+            long amountMinor = requirePositive(amount);
+            balanceEngine.credit(accountId, amountMinor, description, getCurrentUser());
+            bankingMetrics.accepted(Movement.CREDIT, amountMinor);
+        } catch (RuntimeException e) {
+            bankingMetrics.rejected(Movement.CREDIT, e);
+            throw e;
+        }
+        readCacheInvalidator.accountsChanged(List.of(accountId));
+    }
 
-        bankAccount.setBalance(bankAccount.getBalance() + amount);
-        bankAccount.setUpdatedBy(getCurrentUser());
-        bankAccountRepository.save(bankAccount);
+    @Override
+    public void transfer(Long accountIdSource, Long accountIdDestination, Money amount) {
+        try {
+            long amountMinor = requirePositive(amount);
+            balanceEngine.transfer(accountIdSource, accountIdDestination, amountMinor, getCurrentUser());
+            bankingMetrics.accepted(Movement.TRANSFER, amountMinor);
+        } catch (RuntimeException e) {
+            bankingMetrics.rejected(Movement.TRANSFER, e);
+            throw e;
+        }
+        readCacheInvalidator.accountsChanged(List.of(accountIdSource, accountIdDestination));
     }
 
     @Override
-    public void transfer(String accountIdSource, String accountIdDestination, double amount) {
-        debit(accountIdSource, amount, "Transfer to " + accountIdDestination);
-        credit(accountIdDestination, amount, "Transfer from " + accountIdSource);
+    public List<TransferResultDTO> transferBatch(List<TransferDTO> transfers) {
+        List<TransferResultDTO> results = balanceEngine.transferBatch(transfers, getCurrentUser());
+        bankingMetrics.batch(results);
+        Set<Long> changedAccounts = new HashSet<>();
+        for (TransferResultDTO result : results) {
+            if (result.isAccepted()) {
+                changedAccounts.add(result.getAccountSource());
+                changedAccounts.add(result.getAccountDestination());
+            }
+        }
+        readCacheInvalidator.accountsChanged(changedAccounts);
+        return results;
     }
 
     @Override
-    public Page<AccountOperationDTO> accountHistory(String accountId, int page, int size) {
+    public Page<AccountOperationDTO> accountHistory(Long accountId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<AccountOperation> accountOperations = accountOperationRepository
-                .findByBankAccountIdOrderByOperationDateDesc(accountId, pageable);
+                .findByBankAccountIdOrderByOperationTimeDesc(accountId, pageable);
         return accountOperations.map(this::mapFromAccountOperation);
     }
 
+    @Override
+    public AccountHistoryPageDTO accountHistory(Long accountId, String cursor, int size, boolean withTotal) {
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante
+        Limit limit = Limit.of(size + 1);
+        List<AccountOperation> operations;
+        HistoryCursor position = null;
+        if (cursor == null || cursor.isEmpty()) {
+            operations = accountOperationRepository.findHistoryFirstPage(accountId, limit);
+        } else {
+            position = HistoryCursor.decode(cursor);
+            operations = accountOperationRepository.findHistoryPageAfter(
+                    accountId, position.operationTime(), position.id(), limit);
+        }
+        // Page incomplète : la suite se trouve éventuellement dans les partitions archivées
+        operations = operationArchive.completeHistory(accountId, position, operations, size + 1);
+
+        boolean hasNext = operations.size() > size;
+        if (hasNext) {
+            operations = operations.subList(0, size);
+        }
+
+        AccountHistoryPageDTO historyPage = new AccountHistoryPageDTO();
+        historyPage.setAccountId(accountId);
+        historyPage.setOperations(operations.stream().map(this::mapFromAccountOperation).collect(Collectors.toList()));
+        if (hasNext) {
+            AccountOperation last = operations.get(operations.size() - 1);
+            historyPage.setNextCursor(new HistoryCursor(last.getOperationTime(), last.getId()).encode());
+        }
+        // Le COUNT(*) parcourt tout l'historique : uniquement sur demande explicite
+        if (withTotal) {
+            historyPage.setTotalElements(accountOperationRepository.countByBankAccountId(accountId)
+                    + operationArchive.count(accountId));
+        }
+        return historyPage;
+    }
+
+    /**
+     * Solde à une date : balanceAfter de la dernière opération avant cette date (une seule lecture d'index)
+     * Pour l'historique pas encore rattrapé, repli sur solde courant - mouvements postérieurs
+     * Les opérations des partitions archivées sont lues dans OperationArchive, plus anciennes que la table
+     */
+    @Override
+    public BalanceAtDTO balanceAt(Long accountId, LocalDateTime at) {
+        BankAccount bankAccount = bankAccountRepository.findById(accountId)
+                .orElseThrow(() -> new BankAccountNotFoundException("Account not found"));
+
+        BalanceAtDTO balanceAt = new BalanceAtDTO();
+        balanceAt.setAccountId(accountId);
+        balanceAt.setAt(at);
+        if (bankAccount.getCreatedAt() != null && bankAccount.getCreatedAt().isAfter(at)) {
+            return balanceAt;
+        }
+
+        Optional<AccountOperation> latest = accountOperationRepository.findLatestAt(accountId, at, Limit.of(1))
+                .stream().findFirst()
+                .or(() -> operationArchive.latestAt(accountId, at));
+        if (latest.isPresent()) {
+            AccountOperation operation = latest.get();
+            balanceAt.setOperationId(operation.getId());
+            if (operation.getBalanceAfter() != null) {
+                balanceAt.setBalance(Money.ofMinor(operation.getBalanceAfter()));
+                return balanceAt;
+            }
+        } else {
+            // Avant la première opération : solde précédant l'opération suivante
+            Optional<AccountOperation> next = operationArchive.earliestAfter(accountId, at)
+                    .or(() -> accountOperationRepository.findEarliestAfter(accountId, at, Limit.of(1)).stream().findFirst());
+            if (next.isEmpty()) {
+                balanceAt.setBalance(Money.ofMinor(bankAccount.getBalance()));
+                return balanceAt;
+            }
+            AccountOperation operation = next.get();
+            if (operation.getBalanceAfter() != null) {
+                balanceAt.setBalance(Money.ofMinor(
+                        operation.getBalanceAfter() - BalanceAfterBackfill.signedAmount(operation)));
+                return balanceAt;
+            }
+        }
+
+        balanceAt.setBalance(Money.ofMinor(
+                bankAccount.getBalance() - accountOperationRepository.sumMovementsAfter(accountId, at)
+                        - operationArchive.sumMovementsAfter(accountId, at)));
+        return balanceAt;
+    }
+
+    /**
+     * Les montants arrivent en Money (pas de @Positive possible) : contrôle ici, pour les deux moteurs
+     */
+    private static long requirePositive(Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return amount.minorUnits();
+    }
+
     private String getCurrentUser() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
 
-    // Méthodes de mapping
-    private CustomerDTO mapFromCustomer(Customer customer) {
+    // Méthodes de mapping (visibles dans le paquet pour les benchmarks JMH)
+    CustomerDTO mapFromCustomer(Customer customer) {
         CustomerDTO customerDTO = new CustomerDTO();
         customerDTO.setId(customer.getId());
         customerDTO.setName(customer.getName());
@@ -180,7 +345,7 @@ public class BankAccountServiceImpl implements BankAccountService {
         return customerDTO;
     }
 
-    private Customer mapFromCustomerDTO(CustomerDTO customerDTO) {
+    Customer mapFromCustomerDTO(CustomerDTO customerDTO) {
         Customer customer = new Customer();
         customer.setName(customerDTO.getName());
         customer.setEmail(customerDTO.getEmail());
@@ -189,10 +354,18 @@ public class BankAccountServiceImpl implements BankAccountService {
         return customer;
     }
 
-    private SavingAccountDTO mapFromSavingAccount(SavingAccount savingAccount) {
+    /**
+     * Avec le moteur en mémoire, la base n'est alimentée qu'en différé : le solde de référence est celui du moteur
+     */
+    private Money balanceOf(BankAccount bankAccount) {
+        return Money.ofMinor(balanceEngine.currentBalance(bankAccount.getId())
+                .orElse(bankAccount.getBalance()));
+    }
+
+    SavingAccountDTO mapFromSavingAccount(SavingAccount savingAccount) {
         SavingAccountDTO accountDTO = new SavingAccountDTO();
         accountDTO.setId(savingAccount.getId());
-        accountDTO.setBalance(savingAccount.getBalance());
+        accountDTO.setBalance(balanceOf(savingAccount));
         accountDTO.setCreatedAt(savingAccount.getCreatedAt());
         accountDTO.setInterestRate(savingAccount.getInterestRate());
         accountDTO.setCustomer(mapFromCustomer(savingAccount.getCustomer()));
@@ -200,25 +373,60 @@ public class BankAccountServiceImpl implements BankAccountService {
         return accountDTO;
     }
 
-    private CurrentAccountDTO mapFromCurrentAccount(CurrentAccount currentAccount) {
+    CurrentAccountDTO mapFromCurrentAccount(CurrentAccount currentAccount) {
         CurrentAccountDTO accountDTO = new CurrentAccountDTO();
         accountDTO.setId(currentAccount.getId());
-        accountDTO.setBalance(currentAccount.getBalance());
+        accountDTO.setBalance(balanceOf(currentAccount));
         accountDTO.setCreatedAt(currentAccount.getCreatedAt());
-        accountDTO.setOverDraft(currentAccount.getOverDraft());
+        accountDTO.setOverDraft(Money.ofMinor(currentAccount.getOverDraft()));
         accountDTO.setCustomer(mapFromCustomer(currentAccount.getCustomer()));
         accountDTO.setType("CURRENT_ACCOUNT");
         return accountDTO;
     }
 
-    private AccountOperationDTO mapFromAccountOperation(AccountOperation accountOperation) {
+    /**
+     * Mapping d'une liste de comptes dont le client est déjà chargé (JOIN FETCH)
+     * Un seul CustomerDTO par client, partagé par tous ses comptes
+     */
+    List<BankAccountDTO> mapFromBankAccounts(List<BankAccount> bankAccounts) {
+        Map<Long, CustomerDTO> customers = new HashMap<>();
+        List<BankAccountDTO> accountDTOs = new ArrayList<>(bankAccounts.size());
+        for (BankAccount bankAccount : bankAccounts) {
+            Customer customer = bankAccount.getCustomer();
+            CustomerDTO customerDTO = customer == null ? null
+                    : customers.computeIfAbsent(customer.getId(), id -> mapFromCustomer(customer));
+            accountDTOs.add(mapFromBankAccount(bankAccount, customerDTO));
+        }
+        return accountDTOs;
+    }
+
+    BankAccountDTO mapFromBankAccount(BankAccount bankAccount, CustomerDTO customerDTO) {
+        BankAccountDTO accountDTO = new BankAccountDTO();
+        accountDTO.setId(bankAccount.getId());
+        accountDTO.setBalance(balanceOf(bankAccount));
+        accountDTO.setCurrency(bankAccount.getCurrency());
+        accountDTO.setCreatedAt(bankAccount.getCreatedAt());
+        accountDTO.setCustomer(customerDTO);
+        if (bankAccount instanceof SavingAccount savingAccount) {
+            accountDTO.setInterestRate(savingAccount.getInterestRate());
+            accountDTO.setType("SAVING_ACCOUNT");
+        } else if (bankAccount instanceof CurrentAccount currentAccount) {
+            accountDTO.setOverDraft(Money.ofMinor(currentAccount.getOverDraft()));
+            accountDTO.setType("CURRENT_ACCOUNT");
+        }
+        return accountDTO;
+    }
+
+    AccountOperationDTO mapFromAccountOperation(AccountOperation accountOperation) {
         AccountOperationDTO accountOperationDTO = new AccountOperationDTO();
         accountOperationDTO.setId(accountOperation.getId());
         accountOperationDTO.setOperationDate(accountOperation.getOperationTime());
-        accountOperationDTO.setAmount(accountOperation.getAmount());
+        accountOperationDTO.setAmount(Money.ofMinor(accountOperation.getAmount()));
         accountOperationDTO.setType(accountOperation.getOperationType());
         accountOperationDTO.setDescription(accountOperation.getDescription());
         accountOperationDTO.setPerformedBy(accountOperation.getPerformedBy());
+        accountOperationDTO.setBalanceAfter(accountOperation.getBalanceAfter() == null
+                ? null : Money.ofMinor(accountOperation.getBalanceAfter()));
         return accountOperationDTO;
     }
 }
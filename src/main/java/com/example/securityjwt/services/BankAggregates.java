@@ -0,0 +1,377 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.AccountBalanceDTO;
+import com.example.securityjwt.dtos.BankAggregatesDTO;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.BankAccount;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats de toute la banque tenus en mémoire : dépôts, découverts, comptes par type, plus grands soldes
+ * Alimentés après commit par les créations de comptes et par les opérations persistées (mêmes points
+ * d'appel que DailySummaryProjector), sans verrou : LongAdder pour les totaux, TopBalances pour le
+ * classement. Lecture en temps constant, sans requête
+ * Reconstruits au démarrage par un scan parallèle de bank_account : les moteurs de soldes dépendent
+ * de ce bean, aucun mouvement ne peut donc être appliqué avant la fin du scan
+ * Montants additionnés en unités mineures, toutes devises confondues (une seule devise aujourd'hui)
+ */
+@Service
+public class BankAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(BankAggregates.class);
+
+    private static final Comparator<TopBalances.Entry> BY_BALANCE =
+            Comparator.comparingLong(TopBalances.Entry::balance).thenComparingLong(TopBalances.Entry::accountId);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${bankmanagement.aggregates.topSize:20}")
+    private int topSize;
+
+    // Candidats suivis pour le classement : au-delà de topSize, marge avant un rechargement
+    @Value("${bankmanagement.aggregates.topCapacity:100}")
+    private int topCapacity;
+
+    @Value("${bankmanagement.aggregates.scanParallelism:4}")
+    private int scanParallelism;
+
+    // Somme des soldes positifs
+    private final LongAdder deposits = new LongAdder();
+    // Somme des soldes négatifs, en valeur absolue (découvert utilisé)
+    private final LongAdder overdrawn = new LongAdder();
+    // Somme des découverts autorisés des comptes courants
+    private final LongAdder overdraftLimits = new LongAdder();
+    private final LongAdder currentAccounts = new LongAdder();
+    private final LongAdder savingAccounts = new LongAdder();
+
+    private TopBalances topBalances;
+    private volatile LocalDateTime rebuiltAt;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        topBalances = new TopBalances(topSize, topCapacity);
+        rebuild();
+
+        Gauge.builder("bank.aggregate.deposits", deposits, LongAdder::sum)
+                .description("Somme des soldes positifs").baseUnit("cents").register(meterRegistry);
+        Gauge.builder("bank.aggregate.overdrawn", overdrawn, LongAdder::sum)
+                .description("Découvert utilisé, tous comptes").baseUnit("cents").register(meterRegistry);
+        Gauge.builder("bank.aggregate.overdraft.limits", overdraftLimits, LongAdder::sum)
+                .description("Découverts autorisés des comptes courants").baseUnit("cents").register(meterRegistry);
+        Gauge.builder("bank.aggregate.accounts", currentAccounts, LongAdder::sum)
+                .tag("type", "current").register(meterRegistry);
+        Gauge.builder("bank.aggregate.accounts", savingAccounts, LongAdder::sum)
+                .tag("type", "saving").register(meterRegistry);
+    }
+
+    /**
+     * Compte créé ; pris en compte au commit
+     */
+    public void accountOpened(BankAccount account) {
+        long accountId = account.getId();
+        long balance = account.getBalance();
+        long overdraftLimit = account instanceof CurrentAccount current ? current.getOverDraft() : 0;
+        boolean current = account instanceof CurrentAccount;
+        AfterCommit.run(() -> {
+            (current ? currentAccounts : savingAccounts).increment();
+            overdraftLimits.add(overdraftLimit);
+            balanceChanged(accountId, 0, balance);
+            refillIfNeeded();
+        });
+    }
+
+    /**
+     * Opérations persistées avec leur solde après opération ; prises en compte au commit
+     */
+    public void operationsApplied(Collection<AccountOperation> operations) {
+        long[] movements = new long[operations.size() * 3];
+        int count = 0;
+        for (AccountOperation operation : operations) {
+            if (operation.getBalanceAfter() == null) {
+                continue;
+            }
+            long after = operation.getBalanceAfter();
+            movements[count++] = operation.getBankAccount().getId();
+            movements[count++] = after - BalanceAfterBackfill.signedAmount(operation);
+            movements[count++] = after;
+        }
+        int length = count;
+        AfterCommit.run(() -> {
+            for (int i = 0; i < length; i += 3) {
+                balanceChanged(movements[i], movements[i + 1], movements[i + 2]);
+            }
+            refillIfNeeded();
+        });
+    }
+
+    public BankAggregatesDTO snapshot(int top) {
+        BankAggregatesDTO dto = new BankAggregatesDTO();
+        dto.setTotalDeposits(Money.ofMinor(deposits.sum()));
+        dto.setOverdrawn(Money.ofMinor(overdrawn.sum()));
+        dto.setOverdraftLimits(Money.ofMinor(overdraftLimits.sum()));
+        dto.setCurrentAccounts(currentAccounts.sum());
+        dto.setSavingAccounts(savingAccounts.sum());
+        List<AccountBalanceDTO> balances = new ArrayList<>();
+        for (TopBalances.Entry entry : topBalances.top(top)) {
+            AccountBalanceDTO balance = new AccountBalanceDTO();
+            balance.setAccountId(entry.accountId());
+            balance.setBalance(Money.ofMinor(entry.balance()));
+            balances.add(balance);
+        }
+        dto.setTopBalances(balances);
+        dto.setRebuiltAt(rebuiltAt);
+        return dto;
+    }
+
+    public int topSize() {
+        return topSize;
+    }
+
+    /**
+     * Relance le scan en arrière-plan ; false s'il est déjà en cours
+     * Hors démarrage, un mouvement validé pendant le scan peut être compté deux fois ou pas du tout :
+     * à réserver aux imports directs en base et aux contrôles d'écart
+     */
+    public boolean start() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                scanAndReset();
+            } catch (RuntimeException e) {
+                logger.error("Bank aggregates rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "bank-aggregates-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Scan synchrone (démarrage, harnais de charge après import direct) ; sans effet s'il est déjà en cours
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scanAndReset();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void scanAndReset() {
+        long start = System.currentTimeMillis();
+        ScanResult result = scan();
+        reset(deposits, result.deposits);
+        reset(overdrawn, result.overdrawn);
+        reset(overdraftLimits, result.overdraftLimits);
+        reset(currentAccounts, result.currentAccounts);
+        reset(savingAccounts, result.savingAccounts);
+        topBalances.reset(result.sortedTop(), result.accounts() <= topBalances.capacity());
+        rebuiltAt = LocalDateTime.now();
+        logger.info("Bank aggregates rebuilt from {} accounts in {} ms",
+                result.accounts(), System.currentTimeMillis() - start);
+    }
+
+    private void balanceChanged(long accountId, long before, long after) {
+        deposits.add(Math.max(after, 0) - Math.max(before, 0));
+        overdrawn.add(Math.max(-after, 0) - Math.max(-before, 0));
+        topBalances.update(accountId, after);
+    }
+
+    /**
+     * Classement appauvri par des baisses de soldes : relecture des plus grands soldes en arrière-plan
+     */
+    private void refillIfNeeded() {
+        if (!topBalances.needsRefill() || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                topBalances.refillStarted();
+                int capacity = topBalances.capacity();
+                List<TopBalances.Entry> top = new ArrayList<>(capacity);
+                for (Object[] row : bankAccountRepository.findLargestBalances(Limit.of(capacity))) {
+                    top.add(new TopBalances.Entry(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+                }
+                topBalances.refillCompleted(top, top.size() < capacity);
+            } catch (RuntimeException e) {
+                topBalances.refillFailed();
+                logger.warn("Top balances refill failed", e);
+            } finally {
+                refilling.set(false);
+            }
+        }, "top-balances-refill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Un scan par tranche d'identifiants, plusieurs tranches par thread pour lisser les écarts de taille
+     */
+    private ScanResult scan() {
+        Long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM bank_account",
+                (rs, i) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        ScanResult total = new ScanResult(topBalances.capacity());
+        if (bounds == null || bounds[0] == null) {
+            return total;
+        }
+        long min = bounds[0];
+        long max = bounds[1];
+        int ranges = Math.max(1, scanParallelism * 4);
+        long width = Math.max(1, (max - min) / ranges + 1);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(scanParallelism, r -> {
+            Thread thread = new Thread(r, "bank-aggregates-scan-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<ScanResult>> futures = new ArrayList<>(ranges);
+            for (long from = min; from <= max; from += width) {
+                long start = from;
+                long end = Math.min(max, from + width - 1);
+                futures.add(pool.submit(() -> scanRange(start, end)));
+                if (end == max) {
+                    break;
+                }
+            }
+            for (Future<ScanResult> future : futures) {
+                total.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bank aggregates scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bank aggregates scan failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return total;
+    }
+
+    private ScanResult scanRange(long from, long to) {
+        ScanResult result = new ScanResult(topBalances.capacity());
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT id, account_type, balance_minor, over_draft_minor "
+                    + "FROM bank_account WHERE id BETWEEN ? AND ?");
+            statement.setLong(1, from);
+            statement.setLong(2, to);
+            statement.setFetchSize(5000);
+            return statement;
+        }, rs -> {
+            result.add(rs.getLong(1), "CA".equals(rs.getString(2)), rs.getLong(3), rs.getLong(4));
+        });
+        return result;
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    /**
+     * Totaux d'une tranche ; le classement garde les capacity plus grands soldes (tas min borné)
+     */
+    private static final class ScanResult {
+
+        private final int capacity;
+        private final PriorityQueue<TopBalances.Entry> top;
+        private long accounts;
+        private long deposits;
+        private long overdrawn;
+        private long overdraftLimits;
+        private long currentAccounts;
+        private long savingAccounts;
+
+        ScanResult(int capacity) {
+            this.capacity = capacity;
+            this.top = new PriorityQueue<>(capacity + 1, BY_BALANCE);
+        }
+
+        void add(long accountId, boolean current, long balance, long overdraftLimit) {
+            accounts++;
+            deposits += Math.max(balance, 0);
+            overdrawn += Math.max(-balance, 0);
+            if (current) {
+                currentAccounts++;
+                overdraftLimits += overdraftLimit;
+            } else {
+                savingAccounts++;
+            }
+            offer(new TopBalances.Entry(accountId, balance));
+        }
+
+        void merge(ScanResult other) {
+            accounts += other.accounts;
+            deposits += other.deposits;
+            overdrawn += other.overdrawn;
+            overdraftLimits += other.overdraftLimits;
+            currentAccounts += other.currentAccounts;
+            savingAccounts += other.savingAccounts;
+            other.top.forEach(this::offer);
+        }
+
+        long accounts() {
+            return accounts;
+        }
+
+        List<TopBalances.Entry> sortedTop() {
+            List<TopBalances.Entry> sorted = new ArrayList<>(top);
+            sorted.sort(BY_BALANCE.reversed());
+            return sorted;
+        }
+
+        private void offer(TopBalances.Entry entry) {
+            top.add(entry);
+            if (top.size() > capacity) {
+                top.poll();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.TransferResultDTO;
+import com.example.securityjwt.exception.BankAccountNotFoundException;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compteurs métier des mouvements d'argent (exposés par /actuator/prometheus)
+ *   bank.movement.amount{type}           : nombre et somme des montants acceptés, en centimes
+ *   bank.movement.failures{type,reason}  : refus par motif
+ * Tags à cardinalité fixe : jamais d'identifiant de compte ni d'utilisateur
+ */
+@Component
+public class BankingMetrics {
+
+    public enum Movement {
+        DEBIT, CREDIT, TRANSFER, BATCH_TRANSFER;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final MeterRegistry registry;
+
+    // Créés une fois : pas de recherche dans le registre sur le chemin nominal
+    private final Map<Movement, DistributionSummary> amounts = new EnumMap<>(Movement.class);
+
+    public BankingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Movement movement : Movement.values()) {
+            amounts.put(movement, DistributionSummary.builder("bank.movement.amount")
+                    .description("Montants des mouvements acceptés")
+                    .baseUnit("cents")
+                    .tag("type", movement.tag())
+                    .register(registry));
+        }
+    }
+
+    public void accepted(Movement movement, long amountMinor) {
+        amounts.get(movement).record(amountMinor);
+    }
+
+    public void rejected(Movement movement, RuntimeException e) {
+        failures(movement, reason(e)).increment();
+    }
+
+    /**
+     * Lignes d'un lot de virements : chaque ligne est comptée comme un mouvement
+     */
+    public void batch(List<TransferResultDTO> results) {
+        for (TransferResultDTO result : results) {
+            if (result.isAccepted()) {
+                accepted(Movement.BATCH_TRANSFER, result.getAmount().minorUnits());
+            } else {
+                failures(Movement.BATCH_TRANSFER, "rejected").increment();
+            }
+        }
+    }
+
+    private Counter failures(Movement movement, String reason) {
+        return Counter.builder("bank.movement.failures")
+                .description("Mouvements refusés par motif")
+                .tag("type", movement.tag())
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static String reason(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return "insufficient_balance";
+        }
+        if (e instanceof BankAccountNotFoundException) {
+            return "account_not_found";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.Customer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé de trigrammes sur le nom, l'email et le téléphone des clients
+ * Remplace le LIKE %keyword% (parcours complet de la table) par une recherche en mémoire :
+ * préfixe, tolérance aux fautes de frappe et résultats classés par pertinence
+ */
+public class CustomerSearchIndex {
+
+    // Similarité minimale (part des trigrammes de la requête retrouvés) pour une recherche approchée
+    private static final double MIN_SIMILARITY = 0.5;
+
+    // Nombre maximal de clients évalués par recherche (borne le temps des requêtes peu sélectives)
+    private static final int MAX_CANDIDATES = 5_000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // trigramme -> identifiants des clients qui le contiennent
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // client -> ses trigrammes (pour la mise à jour) et ses mots normalisés (pour le bonus préfixe)
+    private final Map<Long, Set<String>> documentGrams = new ConcurrentHashMap<>();
+    private final Map<Long, String> documentWords = new ConcurrentHashMap<>();
+
+    /**
+     * Ajoute ou remplace un client dans l'index
+     */
+    public synchronized void index(Customer customer) {
+        remove(customer.getId());
+
+        List<String> words = new ArrayList<>();
+        words.addAll(tokenize(customer.getName()));
+        words.addAll(tokenize(customer.getEmail()));
+        if (customer.getPhone() != null) {
+            String digits = customer.getPhone().replaceAll("\\D", "");
+            if (!digits.isEmpty()) {
+                words.add(digits);
+            }
+        }
+
+        Set<String> grams = new HashSet<>();
+        for (String word : words) {
+            addGrams(word, true, grams);
+        }
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(customer.getId());
+        }
+        documentGrams.put(customer.getId(), grams);
+        documentWords.put(customer.getId(), " " + String.join(" ", words));
+    }
+
+    /**
+     * Retire un client de l'index
+     */
+    public synchronized void remove(Long customerId) {
+        Set<String> grams = documentGrams.remove(customerId);
+        documentWords.remove(customerId);
+        if (grams == null) {
+            return;
+        }
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(customerId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram, ids);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return documentGrams.size();
+    }
+
+    /**
+     * Identifiants des clients correspondant à la requête, du plus pertinent au moins pertinent
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Pas de bourrage final : "dup" doit trouver "dupont" (recherche par préfixe)
+        Set<String> queryGrams = new HashSet<>();
+        for (String word : queryWords) {
+            addGrams(word, false, queryGrams);
+        }
+
+        // Listes des trigrammes présents, de la plus rare à la plus fréquente
+        List<Set<Long>> lists = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && !ids.isEmpty()) {
+                lists.add(ids);
+            }
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        // Tous les trigrammes présents : intersection, partant de la liste la plus rare.
+        // Sinon (ou sans résultat), recherche approchée
+        Map<Long, Integer> hits = lists.size() == queryGrams.size()
+                ? matches(lists, lists.size())
+                : Collections.emptyMap();
+        if (hits.isEmpty()) {
+            hits = matches(lists, (int) Math.ceil(MIN_SIMILARITY * queryGrams.size()));
+        }
+
+        // Top-N par score, sans trier tous les candidats
+        PriorityQueue<Map.Entry<Long, Double>> best =
+                new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+        int gramCount = queryGrams.size();
+        for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+            double similarity = (double) hit.getValue() / gramCount;
+            if (similarity < MIN_SIMILARITY) {
+                continue;
+            }
+            double score = similarity + prefixBonus(hit.getKey(), queryWords);
+            best.offer(Map.entry(hit.getKey(), score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Clients contenant au moins "required" des listes (triées de la plus rare à la plus fréquente),
+     * avec leur nombre de trigrammes trouvés
+     * Un tel client figure forcément dans l'une des (lists.size() - required + 1) listes les plus rares :
+     * seules celles-ci fournissent des candidats, vérifiés ensuite sur les autres listes
+     */
+    private static Map<Long, Integer> matches(List<Set<Long>> lists, int required) {
+        int seeds = lists.size() - required + 1;
+        if (required <= 0 || seeds <= 0) {
+            return Collections.emptyMap();
+        }
+        Set<Long> candidates = new HashSet<>();
+        collect:
+        for (int i = 0; i < seeds; i++) {
+            for (Long id : lists.get(i)) {
+                candidates.add(id);
+                // Requête trop peu sélective : classement limité aux premiers candidats
+                if (candidates.size() >= MAX_CANDIDATES) {
+                    break collect;
+                }
+            }
+        }
+
+        Map<Long, Integer> hits = new HashMap<>();
+        for (Long id : candidates) {
+            int count = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                if (lists.get(i).contains(id)) {
+                    count++;
+                } else if (count + lists.size() - i - 1 < required) {
+                    break;
+                }
+            }
+            if (count >= required) {
+                hits.put(id, count);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Bonus pour chaque mot de la requête qui est le début exact d'un mot du client
+     */
+    private double prefixBonus(Long customerId, List<String> queryWords) {
+        String words = documentWords.get(customerId);
+        if (words == null) {
+            return 0;
+        }
+        double bonus = 0;
+        for (String word : queryWords) {
+            if (words.contains(" " + word)) {
+                bonus += 1.0 / queryWords.size();
+            }
+        }
+        return bonus;
+    }
+
+    /**
+     * Trigrammes d'un mot, bourré comme pg_trgm ("  mot ") pour que les mots courts
+     * et les débuts de mot soient indexés
+     */
+    private static void addGrams(String word, boolean padEnd, Set<String> grams) {
+        String padded = "  " + word + (padEnd ? " " : "");
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    static List<String> tokenize(String value) {
+        if (value == null || value.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.Customer;
+import com.example.securityjwt.repositories.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Recherche de clients
+ * Par défaut : index de trigrammes en mémoire, tenu à jour après chaque commit
+ * bankmanagement.search.mode=pg_trgm : délègue à PostgreSQL (extension pg_trgm + index GIN)
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchService.class);
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Value("${bankmanagement.search.mode:memory}")
+    private String mode;
+
+    private final CustomerSearchIndex index = new CustomerSearchIndex();
+
+    /**
+     * Construit l'index au démarrage en parcourant la table en flux
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (!isInMemory()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            customers.forEach(index::index);
+        }
+        logger.info("Customer search index built: {} customers in {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Clients correspondant au mot-clé, classés par pertinence
+     */
+    public List<Customer> search(String keyword, int limit) {
+        if (!isInMemory()) {
+            return customerRepository.searchByTrigram(keyword, limit);
+        }
+
+        List<Long> ids = index.search(keyword, limit);
+        Map<Long, Customer> byId = new HashMap<>();
+        for (Customer customer : customerRepository.findAllById(ids)) {
+            byId.put(customer.getId(), customer);
+        }
+        // Conserve l'ordre de pertinence de l'index
+        List<Customer> customers = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = byId.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * À appeler après création ou modification d'un client
+     * Appliqué au commit : une transaction annulée ne laisse rien dans l'index
+     */
+    public void onCustomerSaved(Customer customer) {
+        if (isInMemory()) {
+            AfterCommit.run(() -> index.index(customer));
+        }
+    }
+
+    public void onCustomerDeleted(Long customerId) {
+        if (isInMemory()) {
+            AfterCommit.run(() -> index.remove(customerId));
+        }
+    }
+
+    private boolean isInMemory() {
+        return !"pg_trgm".equalsIgnoreCase(mode);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountDailySummary;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.AccountDailySummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tient à jour account_daily_summary à partir des opérations insérées
+ * Appelé dans la transaction qui insère les opérations, après l'écriture du solde :
+ * la ligne du compte est alors verrouillée, deux mouvements du même compte ne peuvent pas
+ * créer chacun la ligne du jour. Un lot produit une seule écriture par compte et par jour
+ */
+@Service
+public class DailySummaryProjector {
+
+    @Autowired
+    AccountDailySummaryRepository summaryRepository;
+
+    public void project(Collection<AccountOperation> operations) {
+        Map<Key, Rollup> rollups = new LinkedHashMap<>();
+        for (AccountOperation operation : operations) {
+            LocalDateTime time = operation.getOperationTime() != null ? operation.getOperationTime() : LocalDateTime.now();
+            add(rollups, operation.getBankAccount().getId(), time, operation.getId(),
+                    operation.getOperationType(), operation.getAmount(), operation.getBalanceAfter());
+        }
+        for (Rollup rollup : rollups.values()) {
+            int updated = summaryRepository.addMovements(rollup.accountId, rollup.day, rollup.count,
+                    rollup.credits, rollup.debits, rollup.closingBalance, rollup.lastOperationId);
+            if (updated == 0) {
+                summaryRepository.save(rollup.toSummary());
+            }
+        }
+    }
+
+    static void add(Map<Key, Rollup> rollups, long accountId, LocalDateTime time, long operationId,
+                    OperationType type, long amount, Long balanceAfter) {
+        LocalDate day = time.toLocalDate();
+        rollups.computeIfAbsent(new Key(accountId, day), key -> new Rollup(accountId, day))
+                .add(operationId, type, amount, balanceAfter);
+    }
+
+    record Key(long accountId, LocalDate day) {
+    }
+
+    /**
+     * Cumul d'un compte sur une journée ; le solde de clôture est celui de l'opération
+     * d'identifiant le plus grand (les identifiants suivent l'ordre des inserts)
+     */
+    static final class Rollup {
+
+        private final long accountId;
+        private final LocalDate day;
+        private long count;
+        private long credits;
+        private long debits;
+        private Long closingBalance;
+        private long lastOperationId = Long.MIN_VALUE;
+
+        Rollup(long accountId, LocalDate day) {
+            this.accountId = accountId;
+            this.day = day;
+        }
+
+        void add(long operationId, OperationType type, long amount, Long balanceAfter) {
+            count++;
+            if (type == OperationType.CREDIT) {
+                credits += amount;
+            } else {
+                debits += amount;
+            }
+            if (operationId > lastOperationId) {
+                lastOperationId = operationId;
+                closingBalance = balanceAfter;
+            }
+        }
+
+        AccountDailySummary toSummary() {
+            AccountDailySummary summary = new AccountDailySummary();
+            summary.setAccountId(accountId);
+            summary.setDay(day);
+            summary.setOperationCount(count);
+            summary.setCredits(credits);
+            summary.setDebits(debits);
+            summary.setClosingBalance(closingBalance);
+            summary.setLastOperationId(lastOperationId);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.AccountDailySummaryRepository;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reconstruit account_daily_summary depuis l'historique (table et partitions archivées)
+ * Les comptes sont lus par lots d'identifiants croissants, chaque lot est une transaction traitée
+ * en parallèle : verrou des comptes du lot, suppression de leurs résumés, recalcul, inserts groupés
+ * Les mouvements des comptes du lot attendent la fin du lot ; ceux des autres comptes continuent
+ * et sont projetés normalement. Sans état : peut être interrompu et relancé à tout moment
+ * À relancer après BalanceAfterBackfill pour obtenir les soldes de clôture de l'historique ancien
+ */
+@Service
+public class DailySummaryRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailySummaryRebuildJob.class);
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    AccountOperationRepository accountOperationRepository;
+
+    @Autowired
+    AccountDailySummaryRepository summaryRepository;
+
+    @Autowired
+    OperationArchive operationArchive;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${bankmanagement.summary.rebuildParallelism:4}")
+    private int parallelism;
+
+    @Value("${bankmanagement.summary.rebuildChunkSize:200}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Lance la reconstruction en arrière-plan ; false si elle est déjà en cours
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Daily summary rebuild failed, restart it to complete", e);
+            } finally {
+                running.set(false);
+            }
+        }, "daily-summary-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicLong accounts = new AtomicLong();
+        AtomicLong days = new AtomicLong();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "daily-summary-rebuild-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Pagination des comptes pas plus en avance que les lots en cours
+        Semaphore pending = new Semaphore(parallelism * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            long afterId = Long.MIN_VALUE;
+            List<Long> accountIds;
+            do {
+                accountIds = bankAccountRepository.findIdsAfter(afterId, Limit.of(chunkSize));
+                if (accountIds.isEmpty()) {
+                    break;
+                }
+                afterId = accountIds.get(accountIds.size() - 1);
+                List<Long> chunk = accountIds;
+                pending.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        days.addAndGet(transactionTemplate.execute(status -> rebuildChunk(chunk)));
+                        accounts.addAndGet(chunk.size());
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            } while (accountIds.size() == chunkSize);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Daily summary rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Daily summary rebuild failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        logger.info("Daily summaries rebuilt: {} accounts, {} account-days in {} ms",
+                accounts.get(), days.get(), System.currentTimeMillis() - start);
+        return days.get();
+    }
+
+    private int rebuildChunk(List<Long> accountIds) {
+        // Mêmes verrous que les mouvements, dans l'ordre des identifiants : aucun mouvement
+        // des comptes du lot ne peut être projeté sur des résumés en cours de remplacement
+        bankAccountRepository.findAllForUpdate(accountIds);
+        summaryRepository.deleteByAccountIds(accountIds);
+
+        Map<DailySummaryProjector.Key, DailySummaryProjector.Rollup> rollups = new LinkedHashMap<>();
+        for (Long accountId : accountIds) {
+            for (AccountOperation operation : operationArchive.operations(accountId)) {
+                DailySummaryProjector.add(rollups, accountId, operation.getOperationTime(),
+                        operation.getId(), operation.getOperationType(), operation.getAmount(),
+                        operation.getBalanceAfter());
+            }
+        }
+        try (Stream<Object[]> rows = accountOperationRepository.streamForDailySummaries(accountIds)) {
+            rows.forEach(row -> {
+                LocalDateTime time = (LocalDateTime) row[1];
+                // Mois en cours d'archivage : déjà lu dans le segment
+                if (!operationArchive.isEmpty() && operationArchive.contains(YearMonth.from(time))) {
+                    return;
+                }
+                DailySummaryProjector.add(rollups, ((Number) row[0]).longValue(), time,
+                        ((Number) row[5]).longValue(), (OperationType) row[2], ((Number) row[3]).longValue(),
+                        row[4] == null ? null : ((Number) row[4]).longValue());
+            });
+        }
+
+        summaryRepository.saveAll(rollups.values().stream().map(DailySummaryProjector.Rollup::toSummary).toList());
+        return rollups.size();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.DailySummaryDTO;
+import com.example.securityjwt.entity.AccountDailySummary;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.exception.BankAccountNotFoundException;
+import com.example.securityjwt.exception.CustomerNotFoundException;
+import com.example.securityjwt.repositories.AccountDailySummaryRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résumés quotidiens par compte et par client, lus dans account_daily_summary uniquement
+ * (une ligne par jour actif, quel que soit le nombre d'opérations du jour)
+ */
+@Service
+@Transactional(readOnly = true)
+public class DailySummaryService {
+
+    @Autowired
+    AccountDailySummaryRepository summaryRepository;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    public List<DailySummaryDTO> accountSummaries(Long accountId, LocalDate from, LocalDate to) {
+        if (!bankAccountRepository.existsById(accountId)) {
+            throw new BankAccountNotFoundException("Account not found");
+        }
+        List<DailySummaryDTO> summaries = new ArrayList<>();
+        for (AccountDailySummary summary : summaryRepository.findByAccountIdAndDayBetweenOrderByDay(accountId, from, to)) {
+            DailySummaryDTO dto = summary(summary.getDay(), summary.getOperationCount(),
+                    summary.getCredits(), summary.getDebits());
+            if (summary.getClosingBalance() != null) {
+                dto.setClosingBalance(Money.ofMinor(summary.getClosingBalance()));
+            }
+            summaries.add(dto);
+        }
+        return summaries;
+    }
+
+    public List<DailySummaryDTO> customerSummaries(Long customerId, LocalDate from, LocalDate to) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new CustomerNotFoundException("Customer not found");
+        }
+        List<DailySummaryDTO> summaries = new ArrayList<>();
+        for (Object[] row : summaryRepository.sumByCustomerAndDay(customerId, from, to)) {
+            summaries.add(summary((LocalDate) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue()));
+        }
+        return summaries;
+    }
+
+    private static DailySummaryDTO summary(LocalDate day, long count, long credits, long debits) {
+        DailySummaryDTO dto = new DailySummaryDTO();
+        dto.setDate(day);
+        dto.setOperationCount(count);
+        dto.setCredits(Money.ofMinor(credits));
+        dto.setDebits(Money.ofMinor(debits));
+        return dto;
+    }
+}
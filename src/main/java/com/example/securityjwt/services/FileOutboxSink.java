@@ -0,0 +1,79 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Événements ajoutés en JSON, une ligne par événement, dans un fichier par jour
+ * (operations-AAAA-MM-JJ.jsonl) ; le lot est forcé sur disque avant d'être retiré de l'outbox
+ */
+@Component
+@ConditionalOnProperty(name = "bankmanagement.outbox.file.enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${bankmanagement.outbox.file.dir:./outbox-events}")
+    private String dir;
+
+    private LocalDate day;
+    private FileChannel channel;
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void deliver(List<OperationEventDTO> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        for (OperationEventDTO event : events) {
+            objectMapper.writeValue(lines, event);
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        FileChannel file = channel();
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+        file.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel == null || !today.equals(day)) {
+            close();
+            Path directory = Paths.get(dir);
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve("operations-" + today + ".jsonl"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            day = today;
+        }
+        return channel;
+    }
+}
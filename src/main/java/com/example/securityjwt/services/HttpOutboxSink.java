@@ -0,0 +1,61 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lot envoyé en un POST (tableau JSON) à un service local ; toute réponse hors 2xx fait relivrer le lot
+ */
+@Component
+@ConditionalOnProperty(name = "bankmanagement.outbox.http.url")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Duration timeout;
+
+    public HttpOutboxSink(ObjectMapper objectMapper,
+                          @Value("${bankmanagement.outbox.http.url}") String url,
+                          @Value("${bankmanagement.outbox.http.timeoutMs:5000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OperationEventDTO> events) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Outbox delivery to " + uri + " interrupted", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox delivery to " + uri + " failed with status " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.entity.IdempotencyRecord;
+import com.example.securityjwt.exception.IdempotencyKeyConflictException;
+import com.example.securityjwt.exception.IdempotencyKeyReusedException;
+import com.example.securityjwt.exception.MovementOutcomeUnknownException;
+import com.example.securityjwt.repositories.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Clés d'idempotence des mouvements d'argent (en-tête Idempotency-Key)
+ * La première requête d'une clé est exécutée et sa réponse est mémorisée ; les répétitions
+ * reçoivent la même réponse sans réexécuter le mouvement ni relire les comptes
+ * Deux requêtes simultanées avec la même clé n'exécutent le mouvement qu'une fois :
+ * la seconde attend le résultat de la première
+ * Les clés sont propres à chaque utilisateur. Une clé réutilisée avec un autre contenu est refusée
+ * Avec bankmanagement.idempotency.store=database, les réponses sont aussi écrites dans
+ * la table idempotency_key pour être partagées entre les instances
+ * Le mouvement et sa réponse sont validés dans la même transaction : une clé n'est jamais libérée
+ * après un mouvement validé, et une réservation sans réponse correspond à un mouvement annulé
+ * (arrêt brutal) qu'une répétition reprend après leaseSeconds
+ * Un mouvement dont le résultat n'est pas encore connu (moteur en mémoire, délai dépassé) garde
+ * sa clé réservée : sa réponse est enregistrée quand il est journalisé, la clé oubliée s'il est refusé
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // memory (une instance) ou database (plusieurs instances)
+    @Value("${bankmanagement.idempotency.store:memory}")
+    private String store;
+
+    @Value("${bankmanagement.idempotency.maximumSize:100000}")
+    private long maximumSize;
+
+    @Value("${bankmanagement.idempotency.ttlSeconds:86400}")
+    private long ttlSeconds;
+
+    // Attente maximale d'une requête identique encore en cours avant de répondre 409
+    @Value("${bankmanagement.idempotency.waitTimeoutMs:30000}")
+    private long waitTimeoutMs;
+
+    // Réservation sans réponse plus ancienne : requête abandonnée, reprise par une répétition
+    @Value("${bankmanagement.idempotency.leaseSeconds:120}")
+    private long leaseSeconds;
+
+    // Le moteur en mémoire n'applique pas les mouvements dans la transaction : une réservation
+    // sans réponse peut y correspondre à un mouvement journalisé, elle n'est jamais reprise
+    @Value("${bankmanagement.ledger.mode:jpa}")
+    private String ledgerMode;
+
+    /**
+     * Réponse mémorisée : statut HTTP et corps JSON déjà sérialisé
+     */
+    public record StoredResponse(int status, String body) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    // committed : mouvement et réponse validés ensemble ; sinon transaction annulée, aucun mouvement
+    private record Outcome(ResponseEntity<?> response, StoredResponse stored, boolean committed) {
+    }
+
+    // Caffeine est segmenté en interne : pas de verrou global entre des clés différentes
+    private Cache<String, Entry> entries;
+
+    private TransactionTemplate requiresNew;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Exécute action une seule fois par clé ; sans clé, la requête est exécutée normalement
+     * operation et request servent d'empreinte : la même clé avec un autre contenu est refusée (422)
+     * Les réponses 5xx et les exceptions ne sont pas mémorisées (transaction annulée), le client peut réessayer
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Idempotency-Key trop longue (" + MAX_KEY_LENGTH + " caractères maximum)"));
+        }
+
+        String storeKey = currentUser() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(operation, request);
+
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            return awaitExisting(existing, fingerprint);
+        }
+
+        LocalDateTime reservedAt = null;
+        try {
+            if (isDatabaseStore()) {
+                Reservation reservation = reserveInDatabase(storeKey, fingerprint);
+                if (reservation.stored() != null) {
+                    // Déjà exécutée par une autre instance
+                    entry.response().complete(reservation.stored());
+                    return replay(reservation.stored());
+                }
+                reservedAt = reservation.reservedAt();
+            }
+
+            Outcome outcome = executeWithResponse(storeKey, reservedAt, action);
+            if (!outcome.committed()) {
+                if (outcome.response().getStatusCode().is5xxServerError()) {
+                    forget(storeKey, entry, reservedAt);
+                    entry.response().complete(outcome.stored());
+                    return outcome.response();
+                }
+                // Refus métier : aucun mouvement, la réponse est enregistrée à part
+                if (reservedAt != null) {
+                    completeInDatabase(storeKey, reservedAt, outcome.stored());
+                }
+            }
+            entry.response().complete(outcome.stored());
+            return outcome.response();
+        } catch (MovementOutcomeUnknownException e) {
+            // Le mouvement peut encore être appliqué : la clé reste réservée jusqu'à son résultat
+            LocalDateTime reservation = reservedAt;
+            e.getOutcome().whenCompleteAsync((body, failure) ->
+                    resolvePending(storeKey, entry, reservation, body, failure));
+            throw e;
+        } catch (RuntimeException e) {
+            // Transaction annulée : aucun mouvement validé, la clé peut être réutilisée
+            forget(storeKey, entry, reservedAt);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Exécute l'action dans une transaction (les services de mouvement y participent) et y enregistre
+     * la réponse : le mouvement n'est validé qu'avec elle
+     * Une action dont la transaction est marquée pour annulation (refus levé par un service
+     * transactionnel) ou qui répond 5xx est annulée sans erreur de validation
+     */
+    private Outcome executeWithResponse(String storeKey, LocalDateTime reservedAt,
+                                        Supplier<ResponseEntity<?>> action) {
+        return transactionTemplate.execute(status -> {
+            ResponseEntity<?> response = action.get();
+            StoredResponse stored = new StoredResponse(response.getStatusCode().value(), toJson(response.getBody()));
+            if (status.isRollbackOnly() || response.getStatusCode().is5xxServerError()) {
+                status.setRollbackOnly();
+                return new Outcome(response, stored, false);
+            }
+            if (reservedAt != null && idempotencyRecordRepository.complete(storeKey, reservedAt, stored.status(),
+                    stored.body(), LocalDateTime.now().plusSeconds(ttlSeconds)) == 0) {
+                // Réservation reprise par une autre requête : ce mouvement est annulé
+                throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+            }
+            return new Outcome(response, stored, true);
+        });
+    }
+
+    /**
+     * Purge des réponses expirées de la table idempotency_key (mode database)
+     */
+    @Scheduled(fixedDelayString = "${bankmanagement.idempotency.cleanupIntervalMs:600000}")
+    public void purgeExpired() {
+        if (!isDatabaseStore()) {
+            return;
+        }
+        Integer deleted = requiresNew.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            logger.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private ResponseEntity<?> awaitExisting(Entry existing, String fingerprint) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key déjà utilisée pour une autre requête");
+        }
+        try {
+            return replay(existing.response().get(waitTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+        } catch (ExecutionException e) {
+            // La requête d'origine a échoué sans réponse mémorisée : même erreur pour les doublons
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+        }
+    }
+
+    /**
+     * Réservation en base : réponse déjà enregistrée par une autre instance, ou date de réservation
+     * (identifie la réservation de cette requête pour l'enregistrement de la réponse)
+     */
+    private record Reservation(StoredResponse stored, LocalDateTime reservedAt) {
+    }
+
+    private Reservation reserveInDatabase(String storeKey, String fingerprint) {
+        // Précision de la colonne : la date sert de jeton de réservation dans les UPDATE conditionnels
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(storeKey);
+        if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+            IdempotencyRecord record = existing.get();
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key déjà utilisée pour une autre requête");
+            }
+            if (record.getStatus() != null) {
+                return new Reservation(new StoredResponse(record.getStatus(), record.getResponseBody()), null);
+            }
+            if (!canTakeOver(record, now)) {
+                throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+            }
+            // Requête abandonnée sans mouvement validé : reprise de la réservation
+            Integer taken = requiresNew.execute(status -> idempotencyRecordRepository.takeOver(storeKey,
+                    record.getCreatedAt(), now, now.plusSeconds(ttlSeconds)));
+            if (taken == null || taken == 0) {
+                throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+            }
+            return new Reservation(null, now);
+        }
+
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                existing.ifPresent(expired -> idempotencyRecordRepository.delete(expired));
+                idempotencyRecordRepository.flush();
+                idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(storeKey, fingerprint, null, null,
+                        now, now.plusSeconds(ttlSeconds)));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Réservée entre-temps par une autre instance
+            throw new IdempotencyKeyConflictException("Une requête avec cette Idempotency-Key est encore en cours");
+        }
+        return new Reservation(null, now);
+    }
+
+    private boolean canTakeOver(IdempotencyRecord record, LocalDateTime now) {
+        return !"memory".equalsIgnoreCase(ledgerMode)
+                && record.getCreatedAt().plusSeconds(leaseSeconds).isBefore(now);
+    }
+
+    /**
+     * Réponse d'un refus (aucun mouvement) ; en cas d'échec la réservation est libérée
+     */
+    private void completeInDatabase(String storeKey, LocalDateTime reservedAt, StoredResponse stored) {
+        requiresNew.executeWithoutResult(status -> idempotencyRecordRepository.complete(storeKey, reservedAt,
+                stored.status(), stored.body(), LocalDateTime.now().plusSeconds(ttlSeconds)));
+    }
+
+    /**
+     * Résultat d'un mouvement resté en attente : réponse enregistrée s'il a été appliqué,
+     * clé oubliée sinon (refusé ou non journalisé, une nouvelle tentative est exécutée)
+     */
+    private void resolvePending(String storeKey, Entry entry, LocalDateTime reservedAt, Object body, Throwable failure) {
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            forget(storeKey, entry, reservedAt);
+            entry.response().completeExceptionally(cause);
+            return;
+        }
+        StoredResponse stored = new StoredResponse(HttpStatus.OK.value(),
+                toJson(body != null ? body : new MessageResponse("Mouvement effectué")));
+        if (reservedAt != null) {
+            try {
+                completeInDatabase(storeKey, reservedAt, stored);
+            } catch (RuntimeException e) {
+                // La réservation reste en place : jamais reprise avec le moteur en mémoire
+                logger.error("Could not store the response of pending idempotency key {}", storeKey, e);
+            }
+        }
+        entry.response().complete(stored);
+    }
+
+    /**
+     * Oublie une clé dont la requête n'a rien validé, pour qu'une nouvelle tentative soit exécutée
+     * Seule la réservation de cette requête est supprimée, jamais une réponse enregistrée
+     */
+    private void forget(String storeKey, Entry entry, LocalDateTime reservedAt) {
+        entries.asMap().remove(storeKey, entry);
+        if (reservedAt != null) {
+            try {
+                requiresNew.executeWithoutResult(status -> idempotencyRecordRepository.release(storeKey, reservedAt));
+            } catch (RuntimeException e) {
+                // La réservation sera reprise après leaseSeconds
+                logger.warn("Could not release idempotency key {}", storeKey, e);
+            }
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored) {
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    private boolean isDatabaseStore() {
+        return "database".equalsIgnoreCase(store);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.TransferDTO;
+import com.example.securityjwt.dtos.TransferResultDTO;
+import com.example.securityjwt.entity.LedgerCheckpoint;
+import com.example.securityjwt.exception.BankAccountNotFoundException;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import com.example.securityjwt.exception.MovementOutcomeUnknownException;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.LedgerCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moteur de soldes en mémoire (bankmanagement.ledger.mode=memory)
+ * Les comptes sont répartis en partitions ; chaque partition a un seul thread qui décide et
+ * applique les mouvements de ses comptes, sans verrou. Un mouvement n'est acquitté qu'une fois
+ * écrit et synchronisé dans le journal ; la base est alimentée ensuite, par lots, en arrière-plan
+ * Au démarrage : dernier instantané + rejeu du journal, puis reprise de la persistance
+ * à partir du point de reprise enregistré en base
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "bankmanagement.ledger.mode", havingValue = "memory")
+public class InMemoryBalanceEngine implements BalanceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryBalanceEngine.class);
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    AccountOperationRepository accountOperationRepository;
+
+    @Autowired
+    LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    DailySummaryProjector dailySummaryProjector;
+
+    @Autowired
+    BankAggregates bankAggregates;
+
+    @Autowired
+    OperationOutbox operationOutbox;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${bankmanagement.ledger.dataDir:./ledger-data}")
+    private String dataDir;
+
+    @Value("${bankmanagement.ledger.shards:4}")
+    private int shardCount;
+
+    @Value("${bankmanagement.ledger.ringCapacity:65536}")
+    private int ringCapacity;
+
+    @Value("${bankmanagement.ledger.segmentMaxBytes:67108864}")
+    private long segmentMaxBytes;
+
+    @Value("${bankmanagement.ledger.snapshotIntervalSeconds:300}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${bankmanagement.ledger.writerBatchSize:500}")
+    private int writerBatchSize;
+
+    @Value("${bankmanagement.ledger.commandTimeoutMs:5000}")
+    private long commandTimeoutMs;
+
+    private Path directory;
+    private BalanceShard[] shards;
+    private BalanceJournal journal;
+    private OperationWriter writer;
+    private ScheduledExecutorService snapshotScheduler;
+
+    @PostConstruct
+    public void start() throws IOException {
+        long start = System.currentTimeMillis();
+        directory = Paths.get(dataDir);
+        Files.createDirectories(directory);
+
+        long persistedSequence = checkpointRepository.findById(OperationWriter.CHECKPOINT)
+                .map(LedgerCheckpoint::getLastSequence)
+                .orElse(0L);
+        writer = new OperationWriter(new TransactionTemplate(transactionManager), bankAccountRepository,
+                accountOperationRepository, checkpointRepository, dailySummaryProjector, bankAggregates, operationOutbox,
+                writerBatchSize, persistedSequence);
+
+        // Instantané puis rejeu ; ce qui n'est pas encore en base est renvoyé au writer
+        BalanceSnapshots.Recovery recovery = BalanceSnapshots.recover(directory, persistedSequence);
+        Map<Long, Long> balances = recovery.balances();
+        recovery.unpersisted().forEach(writer::enqueue);
+
+        journal = new BalanceJournal(directory, Math.max(recovery.lastSequence(), persistedSequence) + 1,
+                segmentMaxBytes);
+
+        // Comptes présents en base mais inconnus du journal (premier démarrage, comptes existants)
+        List<CompletableFuture<LedgerRecord>> opened = new ArrayList<>();
+        for (Object[] row : bankAccountRepository.findAllBalances()) {
+            Long accountId = ((Number) row[0]).longValue();
+            if (!balances.containsKey(accountId)) {
+                long balance = ((Number) row[1]).longValue();
+                balances.put(accountId, balance);
+                opened.add(journal.append(LedgerRecord.of(LedgerRecord.Type.OPEN, accountId, null,
+                        balance, null, null)));
+            }
+        }
+        for (CompletableFuture<LedgerRecord> future : opened) {
+            writer.enqueue(future.join());
+        }
+
+        shards = new BalanceShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new BalanceShard(i, ringCapacity);
+        }
+        balances.forEach((accountId, balance) -> shardFor(accountId).load(accountId, balance));
+        for (BalanceShard shard : shards) {
+            shard.start();
+        }
+        writer.start();
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "balance-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::compact,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+
+        logger.info("In-memory balance engine started: {} accounts, {} records replayed, {} accounts opened in {} ms",
+                balances.size(), recovery.replayed(), opened.size(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        snapshotScheduler.shutdownNow();
+        for (BalanceShard shard : shards) {
+            shard.stop();
+        }
+        journal.close();
+        writer.stop();
+    }
+
+    @Override
+    public void debit(Long accountId, long amount, String description, String performedBy) {
+        await(debitAsync(accountId, amount, description, performedBy));
+    }
+
+    @Override
+    public void credit(Long accountId, long amount, String description, String performedBy) {
+        await(creditAsync(accountId, amount, description, performedBy));
+    }
+
+    @Override
+    public void transfer(Long accountIdSource, Long accountIdDestination, long amount, String performedBy) {
+        if (accountIdSource.equals(accountIdDestination)) {
+            throw new IllegalArgumentException("Source and destination accounts must be different");
+        }
+        await(transferAsync(accountIdSource, accountIdDestination, amount, performedBy));
+    }
+
+    /**
+     * Les virements sont soumis d'un coup puis attendus : le journal les valide par groupes
+     * L'ordre des lignes est respecté pour un même compte source ; un crédit reçu d'une ligne
+     * précédente sur une autre partition peut ne pas encore être visible
+     */
+    @Override
+    public List<TransferResultDTO> transferBatch(List<TransferDTO> transfers, String performedBy) {
+        List<CompletableFuture<LedgerRecord>> futures = new ArrayList<>(transfers.size());
+        for (TransferDTO transfer : transfers) {
+            if (transfer.getAccountSource().equals(transfer.getAccountDestination())) {
+                futures.add(CompletableFuture.failedFuture(
+                        new IllegalArgumentException("Source and destination accounts must be different")));
+            } else if (!transfer.getAmount().isPositive()) {
+                futures.add(CompletableFuture.failedFuture(new IllegalArgumentException("Amount must be positive")));
+            } else {
+                futures.add(transferAsync(transfer.getAccountSource(), transfer.getAccountDestination(),
+                        transfer.getAmount().minorUnits(), performedBy));
+            }
+        }
+
+        // Chaque ligne se termine (acceptée ou refusée) : le lot est attendu d'un bloc
+        CompletableFuture<?>[] lines = new CompletableFuture<?>[transfers.size()];
+        for (int line = 0; line < transfers.size(); line++) {
+            lines[line] = futures.get(line).handle((record, failure) -> null);
+        }
+        CompletableFuture<Object> outcome = CompletableFuture.allOf(lines).thenApply(done -> {
+            List<TransferResultDTO> results = new ArrayList<>(transfers.size());
+            for (int line = 0; line < transfers.size(); line++) {
+                TransferDTO transfer = transfers.get(line);
+                String rejection = futures.get(line)
+                        .handle((record, failure) -> failure == null ? null : failure.getMessage()).join();
+                results.add(new TransferResultDTO(line, transfer.getAccountSource(), transfer.getAccountDestination(),
+                        transfer.getAmount(), rejection == null, rejection));
+            }
+            return results;
+        });
+        @SuppressWarnings("unchecked")
+        List<TransferResultDTO> results = (List<TransferResultDTO>) awaitOutcome(outcome);
+        return results;
+    }
+
+    /**
+     * Le solde initial est journalisé avant que le compte n'accepte des mouvements
+     */
+    @Override
+    public void accountOpened(Long accountId, long initialBalance) {
+        BalanceShard shard = shardFor(accountId);
+        shard.submit(() -> {
+            if (shard.balance(accountId) == null) {
+                journal.append(LedgerRecord.of(LedgerRecord.Type.OPEN, accountId, null,
+                        initialBalance, null, null), (record, failure) -> {
+                    if (failure == null) {
+                        writer.enqueue(record);
+                    }
+                });
+                shard.load(accountId, initialBalance);
+            }
+        });
+    }
+
+    @Override
+    public OptionalLong currentBalance(Long accountId) {
+        BalanceShard.Balance balance = shardFor(accountId).balance(accountId);
+        return balance == null ? OptionalLong.empty() : OptionalLong.of(balance.value);
+    }
+
+    /**
+     * Le débit est appliqué tout de suite sur le thread de la partition (les commandes suivantes
+     * voient le solde réduit), puis annulé si le journal échoue
+     */
+    private CompletableFuture<LedgerRecord> debitAsync(Long accountId, long amount,
+                                                       String description, String performedBy) {
+        CompletableFuture<LedgerRecord> result = new CompletableFuture<>();
+        BalanceShard shard = shardFor(accountId);
+        shard.submit(() -> {
+            BalanceShard.Balance balance = shard.balance(accountId);
+            if (balance == null) {
+                result.completeExceptionally(new BankAccountNotFoundException("Account not found"));
+                return;
+            }
+            if (balance.value < amount) {
+                result.completeExceptionally(new InsufficientBalanceException("Balance not sufficient"));
+                return;
+            }
+            balance.value -= amount;
+            journal.append(LedgerRecord.of(LedgerRecord.Type.DEBIT, accountId, null, amount, description, performedBy),
+                    (record, failure) -> {
+                        if (failure != null) {
+                            shard.submit(() -> balance.value += amount);
+                            result.completeExceptionally(failure);
+                            return;
+                        }
+                        writer.enqueue(record);
+                        result.complete(record);
+                    });
+        });
+        return result;
+    }
+
+    /**
+     * Le crédit n'est appliqué qu'une fois journalisé : aucun débit ne peut s'appuyer
+     * sur un montant qui serait perdu au redémarrage
+     */
+    private CompletableFuture<LedgerRecord> creditAsync(Long accountId, long amount,
+                                                        String description, String performedBy) {
+        CompletableFuture<LedgerRecord> result = new CompletableFuture<>();
+        BalanceShard shard = shardFor(accountId);
+        shard.submit(() -> {
+            BalanceShard.Balance balance = shard.balance(accountId);
+            if (balance == null) {
+                result.completeExceptionally(new BankAccountNotFoundException("Account not found"));
+                return;
+            }
+            journal.append(LedgerRecord.of(LedgerRecord.Type.CREDIT, accountId, null, amount, description, performedBy),
+                    (record, failure) -> {
+                        if (failure != null) {
+                            result.completeExceptionally(failure);
+                            return;
+                        }
+                        shard.submit(() -> balance.value += amount);
+                        writer.enqueue(record);
+                        result.complete(record);
+                    });
+        });
+        return result;
+    }
+
+    /**
+     * Débit sur la partition source, une seule entrée de journal pour les deux jambes,
+     * puis crédit sur la partition destination une fois l'entrée sur disque
+     */
+    private CompletableFuture<LedgerRecord> transferAsync(Long accountIdSource, Long accountIdDestination,
+                                                          long amount, String performedBy) {
+        CompletableFuture<LedgerRecord> result = new CompletableFuture<>();
+        BalanceShard source = shardFor(accountIdSource);
+        BalanceShard destination = shardFor(accountIdDestination);
+        source.submit(() -> {
+            BalanceShard.Balance debited = source.balance(accountIdSource);
+            // Les comptes ne sont jamais retirés du moteur : la lecture hors partition suffit
+            BalanceShard.Balance credited = destination.balance(accountIdDestination);
+            if (debited == null || credited == null) {
+                result.completeExceptionally(new BankAccountNotFoundException("Account not found"));
+                return;
+            }
+            if (debited.value < amount) {
+                result.completeExceptionally(new InsufficientBalanceException("Balance not sufficient"));
+                return;
+            }
+            debited.value -= amount;
+            journal.append(LedgerRecord.of(LedgerRecord.Type.TRANSFER, accountIdSource, accountIdDestination,
+                            amount, null, performedBy),
+                    (record, failure) -> {
+                        if (failure != null) {
+                            source.submit(() -> debited.value += amount);
+                            result.completeExceptionally(failure);
+                            return;
+                        }
+                        destination.submit(() -> credited.value += amount);
+                        writer.enqueue(record);
+                        result.complete(record);
+                    });
+        });
+        return result;
+    }
+
+    private BalanceShard shardFor(Long accountId) {
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    private void await(CompletableFuture<LedgerRecord> future) {
+        awaitOutcome(future.thenApply(record -> null));
+    }
+
+    /**
+     * Après commandTimeoutMs la commande peut encore être journalisée puis appliquée : le résultat
+     * est inconnu, pas un échec (une répétition ne doit pas la rejouer)
+     */
+    private Object awaitOutcome(CompletableFuture<Object> outcome) {
+        try {
+            return outcome.get(commandTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Balance command failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new MovementOutcomeUnknownException("Mouvement en cours de traitement, "
+                    + "répéter la requête avec la même Idempotency-Key pour obtenir son résultat", outcome, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MovementOutcomeUnknownException("Mouvement en cours de traitement", outcome, e);
+        }
+    }
+
+    private void compact() {
+        try {
+            BalanceSnapshots.compact(directory, journal.activeSegment(), writer.persistedSequence());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Balance snapshot failed", e);
+        }
+    }
+}
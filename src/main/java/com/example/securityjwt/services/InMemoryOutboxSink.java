@@ -0,0 +1,36 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Événements conservés en mémoire, dans l'ordre de livraison (tests)
+ */
+@Component
+@ConditionalOnProperty(name = "bankmanagement.outbox.memory.enabled", havingValue = "true")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OperationEventDTO> events = new ArrayList<>();
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void deliver(List<OperationEventDTO> events) {
+        this.events.addAll(events);
+    }
+
+    public synchronized List<OperationEventDTO> events() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
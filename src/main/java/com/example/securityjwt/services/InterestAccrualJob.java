@@ -0,0 +1,285 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.InterestAccrualReportDTO;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.LedgerCheckpoint;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.entity.SnowflakeIds;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.LedgerCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcul quotidien des intérêts des comptes épargne
+ * Les comptes sont découpés en tranches d'identifiants, une par période de création de
+ * partitionDays jours (identifiants ordonnés dans le temps), traitées en parallèle
+ * Chaque lot est une transaction courte : lecture sans verrou, UPDATE relatifs, inserts groupés
+ * des opérations et avancement du point de reprise de la tranche. Les lignes ne restent
+ * verrouillées que le temps d'un lot, les débits/crédits de la journée ne sont pas bloqués
+ * Relancé pour la même date après un arrêt, le traitement reprend où il s'était arrêté
+ * sans créditer deux fois un compte
+ * Uniquement avec le moteur JPA : en mode memory les soldes de référence ne sont pas en base
+ */
+@Service
+@ConditionalOnProperty(name = "bankmanagement.ledger.mode", havingValue = "jpa", matchIfMissing = true)
+public class InterestAccrualJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualJob.class);
+
+    private static final String PERFORMED_BY = "interest-accrual";
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    AccountOperationRepository accountOperationRepository;
+
+    @Autowired
+    LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    DailySummaryProjector dailySummaryProjector;
+
+    @Autowired
+    BankAggregates bankAggregates;
+
+    @Autowired
+    OperationOutbox operationOutbox;
+
+    @Autowired
+    ReadCacheInvalidator readCacheInvalidator;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    // Largeur d'une tranche en jours de création : fixe, pour qu'une reprise retrouve les mêmes tranches
+    // (les identifiants antérieurs aux identifiants Snowflake tombent tous dans la première)
+    @Value("${bankmanagement.interest.partitionDays:30}")
+    private int partitionDays;
+
+    @Value("${bankmanagement.interest.parallelism:4}")
+    private int parallelism;
+
+    @Value("${bankmanagement.interest.chunkSize:500}")
+    private int chunkSize;
+
+    // Base annuelle : intérêt du jour = solde * taux / 100 / dayCount (taux en pourcentage)
+    @Value("${bankmanagement.interest.dayCount:365}")
+    private int dayCount;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile InterestAccrualReportDTO lastReport;
+
+    /**
+     * Déclenchement nocturne (bankmanagement.interest.cron, désactivé par défaut)
+     * Les intérêts de la veille sont calculés sur les soldes au moment du passage
+     */
+    @Scheduled(cron = "${bankmanagement.interest.cron:-}")
+    public void nightlyAccrual() {
+        start(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Lance le calcul en arrière-plan ; false s'il est déjà en cours
+     */
+    public boolean start(LocalDate accrualDate) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                accrue(accrualDate);
+            } catch (RuntimeException e) {
+                logger.error("Interest accrual for {} failed, restart it to resume", accrualDate, e);
+            } finally {
+                running.set(false);
+            }
+        }, "interest-accrual");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public InterestAccrualReportDTO lastReport() {
+        return lastReport;
+    }
+
+    public InterestAccrualReportDTO accrue(LocalDate accrualDate) {
+        long start = System.currentTimeMillis();
+        Long maxId = bankAccountRepository.findMaxSavingAccountId();
+        int partitions = maxId == null ? 0
+                : (int) (Duration.between(Instant.ofEpochMilli(SnowflakeIds.EPOCH), SnowflakeIds.timestampOf(maxId))
+                .toDays() / partitionDays) + 1;
+
+        AtomicLong accounts = new AtomicLong();
+        AtomicLong credited = new AtomicLong();
+        AtomicLong totalInterest = new AtomicLong();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "interest-accrual-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(partitions);
+            for (int partition = 0; partition < partitions; partition++) {
+                int current = partition;
+                futures.add(pool.submit(() ->
+                        accruePartition(accrualDate, current, accounts, credited, totalInterest)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interest accrual interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Interest accrual failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+        InterestAccrualReportDTO report = new InterestAccrualReportDTO();
+        report.setAccrualDate(accrualDate);
+        report.setPartitions(partitions);
+        report.setAccounts(accounts.get());
+        report.setCredited(credited.get());
+        report.setTotalInterest(Money.ofMinor(totalInterest.get()));
+        report.setElapsedMs(elapsedMs);
+        report.setAccountsPerSecond(accounts.get() * 1000.0 / elapsedMs);
+        lastReport = report;
+        logger.info("Interest accrual for {}: {} accounts ({} credited, {} total) in {} ms, {} accounts/s",
+                accrualDate, report.getAccounts(), report.getCredited(), report.getTotalInterest(),
+                elapsedMs, Math.round(report.getAccountsPerSecond()));
+        return report;
+    }
+
+    private void accruePartition(LocalDate accrualDate, int partition,
+                                 AtomicLong accounts, AtomicLong credited, AtomicLong totalInterest) {
+        String checkpointName = "interest:" + accrualDate + ":" + partition;
+        long firstId = partitionStart(partition);
+        long endId = partitionStart(partition + 1);
+        long lastId = checkpointRepository.findById(checkpointName)
+                .map(LedgerCheckpoint::getLastSequence)
+                .orElse(firstId - 1);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        while (lastId < endId - 1) {
+            long afterId = lastId;
+            ChunkResult chunk = transactionTemplate.execute(status ->
+                    accrueChunk(accrualDate, checkpointName, afterId, endId));
+            // Tranches vides ou sans intérêt : rien à invalider
+            if (!chunk.creditedIds().isEmpty()) {
+                readCacheInvalidator.accountsChanged(chunk.creditedIds());
+            }
+            accounts.addAndGet(chunk.accounts());
+            credited.addAndGet(chunk.creditedIds().size());
+            totalInterest.addAndGet(chunk.interest());
+            lastId = chunk.lastId();
+        }
+    }
+
+    private long partitionStart(int partition) {
+        return SnowflakeIds.firstIdAt(Instant.ofEpochMilli(SnowflakeIds.EPOCH)
+                .plus(Duration.ofDays((long) partition * partitionDays)));
+    }
+
+    /**
+     * Intérêt du jour en centimes, arrondi au plus proche (arrondi bancaire), calculé en décimal exact
+     */
+    private long dailyInterest(long balance, double interestRate) {
+        if (balance <= 0 || interestRate <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(balance)
+                .multiply(BigDecimal.valueOf(interestRate))
+                .divide(BigDecimal.valueOf(100L * dayCount), 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+
+    private record ChunkResult(long lastId, int accounts, List<Long> creditedIds, long interest) {
+    }
+
+    private ChunkResult accrueChunk(LocalDate accrualDate, String checkpointName, long afterId, long endId) {
+        List<Object[]> rows = bankAccountRepository.findSavingAccountsChunk(afterId, endId, Limit.of(chunkSize));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Long> interests = new HashMap<>();
+        for (Object[] row : rows) {
+            long balance = ((Number) row[1]).longValue();
+            double interestRate = ((Number) row[2]).doubleValue();
+            long interest = dailyInterest(balance, interestRate);
+            if (interest > 0) {
+                Long accountId = ((Number) row[0]).longValue();
+                // UPDATE relatif : un mouvement concurrent sur le compte n'est jamais écrasé
+                bankAccountRepository.creditBalance(accountId, interest, PERFORMED_BY, now);
+                interests.put(accountId, interest);
+            }
+        }
+
+        long total = 0;
+        if (!interests.isEmpty()) {
+            // Lignes verrouillées par les UPDATE du lot : soldes exacts pour balanceAfter
+            Map<Long, Long> balances = new HashMap<>();
+            for (Object[] row : bankAccountRepository.findBalances(interests.keySet())) {
+                balances.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+            List<AccountOperation> operations = new ArrayList<>(interests.size());
+            for (Map.Entry<Long, Long> entry : interests.entrySet()) {
+                AccountOperation operation = new AccountOperation();
+                operation.setOperationType(OperationType.CREDIT);
+                operation.setAmount(entry.getValue());
+                operation.setDescription("Interest " + accrualDate);
+                operation.setBankAccount(bankAccountRepository.getReferenceById(entry.getKey()));
+                operation.setPerformedBy(PERFORMED_BY);
+                operation.setBalanceAfter(balances.get(entry.getKey()));
+                operations.add(operation);
+                total += entry.getValue();
+            }
+            accountOperationRepository.saveAll(operations);
+            dailySummaryProjector.project(operations);
+            bankAggregates.operationsApplied(operations);
+            operationOutbox.append(operations);
+        }
+
+        // Lot incomplet : la tranche est terminée
+        long lastId = rows.size() < chunkSize ? endId - 1 : ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        checkpointRepository.save(new LedgerCheckpoint(checkpointName, lastId));
+        return new ChunkResult(lastId, rows.size(), new ArrayList<>(interests.keySet()), total);
+    }
+}
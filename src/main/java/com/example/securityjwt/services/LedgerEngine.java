@@ -0,0 +1,194 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.TransferDTO;
+import com.example.securityjwt.dtos.TransferResultDTO;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.BankAccount;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.exception.BankAccountNotFoundException;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moteur de grand livre utilisé par BankAccountService pour les mouvements de solde (mode par défaut)
+ * Chaque mouvement est un UPDATE conditionnel unique : pas de lecture préalable,
+ * donc pas de mise à jour perdue entre deux débits concurrents
+ */
+@Service
+@Transactional
+@AllArgsConstructor
+public class LedgerEngine implements BalanceEngine {
+
+    private BankAccountRepository bankAccountRepository;
+    private AccountOperationRepository accountOperationRepository;
+    private DailySummaryProjector dailySummaryProjector;
+    private BankAggregates bankAggregates;
+    private OperationOutbox operationOutbox;
+
+    @Override
+    public void debit(Long accountId, long amount, String description, String performedBy) {
+        int updated = bankAccountRepository.debitIfSufficient(accountId, amount, performedBy, LocalDateTime.now());
+        if (updated == 0) {
+            throw notFoundOrInsufficient(accountId);
+        }
+        recordOperation(accountId, OperationType.DEBIT, amount, description, performedBy);
+    }
+
+    @Override
+    public void credit(Long accountId, long amount, String description, String performedBy) {
+        int updated = bankAccountRepository.creditBalance(accountId, amount, performedBy, LocalDateTime.now());
+        if (updated == 0) {
+            throw new BankAccountNotFoundException("Account not found");
+        }
+        recordOperation(accountId, OperationType.CREDIT, amount, description, performedBy);
+    }
+
+    /**
+     * Virement dans une seule transaction
+     * Les lignes sont verrouillées dans l'ordre numérique des identifiants de compte, celui de
+     * findAllForUpdate pour les virements groupés : pas d'interblocage entre deux virements
+     * croisés (A -> B et B -> A), ni entre un virement et un lot sur les mêmes comptes
+     */
+    @Override
+    public void transfer(Long accountIdSource, Long accountIdDestination, long amount, String performedBy) {
+        if (accountIdSource.equals(accountIdDestination)) {
+            throw new IllegalArgumentException("Source and destination accounts must be different");
+        }
+
+        String debitDescription = "Transfer to " + accountIdDestination;
+        String creditDescription = "Transfer from " + accountIdSource;
+
+        if (accountIdSource < accountIdDestination) {
+            debit(accountIdSource, amount, debitDescription, performedBy);
+            credit(accountIdDestination, amount, creditDescription, performedBy);
+        } else {
+            // En cas de solde insuffisant, l'exception annule aussi le crédit déjà appliqué
+            credit(accountIdDestination, amount, creditDescription, performedBy);
+            debit(accountIdSource, amount, debitDescription, performedBy);
+        }
+    }
+
+    /**
+     * Virements groupés (paie, fichiers de règlement) dans une seule transaction
+     * Tous les comptes sont verrouillés d'abord, par ordre croissant d'identifiant (comme un virement simple)
+     * Les lignes sont rejouées en mémoire dans l'ordre pour produire un résultat par ligne,
+     * puis seuls les soldes nets sont écrits et les opérations sont insérées par lots JDBC
+     */
+    @Override
+    public List<TransferResultDTO> transferBatch(List<TransferDTO> transfers, String performedBy) {
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransferDTO transfer : transfers) {
+            accountIds.add(transfer.getAccountSource());
+            accountIds.add(transfer.getAccountDestination());
+        }
+
+        Map<Long, BankAccount> accounts = new HashMap<>();
+        for (BankAccount account : bankAccountRepository.findAllForUpdate(accountIds)) {
+            accounts.put(account.getId(), account);
+        }
+
+        // Soldes courants pendant le rejeu, puis mouvements nets par compte
+        Map<Long, Long> balances = new HashMap<>();
+        accounts.forEach((id, account) -> balances.put(id, account.getBalance()));
+        Map<Long, Long> netMovements = new HashMap<>();
+
+        List<TransferResultDTO> results = new ArrayList<>(transfers.size());
+        List<AccountOperation> operations = new ArrayList<>(transfers.size() * 2);
+
+        for (int line = 0; line < transfers.size(); line++) {
+            TransferDTO transfer = transfers.get(line);
+            Long source = transfer.getAccountSource();
+            Long destination = transfer.getAccountDestination();
+            long amount = transfer.getAmount().minorUnits();
+
+            String rejection = null;
+            if (source.equals(destination)) {
+                rejection = "Source and destination accounts must be different";
+            } else if (amount <= 0) {
+                rejection = "Amount must be positive";
+            } else if (!accounts.containsKey(source) || !accounts.containsKey(destination)) {
+                rejection = "Account not found";
+            } else if (balances.get(source) < amount) {
+                rejection = "Balance not sufficient";
+            }
+
+            if (rejection != null) {
+                results.add(new TransferResultDTO(line, source, destination, transfer.getAmount(), false, rejection));
+                continue;
+            }
+
+            balances.merge(source, -amount, Long::sum);
+            balances.merge(destination, amount, Long::sum);
+            netMovements.merge(source, -amount, Long::sum);
+            netMovements.merge(destination, amount, Long::sum);
+
+            String description = transfer.getDescription();
+            operations.add(newOperation(accounts.get(source), OperationType.DEBIT, amount,
+                    description != null ? description : "Transfer to " + destination, performedBy,
+                    balances.get(source)));
+            operations.add(newOperation(accounts.get(destination), OperationType.CREDIT, amount,
+                    description != null ? description : "Transfer from " + source, performedBy,
+                    balances.get(destination)));
+            results.add(new TransferResultDTO(line, source, destination, transfer.getAmount(), true, null));
+        }
+
+        // Une seule écriture par compte, quel que soit le nombre de lignes qui le concernent
+        LocalDateTime now = LocalDateTime.now();
+        netMovements.forEach((id, movement) -> {
+            BankAccount account = accounts.get(id);
+            account.setBalance(account.getBalance() + movement);
+            account.setUpdatedBy(performedBy);
+            account.setUpdatedAt(now);
+        });
+        accountOperationRepository.saveAll(operations);
+        dailySummaryProjector.project(operations);
+        bankAggregates.operationsApplied(operations);
+        operationOutbox.append(operations);
+
+        return results;
+    }
+
+    private void recordOperation(Long accountId, OperationType type, long amount,
+                                 String description, String performedBy) {
+        // La ligne du compte est verrouillée par l'UPDATE qui précède : le solde relu est celui de ce mouvement
+        long balanceAfter = bankAccountRepository.findBalanceById(accountId);
+        // Référence sans SELECT : seule la clé étrangère est nécessaire
+        BankAccount bankAccount = bankAccountRepository.getReferenceById(accountId);
+        AccountOperation operation = accountOperationRepository.save(
+                newOperation(bankAccount, type, amount, description, performedBy, balanceAfter));
+        dailySummaryProjector.project(List.of(operation));
+        bankAggregates.operationsApplied(List.of(operation));
+        operationOutbox.append(List.of(operation));
+    }
+
+    private AccountOperation newOperation(BankAccount bankAccount, OperationType type, long amount,
+                                          String description, String performedBy, long balanceAfter) {
+        AccountOperation accountOperation = new AccountOperation();
+        accountOperation.setOperationType(type);
+        accountOperation.setAmount(amount);
+        accountOperation.setDescription(description);
+        accountOperation.setBankAccount(bankAccount);
+        accountOperation.setPerformedBy(performedBy);
+        accountOperation.setBalanceAfter(balanceAfter);
+        return accountOperation;
+    }
+
+    private RuntimeException notFoundOrInsufficient(Long accountId) {
+        if (!bankAccountRepository.existsById(accountId)) {
+            return new BankAccountNotFoundException("Account not found");
+        }
+        return new InsufficientBalanceException("Balance not sufficient");
+    }
+}
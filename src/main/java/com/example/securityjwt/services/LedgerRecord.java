@@ -0,0 +1,88 @@
+package com.example.securityjwt.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Entrée du journal du moteur en mémoire : un mouvement accepté
+ * Un virement est une seule entrée (les deux jambes), ce qui garde le rejeu cohérent
+ */
+record LedgerRecord(long sequence, Type type, Long accountId, Long counterAccountId,
+                    long amount, String description, String performedBy, long timestamp) {
+
+    // Pas de compte destinataire (les identifiants commencent à 1)
+    private static final long NO_ACCOUNT = 0;
+
+    enum Type {
+        OPEN, DEBIT, CREDIT, TRANSFER
+    }
+
+    static LedgerRecord of(Type type, Long accountId, Long counterAccountId,
+                           long amount, String description, String performedBy) {
+        return new LedgerRecord(0, type, accountId, counterAccountId, amount,
+                description, performedBy, System.currentTimeMillis());
+    }
+
+    LedgerRecord withSequence(long sequence) {
+        return new LedgerRecord(sequence, type, accountId, counterAccountId, amount,
+                description, performedBy, timestamp);
+    }
+
+    /**
+     * Rejeu : les décisions ont déjà été prises, on applique les deltas sans contrôle
+     */
+    void applyTo(Map<Long, Long> balances) {
+        switch (type) {
+            case OPEN -> balances.put(accountId, amount);
+            case DEBIT -> balances.merge(accountId, -amount, Long::sum);
+            case CREDIT -> balances.merge(accountId, amount, Long::sum);
+            case TRANSFER -> {
+                balances.merge(accountId, -amount, Long::sum);
+                balances.merge(counterAccountId, amount, Long::sum);
+            }
+        }
+    }
+
+    byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(sequence);
+            out.writeByte(type.ordinal());
+            out.writeLong(accountId);
+            out.writeLong(counterAccountId == null ? NO_ACCOUNT : counterAccountId);
+            out.writeLong(amount);
+            out.writeUTF(nullToEmpty(description));
+            out.writeUTF(nullToEmpty(performedBy));
+            out.writeLong(timestamp);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static LedgerRecord decode(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        Type type = Type.values()[in.readByte()];
+        long accountId = in.readLong();
+        long counterAccountId = in.readLong();
+        long amount = in.readLong();
+        String description = emptyToNull(in.readUTF());
+        String performedBy = emptyToNull(in.readUTF());
+        long timestamp = in.readLong();
+        return new LedgerRecord(sequence, type, accountId,
+                counterAccountId == NO_ACCOUNT ? null : counterAccountId, amount, description, performedBy, timestamp);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationExportRow;
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Opérations archivées : segments mensuels sur disque (OperationSegment), écrits par
+ * OperationPartitionManager quand une partition dépasse l'âge d'archivage
+ * Les lectures d'historique, de solde à une date et de relevé complètent ici ce que la table
+ * ne contient plus. Sans segment (cas par défaut, H2), chaque appel se limite à un test de liste vide
+ * Le répertoire est local : chaque instance doit voir les mêmes segments (volume partagé ou copie)
+ */
+@Component
+public class OperationArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationArchive.class);
+
+    static final String SUFFIX = ".seg";
+
+    private static final Comparator<AccountOperation> NEWEST_FIRST =
+            Comparator.comparing(AccountOperation::getOperationTime).thenComparing(AccountOperation::getId).reversed();
+
+    @Value("${bankmanagement.partitioning.archiveDir:./operation-archive}")
+    private String archiveDir;
+
+    // Du mois le plus récent au plus ancien ; remplacée en entier à chaque ajout (lecture sans verrou)
+    private volatile List<OperationSegment> segments = List.of();
+
+    @PostConstruct
+    public void load() throws IOException {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<OperationSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                loaded.add(OperationSegment.open(file));
+            }
+        }
+        loaded.sort(Comparator.comparing(OperationSegment::month).reversed());
+        segments = List.copyOf(loaded);
+        logger.info("Operation archive: {} segments, {} operations", loaded.size(),
+                loaded.stream().mapToLong(OperationSegment::rows).sum());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (OperationSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    Path directory() {
+        return Paths.get(archiveDir);
+    }
+
+    /**
+     * Publie un segment (remplace celui du même mois s'il existe)
+     */
+    synchronized void add(OperationSegment segment) {
+        List<OperationSegment> updated = new ArrayList<>(segments);
+        updated.removeIf(existing -> existing.month().equals(segment.month()));
+        updated.add(segment);
+        updated.sort(Comparator.comparing(OperationSegment::month).reversed());
+        segments = List.copyOf(updated);
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    boolean contains(YearMonth month) {
+        return segments.stream().anyMatch(segment -> segment.month().equals(month));
+    }
+
+    /**
+     * Page d'historique : lignes de la table complétées par les archives, triées du plus récent
+     * au plus ancien. Les archives ne sont lues que si la table n'a pas rempli la page ; une ligne
+     * présente des deux côtés (archivage en cours) n'est gardée qu'une fois
+     */
+    List<AccountOperation> completeHistory(Long accountId, HistoryCursor after, List<AccountOperation> live,
+                                           int limit) {
+        List<OperationSegment> current = segments;
+        if (current.isEmpty() || live.size() >= limit) {
+            return live;
+        }
+        List<AccountOperation> merged = new ArrayList<>(live);
+        for (OperationSegment segment : current) {
+            // Segment entièrement plus récent que la position du curseur : rien à prendre
+            if (after != null && segment.month().atDay(1).atStartOfDay().isAfter(after.operationTime())) {
+                continue;
+            }
+            for (AccountOperation operation : segment.read(accountId)) {
+                if (after == null || isAfter(operation, after)) {
+                    merged.add(operation);
+                }
+            }
+            if (merged.size() >= limit + live.size()) {
+                break;
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+        List<AccountOperation> page = new ArrayList<>(Math.min(limit, merged.size()));
+        Long previousId = null;
+        for (AccountOperation operation : merged) {
+            if (!operation.getId().equals(previousId)) {
+                page.add(operation);
+                previousId = operation.getId();
+            }
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    long count(Long accountId) {
+        long count = 0;
+        for (OperationSegment segment : segments) {
+            count += segment.count(accountId);
+        }
+        return count;
+    }
+
+    /**
+     * Dernière opération archivée à une date donnée
+     */
+    Optional<AccountOperation> latestAt(Long accountId, LocalDateTime at) {
+        for (OperationSegment segment : segments) {
+            if (segment.month().atDay(1).atStartOfDay().isAfter(at)) {
+                continue;
+            }
+            for (AccountOperation operation : segment.read(accountId)) {
+                if (!operation.getOperationTime().isAfter(at)) {
+                    return Optional.of(operation);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Première opération archivée après une date
+     */
+    Optional<AccountOperation> earliestAfter(Long accountId, LocalDateTime at) {
+        List<OperationSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            List<AccountOperation> operations = current.get(i).read(accountId);
+            for (int j = operations.size() - 1; j >= 0; j--) {
+                if (operations.get(j).getOperationTime().isAfter(at)) {
+                    return Optional.of(operations.get(j));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Somme signée des mouvements archivés postérieurs à une date
+     */
+    long sumMovementsAfter(Long accountId, LocalDateTime at) {
+        long sum = 0;
+        for (OperationSegment segment : segments) {
+            if (!segment.month().plusMonths(1).atDay(1).atStartOfDay().isAfter(at)) {
+                break;
+            }
+            for (AccountOperation operation : segment.read(accountId)) {
+                if (operation.getOperationTime().isAfter(at)) {
+                    sum += operation.getOperationType() == OperationType.CREDIT
+                            ? operation.getAmount() : -operation.getAmount();
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Toutes les opérations archivées d'un compte, du plus récent au plus ancien
+     */
+    List<AccountOperation> operations(Long accountId) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        List<AccountOperation> operations = new ArrayList<>();
+        for (OperationSegment segment : segments) {
+            operations.addAll(segment.read(accountId));
+        }
+        return operations;
+    }
+
+    /**
+     * Lignes de relevé archivées, du plus ancien au plus récent (précèdent celles de la table)
+     */
+    List<OperationExportRow> statement(Long accountId) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        List<OperationExportRow> rows = new ArrayList<>();
+        List<OperationSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            List<AccountOperation> operations = current.get(i).read(accountId);
+            for (int j = operations.size() - 1; j >= 0; j--) {
+                AccountOperation operation = operations.get(j);
+                rows.add(new OperationExportRow(operation.getId(), operation.getOperationTime(),
+                        operation.getOperationType(), operation.getAmount(), operation.getDescription(),
+                        operation.getPerformedBy()));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isAfter(AccountOperation operation, HistoryCursor cursor) {
+        int byTime = operation.getOperationTime().compareTo(cursor.operationTime());
+        return byTime < 0 || (byTime == 0 && operation.getId() < cursor.id());
+    }
+}
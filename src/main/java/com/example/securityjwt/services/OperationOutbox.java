@@ -0,0 +1,101 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.OperationOutboxEvent;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.OperationOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Écriture de l'outbox des opérations, dans la transaction du mouvement (mêmes points d'appel que
+ * DailySummaryProjector) : un événement est publié si et seulement si l'opération est validée
+ * Coût sur le chemin d'écriture : un insert par opération, groupé avec ceux des opérations
+ * (hibernate.jdbc.batch_size), plus deux requêtes par compte pour ses numéros d'événement ;
+ * aucun appel aux destinataires
+ */
+@Service
+public class OperationOutbox {
+
+    @Autowired
+    OperationOutboxRepository outboxRepository;
+
+    @Autowired
+    OutboxPublisher outboxPublisher;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Value("${bankmanagement.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bankmanagement.outbox.partitions:16}")
+    private int partitions;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Collection<AccountOperation> operations) {
+        if (!enabled || operations.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> nextSequences = reserveSequences(operations);
+        List<OperationOutboxEvent> events = new ArrayList<>(operations.size());
+        for (AccountOperation operation : operations) {
+            long accountId = operation.getBankAccount().getId();
+            long sequence = nextSequences.get(accountId);
+            nextSequences.put(accountId, sequence + 1);
+            OperationOutboxEvent event = new OperationOutboxEvent();
+            event.setPartitionKey(partitionOf(accountId, partitions));
+            event.setOperationId(operation.getId());
+            event.setAccountId(accountId);
+            event.setAccountSequence(sequence);
+            event.setOperationType(operation.getOperationType());
+            event.setAmount(operation.getAmount());
+            event.setBalanceAfter(operation.getBalanceAfter());
+            event.setOperationTime(operation.getOperationTime());
+            event.setDescription(operation.getDescription());
+            event.setPerformedBy(operation.getPerformedBy());
+            events.add(event);
+        }
+        outboxRepository.saveAll(events);
+        // Publication sans attendre le prochain passage
+        AfterCommit.run(outboxPublisher::wakeUp);
+    }
+
+    /**
+     * Premier numéro d'événement de chaque compte pour ces opérations (données dans l'ordre des mouvements)
+     * Les lignes des comptes sont verrouillées jusqu'au commit : les numéros d'un compte suivent l'ordre
+     * de ses mouvements validés, quelle que soit l'horloge de l'instance ; un rollback les rend
+     * Comptes parcourus par identifiant croissant, comme pour les verrous des lots
+     */
+    private Map<Long, Long> reserveSequences(Collection<AccountOperation> operations) {
+        Map<Long, Long> counts = new TreeMap<>();
+        for (AccountOperation operation : operations) {
+            counts.merge(operation.getBankAccount().getId(), 1L, Long::sum);
+        }
+        Map<Long, Long> first = new HashMap<>();
+        counts.forEach((accountId, count) -> {
+            bankAccountRepository.advanceEventSequence(accountId, count);
+            first.put(accountId, bankAccountRepository.findEventSequence(accountId) - count + 1);
+        });
+        return first;
+    }
+
+    /**
+     * Identifiants snowflake : les bits de poids faible (séquence) sont presque toujours nuls,
+     * mélangés avant le modulo pour répartir les comptes
+     */
+    static int partitionOf(long accountId, int partitions) {
+        long mixed = accountId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), partitions);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Partitions mensuelles de account_operation (PostgreSQL, voir db/postgresql/operation-partitioning.sql)
+ *  - crée à l'avance les partitions des mois à venir (bankmanagement.partitioning.monthsAhead)
+ *  - archive les partitions plus anciennes que bankmanagement.partitioning.archiveAfterMonths :
+ *    segment compressé sur disque (OperationSegment), puis DETACH et DROP de la partition
+ * L'archivage d'une partition est une seule transaction : la partition est verrouillée en écriture
+ * pendant l'export, le segment est publié avant le DETACH. Un arrêt entre les deux laisse les lignes
+ * à la fois en table et en segment (dédoublonnées à la lecture) ; le passage suivant recommence
+ */
+@Service
+@ConditionalOnProperty(name = "bankmanagement.partitioning.enabled", havingValue = "true")
+public class OperationPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationPartitionManager.class);
+
+    private static final String TABLE = "account_operation";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    OperationArchive operationArchive;
+
+    @Value("${bankmanagement.partitioning.monthsAhead:3}")
+    private int monthsAhead;
+
+    @Value("${bankmanagement.partitioning.archiveAfterMonths:12}")
+    private int archiveAfterMonths;
+
+    @Value("${bankmanagement.partitioning.fetchSize:5000}")
+    private int fetchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createFuturePartitions();
+    }
+
+    /**
+     * Passage quotidien (bankmanagement.partitioning.cron)
+     */
+    @Scheduled(cron = "${bankmanagement.partitioning.cron:0 15 2 * * *}")
+    public void nightlyMaintenance() {
+        start();
+    }
+
+    /**
+     * Lance création et archivage en arrière-plan ; false si un passage est déjà en cours
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                createFuturePartitions();
+                archiveOldPartitions();
+            } catch (RuntimeException e) {
+                logger.error("Operation partition maintenance failed, it will resume on the next run", e);
+            } finally {
+                running.set(false);
+            }
+        }, "operation-partitions");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Partitions du mois courant et des monthsAhead suivants ; sans effet si elles existent
+     */
+    public void createFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    /**
+     * Archive, de la plus ancienne à la plus récente, les partitions dont le mois est révolu
+     * depuis au moins archiveAfterMonths mois
+     */
+    public void archiveOldPartitions() {
+        YearMonth limit = YearMonth.now().minusMonths(archiveAfterMonths);
+        for (YearMonth month : partitions()) {
+            if (month.isBefore(limit)) {
+                archive(month);
+            }
+        }
+    }
+
+    private List<YearMonth> partitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ? ORDER BY c.relname", String.class, TABLE);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (name.startsWith(PARTITION_PREFIX)) {
+                months.add(YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_MONTH));
+            }
+        }
+        return months;
+    }
+
+    private void archive(YearMonth month) {
+        long start = System.currentTimeMillis();
+        String partition = partitionName(month);
+        Path directory = operationArchive.directory();
+        Path target = directory.resolve("operations-" + month.format(PARTITION_MONTH) + OperationArchive.SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long rows = transactionTemplate.execute(status -> {
+            // Plus aucune écriture sur la partition jusqu'à son détachement
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+            long exported = export(partition, month, temporary, target);
+            Long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+            if (expected == null || expected != exported) {
+                throw new IllegalStateException("Segment of " + partition + " has " + exported
+                        + " rows, partition has " + expected);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            return exported;
+        });
+        logger.info("Archived partition {}: {} operations in {} ms ({} bytes)", partition, rows,
+                System.currentTimeMillis() - start, size(target));
+    }
+
+    /**
+     * Écrit le segment du mois, le renomme à sa place définitive et le publie dans l'archive
+     */
+    private long export(String partition, YearMonth month, Path temporary, Path target) {
+        try {
+            Files.createDirectories(temporary.getParent());
+            long rows;
+            try (OperationSegment.Writer writer = new OperationSegment.Writer(temporary, month)) {
+                AccountBlocks blocks = new AccountBlocks(writer);
+                jdbcTemplate.query(connection -> {
+                    var statement = connection.prepareStatement("SELECT account_id, id, operation_time, amount_minor, "
+                            + "operation_type, description, performed_by, balance_after_minor FROM " + partition
+                            + " ORDER BY account_id, operation_time DESC, id DESC");
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, blocks::accept);
+                blocks.flush();
+                writer.finish();
+                rows = writer.rows();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            operationArchive.add(OperationSegment.open(target));
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write segment " + target, e);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_MONTH);
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Regroupe les lignes (triées par compte) en un bloc par compte
+     */
+    private static final class AccountBlocks {
+
+        private final OperationSegment.Writer writer;
+        private final List<AccountOperation> operations = new ArrayList<>();
+        private long accountId = Long.MIN_VALUE;
+
+        AccountBlocks(OperationSegment.Writer writer) {
+            this.writer = writer;
+        }
+
+        void accept(ResultSet resultSet) throws SQLException {
+            long account = resultSet.getLong(1);
+            if (account != accountId) {
+                flush();
+                accountId = account;
+            }
+            AccountOperation operation = new AccountOperation();
+            operation.setId(resultSet.getLong(2));
+            operation.setOperationTime(resultSet.getTimestamp(3).toLocalDateTime());
+            operation.setAmount(resultSet.getLong(4));
+            operation.setOperationType(OperationType.valueOf(resultSet.getString(5)));
+            operation.setDescription(resultSet.getString(6));
+            operation.setPerformedBy(resultSet.getString(7));
+            long balanceAfter = resultSet.getLong(8);
+            operation.setBalanceAfter(resultSet.wasNull() ? null : balanceAfter);
+            operations.add(operation);
+        }
+
+        void flush() {
+            if (operations.isEmpty()) {
+                return;
+            }
+            try {
+                writer.append(accountId, operations);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            operations.clear();
+        }
+    }
+}
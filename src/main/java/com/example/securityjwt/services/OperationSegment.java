@@ -0,0 +1,396 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segment d'archive : opérations d'un mois, fichier en lecture seule projeté en mémoire
+ *   en-tête (12 o)  : MAGIC, VERSION, mois AAAAMM
+ *   blocs           : un bloc compressé (Deflate) par compte
+ *   index (28 o/compte, trié par compte) : accountId, offset, taille compressée, taille brute, lignes
+ *   pied (20 o)     : offset de l'index, nombre de comptes, nombre de lignes, MAGIC
+ * Dans un bloc, les lignes du compte sont triées du plus récent au plus ancien (operation_time, id)
+ * et rangées par colonne : dates en écarts successifs, identifiants en écarts signés, montants en
+ * entiers de longueur variable, libellés par dictionnaire. Une lecture ne décompresse qu'un bloc
+ * Taille limitée à 2 Go par segment (un MappedByteBuffer)
+ */
+final class OperationSegment implements Closeable {
+
+    private static final int MAGIC = 0x4F505347; // "OPSG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 28;
+    private static final int FOOTER_BYTES = 20;
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private final Path path;
+    private final YearMonth month;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long indexOffset;
+    private final int accounts;
+    private final long rows;
+
+    private OperationSegment(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_BYTES + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Invalid segment size " + size + ": " + path);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int footer = (int) size - FOOTER_BYTES;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(footer + 16) != MAGIC) {
+            channel.close();
+            throw new IOException("Not an operation segment (or truncated): " + path);
+        }
+        int yearMonth = buffer.getInt(8);
+        this.month = YearMonth.of(yearMonth / 100, yearMonth % 100);
+        this.indexOffset = buffer.getLong(footer);
+        this.accounts = buffer.getInt(footer + 8);
+        this.rows = buffer.getInt(footer + 12) & 0xFFFFFFFFL;
+    }
+
+    static OperationSegment open(Path path) throws IOException {
+        return new OperationSegment(path);
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Opérations du compte dans ce segment, de la plus récente à la plus ancienne (vide si aucune)
+     */
+    List<AccountOperation> read(long accountId) {
+        int entry = find(accountId);
+        if (entry < 0) {
+            return List.of();
+        }
+        int position = (int) (indexOffset + (long) entry * INDEX_ENTRY_BYTES);
+        long offset = buffer.getLong(position + 8);
+        int compressedLength = buffer.getInt(position + 16);
+        int rawLength = buffer.getInt(position + 20);
+        int count = buffer.getInt(position + 24);
+
+        byte[] compressed = new byte[compressedLength];
+        buffer.get((int) offset, compressed);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != rawLength) {
+                throw new IllegalStateException("Corrupted block for account " + accountId + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted block for account " + accountId + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return decode(new Bytes(raw), count);
+    }
+
+    /**
+     * Nombre d'opérations du compte, lu dans l'index sans décompresser
+     */
+    int count(long accountId) {
+        int entry = find(accountId);
+        return entry < 0 ? 0 : buffer.getInt((int) (indexOffset + (long) entry * INDEX_ENTRY_BYTES) + 24);
+    }
+
+    // Recherche dichotomique dans l'index projeté
+    private int find(long accountId) {
+        int low = 0;
+        int high = accounts - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong((int) (indexOffset + (long) middle * INDEX_ENTRY_BYTES));
+            if (candidate < accountId) {
+                low = middle + 1;
+            } else if (candidate > accountId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static List<AccountOperation> decode(Bytes in, int count) {
+        int dictionarySize = (int) in.varLong();
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = in.string();
+        }
+
+        List<AccountOperation> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            operations.add(new AccountOperation());
+        }
+        long micros = 0;
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            micros = i == 0 ? in.zigZag() : micros - in.varLong();
+            operations.get(i).setOperationTime(fromMicros(micros));
+        }
+        for (int i = 0; i < count; i++) {
+            id = i == 0 ? in.zigZag() : id + in.zigZag();
+            operations.get(i).setId(id);
+        }
+        for (AccountOperation operation : operations) {
+            operation.setAmount(in.zigZag());
+        }
+        for (AccountOperation operation : operations) {
+            operation.setOperationType(TYPES[in.next()]);
+        }
+        for (AccountOperation operation : operations) {
+            long balanceAfter = in.varLong();
+            operation.setBalanceAfter(balanceAfter == 0 ? null : unZigZag(balanceAfter - 1));
+        }
+        for (AccountOperation operation : operations) {
+            operation.setDescription(entry(dictionary, in.varLong()));
+        }
+        for (AccountOperation operation : operations) {
+            operation.setPerformedBy(entry(dictionary, in.varLong()));
+        }
+        return operations;
+    }
+
+    private static String entry(String[] dictionary, long index) {
+        return index == 0 ? null : dictionary[(int) index - 1];
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Écriture d'un segment : les comptes doivent arriver par identifiant croissant, et les lignes
+     * de chaque compte du plus récent au plus ancien. Le fichier n'est lisible qu'après finish()
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private long position = HEADER_BYTES;
+        private long previousAccount = Long.MIN_VALUE;
+        private int accounts;
+        private long rows;
+
+        Writer(Path path, YearMonth month) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(month.getYear() * 100 + month.getMonthValue()).flip();
+            write(header, 0);
+        }
+
+        void append(long accountId, List<AccountOperation> operations) throws IOException {
+            if (accountId <= previousAccount) {
+                throw new IllegalArgumentException("Accounts must be appended in increasing order: " + accountId);
+            }
+            if (operations.isEmpty()) {
+                return;
+            }
+            previousAccount = accountId;
+
+            byte[] raw = encode(operations);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            byte[] block = compressed.toByteArray();
+            write(ByteBuffer.wrap(block), position);
+
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            entry.putLong(accountId).putLong(position).putInt(block.length).putInt(raw.length)
+                    .putInt(operations.size());
+            index.write(entry.array());
+            position += block.length;
+            accounts++;
+            rows += operations.size();
+        }
+
+        long rows() {
+            return rows;
+        }
+
+        /**
+         * Écrit l'index et le pied, puis force l'écriture sur disque
+         */
+        void finish() throws IOException {
+            long indexOffset = position;
+            write(ByteBuffer.wrap(index.toByteArray()), indexOffset);
+            position += index.size();
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            footer.putLong(indexOffset).putInt(accounts).putInt((int) rows).putInt(MAGIC).flip();
+            write(footer, position);
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            channel.close();
+        }
+
+        private void write(ByteBuffer data, long at) throws IOException {
+            while (data.hasRemaining()) {
+                at += channel.write(data, at);
+            }
+        }
+
+        private static byte[] encode(List<AccountOperation> operations) {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            for (AccountOperation operation : operations) {
+                for (String value : new String[]{operation.getDescription(), operation.getPerformedBy()}) {
+                    if (value != null && dictionary.putIfAbsent(value, entries.size() + 1) == null) {
+                        entries.add(value);
+                    }
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(operations.size() * 16 + 64);
+            writeVarLong(out, entries.size());
+            for (String entry : entries) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            long previous = 0;
+            for (int i = 0; i < operations.size(); i++) {
+                long micros = toMicros(operations.get(i).getOperationTime());
+                // Ordre décroissant : écarts positifs
+                writeVarLong(out, i == 0 ? zigZag(micros) : previous - micros);
+                previous = micros;
+            }
+            for (int i = 0; i < operations.size(); i++) {
+                long id = operations.get(i).getId();
+                writeVarLong(out, zigZag(i == 0 ? id : id - previous));
+                previous = id;
+            }
+            for (AccountOperation operation : operations) {
+                writeVarLong(out, zigZag(operation.getAmount()));
+            }
+            for (AccountOperation operation : operations) {
+                out.write(operation.getOperationType().ordinal());
+            }
+            for (AccountOperation operation : operations) {
+                Long balanceAfter = operation.getBalanceAfter();
+                writeVarLong(out, balanceAfter == null ? 0 : zigZag(balanceAfter) + 1);
+            }
+            for (AccountOperation operation : operations) {
+                writeVarLong(out, operation.getDescription() == null ? 0 : dictionary.get(operation.getDescription()));
+            }
+            for (AccountOperation operation : operations) {
+                writeVarLong(out, operation.getPerformedBy() == null ? 0 : dictionary.get(operation.getPerformedBy()));
+            }
+            return out.toByteArray();
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    /**
+     * Lecture séquentielle d'un bloc décompressé
+     */
+    private static final class Bytes {
+
+        private final byte[] data;
+        private int position;
+
+        Bytes(byte[] data) {
+            this.data = data;
+        }
+
+        int next() {
+            return data[position++] & 0xFF;
+        }
+
+        long varLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                int b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        long zigZag() {
+            return unZigZag(varLong());
+        }
+
+        String string() {
+            int length = (int) varLong();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.entity.LedgerCheckpoint;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.LedgerCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistance asynchrone des mouvements du moteur en mémoire
+ * Par lot et dans une seule transaction : inserts des AccountOperation, un UPDATE par compte
+ * avec le mouvement net, résumés quotidiens, outbox, agrégats de la banque (au commit) et avancement du point de reprise (exactement une fois)
+ */
+final class OperationWriter {
+
+    static final String CHECKPOINT = "operations";
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationWriter.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountOperationRepository accountOperationRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final DailySummaryProjector dailySummaryProjector;
+    private final BankAggregates bankAggregates;
+    private final OperationOutbox operationOutbox;
+    private final int batchSize;
+
+    private final BlockingQueue<LedgerRecord> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong persistedSequence;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    OperationWriter(TransactionTemplate transactionTemplate, BankAccountRepository bankAccountRepository,
+                    AccountOperationRepository accountOperationRepository,
+                    LedgerCheckpointRepository checkpointRepository, DailySummaryProjector dailySummaryProjector,
+                    BankAggregates bankAggregates, OperationOutbox operationOutbox, int batchSize,
+                    long persistedSequence) {
+        this.transactionTemplate = transactionTemplate;
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountOperationRepository = accountOperationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.dailySummaryProjector = dailySummaryProjector;
+        this.bankAggregates = bankAggregates;
+        this.operationOutbox = operationOutbox;
+        this.batchSize = batchSize;
+        this.persistedSequence = new AtomicLong(persistedSequence);
+        thread = new Thread(this::run, "balance-operation-writer");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Les entrées doivent arriver dans l'ordre des séquences du journal
+     */
+    void enqueue(LedgerRecord record) {
+        queue.add(record);
+    }
+
+    long persistedSequence() {
+        return persistedSequence.get();
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(60));
+    }
+
+    private void run() {
+        List<LedgerRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                persist(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Le lot est conservé et retenté : rien n'est perdu, le journal reste la référence
+                logger.error("Persisting {} ledger records failed, retrying", batch.size(), e);
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    private void persist(List<LedgerRecord> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AccountOperation> operations = new ArrayList<>(batch.size() * 2);
+            Map<Long, Long> netMovements = new HashMap<>();
+            Map<Long, Long> balances = persistedBalances(batch);
+
+            for (LedgerRecord record : batch) {
+                switch (record.type()) {
+                    case DEBIT -> {
+                        operations.add(operation(record, record.accountId(), OperationType.DEBIT, record.description(),
+                                balances.merge(record.accountId(), -record.amount(), Long::sum)));
+                        netMovements.merge(record.accountId(), -record.amount(), Long::sum);
+                    }
+                    case CREDIT -> {
+                        operations.add(operation(record, record.accountId(), OperationType.CREDIT, record.description(),
+                                balances.merge(record.accountId(), record.amount(), Long::sum)));
+                        netMovements.merge(record.accountId(), record.amount(), Long::sum);
+                    }
+                    case TRANSFER -> {
+                        operations.add(operation(record, record.accountId(), OperationType.DEBIT,
+                                "Transfer to " + record.counterAccountId(),
+                                balances.merge(record.accountId(), -record.amount(), Long::sum)));
+                        operations.add(operation(record, record.counterAccountId(), OperationType.CREDIT,
+                                "Transfer from " + record.accountId(),
+                                balances.merge(record.counterAccountId(), record.amount(), Long::sum)));
+                        netMovements.merge(record.accountId(), -record.amount(), Long::sum);
+                        netMovements.merge(record.counterAccountId(), record.amount(), Long::sum);
+                    }
+                    case OPEN -> {
+                        // Le compte existe déjà en base
+                    }
+                }
+            }
+
+            accountOperationRepository.saveAll(operations);
+            netMovements.forEach(bankAccountRepository::applyBalanceDelta);
+            // Après les UPDATE : lignes des comptes verrouillées, comme pour le moteur JPA
+            dailySummaryProjector.project(operations);
+            bankAggregates.operationsApplied(operations);
+            operationOutbox.append(operations);
+            checkpointRepository.save(new LedgerCheckpoint(CHECKPOINT, lastSequence));
+        });
+        persistedSequence.set(lastSequence);
+    }
+
+    /**
+     * Soldes en base avant le lot ; le writer est le seul à les modifier dans ce mode, le rejeu
+     * des entrées dans l'ordre des séquences donne donc le solde après chaque opération
+     */
+    private Map<Long, Long> persistedBalances(List<LedgerRecord> batch) {
+        Set<Long> accountIds = new HashSet<>();
+        for (LedgerRecord record : batch) {
+            if (record.type() != LedgerRecord.Type.OPEN) {
+                accountIds.add(record.accountId());
+                if (record.counterAccountId() != null) {
+                    accountIds.add(record.counterAccountId());
+                }
+            }
+        }
+        Map<Long, Long> balances = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            for (Object[] row : bankAccountRepository.findBalances(accountIds)) {
+                balances.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        }
+        return balances;
+    }
+
+    private AccountOperation operation(LedgerRecord record, Long accountId, OperationType type, String description,
+                                       long balanceAfter) {
+        AccountOperation accountOperation = new AccountOperation();
+        accountOperation.setOperationType(type);
+        accountOperation.setAmount(record.amount());
+        accountOperation.setDescription(description);
+        accountOperation.setBankAccount(bankAccountRepository.getReferenceById(accountId));
+        accountOperation.setPerformedBy(record.performedBy());
+        accountOperation.setBalanceAfter(balanceAfter);
+        accountOperation.setOperationTime(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()));
+        return accountOperation;
+    }
+
+    private static void sleepBeforeRetry() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.entity.OperationOutboxEvent;
+import com.example.securityjwt.entity.OutboxPartition;
+import com.example.securityjwt.repositories.OperationOutboxRepository;
+import com.example.securityjwt.repositories.OutboxPartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publication de l'outbox des opérations vers les OutboxSink actifs
+ * Les comptes sont répartis en partitions ; un publieur verrouille une partition (SKIP LOCKED : les
+ * autres threads et instances passent à la suivante), livre ses plus anciens événements par lot,
+ * les supprime et valide. Une seule livraison à la fois par partition ; dans un lot, les événements
+ * d'un compte suivent son numéro d'événement : ordre garanti par compte, même avec plusieurs instances
+ * Au moins une fois : un échec (destinataire ou base) annule la transaction et le lot est relivré
+ * Réveillé au commit de chaque écriture de l'outbox, sinon toutes les pollIntervalMs
+ */
+@Service
+public class OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    @Autowired
+    OperationOutboxRepository outboxRepository;
+
+    @Autowired
+    OutboxPartitionRepository partitionRepository;
+
+    // Vide si aucun destinataire n'est configuré : rien n'est alors publié
+    @Autowired(required = false)
+    List<OutboxSink> sinks = List.of();
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${bankmanagement.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bankmanagement.outbox.partitions:16}")
+    private int partitions;
+
+    @Value("${bankmanagement.outbox.publisherThreads:2}")
+    private int threadCount;
+
+    @Value("${bankmanagement.outbox.batchSize:500}")
+    private int batchSize;
+
+    @Value("${bankmanagement.outbox.pollIntervalMs:1000}")
+    private long pollIntervalMs;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private TransactionTemplate transactionTemplate;
+    private Counter published;
+    private Counter failures;
+
+    @PostConstruct
+    public void start() {
+        published = Counter.builder("bank.outbox.published")
+                .description("Événements d'opérations livrés").register(meterRegistry);
+        failures = Counter.builder("bank.outbox.failures")
+                .description("Lots non livrés, relivrés ensuite").register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        if (sinks.isEmpty()) {
+            logger.warn("Operation outbox enabled without any sink: events are kept until one is configured");
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        createPartitions();
+
+        running = true;
+        for (int i = 0; i < threadCount; i++) {
+            // Points de départ décalés : les threads ne se disputent pas tous la même partition
+            int first = i * partitions / threadCount;
+            Thread thread = new Thread(() -> run(first), "outbox-publisher-" + (i + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        logger.info("Operation outbox publisher started: {} partitions, {} threads, sinks {}",
+                partitions, threadCount, sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release(threads.size());
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Nouveaux événements validés ; sans effet si un publieur est déjà réveillé
+     */
+    public void wakeUp() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long pending() {
+        return outboxRepository.count();
+    }
+
+    private void run(int first) {
+        while (running) {
+            boolean delivered = false;
+            try {
+                List<Integer> pendingPartitions = outboxRepository.findPendingPartitions();
+                for (int i = 0; i < partitions && running; i++) {
+                    int partition = (first + i) % partitions;
+                    if (pendingPartitions.contains(partition)) {
+                        delivered |= publish(partition) > 0;
+                    }
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                logger.warn("Publishing operation outbox failed, retrying", e);
+                sleepBeforeRetry();
+                continue;
+            }
+            if (!delivered) {
+                try {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Un lot d'une partition, dans une transaction ; 0 si elle est vide ou détenue par un autre publieur
+     */
+    private int publish(int partition) {
+        Integer count = transactionTemplate.execute(status -> {
+            Optional<OutboxPartition> claimed = partitionRepository.lockIfFree(partition);
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            List<OperationOutboxEvent> events = nextBatch(partition);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            List<OperationEventDTO> batch = events.stream().map(OutboxPublisher::toEvent).toList();
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.deliver(batch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Outbox sink " + sink.name() + " failed", e);
+                }
+            }
+            outboxRepository.deleteByIds(events.stream().map(OperationOutboxEvent::getId).toList());
+            claimed.get().setLastEventId(events.stream().mapToLong(OperationOutboxEvent::getId).max().getAsLong());
+            claimed.get().setLastPublishedAt(LocalDateTime.now());
+            return events.size();
+        });
+        published.increment(count);
+        return count;
+    }
+
+    /**
+     * Plus anciens événements de la partition (par identifiant), complétés du premier événement en attente
+     * de chacun de leurs comptes ; pour chaque compte, seule la suite sans trou de ses numéros est livrée
+     * Entre instances aux horloges décalées, un numéro peut avoir un identifiant plus grand que le suivant :
+     * l'événement qui suit le trou attend le lot d'après, le compte avance quand même d'au moins un événement
+     */
+    private List<OperationOutboxEvent> nextBatch(int partition) {
+        List<OperationOutboxEvent> oldest = outboxRepository.findByPartitionKeyOrderById(partition, Limit.of(batchSize));
+        if (oldest.isEmpty()) {
+            return oldest;
+        }
+        // Comptes dans l'ordre de leur plus ancien événement, événements par numéro
+        Map<Long, TreeMap<Long, OperationOutboxEvent>> byAccount = new LinkedHashMap<>();
+        for (OperationOutboxEvent event : oldest) {
+            byAccount.computeIfAbsent(event.getAccountId(), accountId -> new TreeMap<>())
+                    .put(event.getAccountSequence(), event);
+        }
+        for (OperationOutboxEvent first : outboxRepository.findFirstPendingOfAccounts(partition, byAccount.keySet())) {
+            byAccount.get(first.getAccountId()).put(first.getAccountSequence(), first);
+        }
+
+        List<OperationOutboxEvent> batch = new ArrayList<>(oldest.size());
+        for (TreeMap<Long, OperationOutboxEvent> events : byAccount.values()) {
+            long expected = events.firstKey();
+            for (Map.Entry<Long, OperationOutboxEvent> entry : events.entrySet()) {
+                if (entry.getKey() != expected) {
+                    break;
+                }
+                batch.add(entry.getValue());
+                expected++;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Lignes de verrou des partitions ; plusieurs instances peuvent démarrer en même temps
+     */
+    private void createPartitions() {
+        for (int partition = 0; partition < partitions; partition++) {
+            int key = partition;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!partitionRepository.existsById(key)) {
+                        partitionRepository.save(new OutboxPartition(key, null, null));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Outbox partition {} created by another instance", key);
+            }
+        }
+    }
+
+    private static OperationEventDTO toEvent(OperationOutboxEvent event) {
+        OperationEventDTO dto = new OperationEventDTO();
+        dto.setEventId(event.getId());
+        dto.setOperationId(event.getOperationId());
+        dto.setAccountId(event.getAccountId());
+        dto.setAccountSequence(event.getAccountSequence());
+        dto.setOperationType(event.getOperationType());
+        dto.setAmount(Money.ofMinor(event.getAmount()));
+        if (event.getBalanceAfter() != null) {
+            dto.setBalanceAfter(Money.ofMinor(event.getBalanceAfter()));
+        }
+        dto.setOperationTime(event.getOperationTime());
+        dto.setDescription(event.getDescription());
+        dto.setPerformedBy(event.getPerformedBy());
+        return dto;
+    }
+
+    private static void sleepBeforeRetry() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
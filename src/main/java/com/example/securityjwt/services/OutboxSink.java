@@ -0,0 +1,18 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destinataire des événements de l'outbox ; chaque bean actif reçoit tous les lots
+ * Un lot contient, pour chaque compte, ses événements dans l'ordre ; une exception fait relivrer
+ * le lot entier (aux autres destinataires aussi) : livraison au moins une fois
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OperationEventDTO> events) throws IOException;
+}
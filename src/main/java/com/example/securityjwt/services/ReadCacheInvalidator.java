@@ -0,0 +1,115 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.config.CacheConfig;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Invalide les DTO en cache une fois les écritures validées
+ * On invalide plutôt que de réécrire la valeur : deux commits concurrents pourraient
+ * publier leurs valeurs dans le désordre et laisser un solde périmé en cache
+ * Une lecture commencée avant une invalidation ne remet pas sa valeur en cache :
+ * chaque invalidation incrémente une génération (par segment de clés) et la lecture
+ * ne publie que si la génération n'a pas bougé pendant le chargement
+ * Les générations sont locales à l'instance : avec un cache partagé (redis...),
+ * seules les invalidations de cette instance sont prises en compte
+ */
+@Component
+@AllArgsConstructor
+public class ReadCacheInvalidator {
+
+    private static final int SEGMENTS = 64;
+
+    private CacheManager cacheManager;
+
+    private final Map<String, AtomicLongArray> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Lecture à travers le cache : la valeur chargée n'est publiée que si aucune
+     * invalidation de la clé n'a eu lieu entre le début du chargement et la publication
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String cacheName, Object key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long generation = generation(cacheName, key);
+        T value = loader.get();
+        if (value != null && generation(cacheName, key) == generation) {
+            cache.put(key, value);
+            // Invalidation arrivée entre la vérification et le put : on retire la valeur publiée
+            if (generation(cacheName, key) != generation) {
+                cache.evict(key);
+            }
+        }
+        return value;
+    }
+
+    public void accountsChanged(Collection<Long> accountIds) {
+        AfterCommit.run(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.BANK_ACCOUNTS);
+            if (cache != null) {
+                accountIds.forEach(accountId -> {
+                    advance(CacheConfig.BANK_ACCOUNTS, accountId);
+                    cache.evict(accountId);
+                });
+            }
+        });
+    }
+
+    /**
+     * Les DTO de compte embarquent le client : ils sont tous invalidés avec lui
+     */
+    public void customerChanged(Long customerId) {
+        AfterCommit.run(() -> {
+            Cache customers = cacheManager.getCache(CacheConfig.CUSTOMERS);
+            if (customers != null) {
+                advance(CacheConfig.CUSTOMERS, customerId);
+                customers.evict(customerId);
+            }
+            Cache accounts = cacheManager.getCache(CacheConfig.BANK_ACCOUNTS);
+            if (accounts != null) {
+                advanceAll(CacheConfig.BANK_ACCOUNTS);
+                accounts.clear();
+            }
+        });
+    }
+
+    // La génération est incrémentée avant l'éviction : une lecture concurrente la voit forcément changer
+
+    private void advance(String cacheName, Object key) {
+        segments(cacheName).incrementAndGet(segment(key));
+    }
+
+    private void advanceAll(String cacheName) {
+        AtomicLongArray segments = segments(cacheName);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments.incrementAndGet(i);
+        }
+    }
+
+    private long generation(String cacheName, Object key) {
+        return segments(cacheName).get(segment(key));
+    }
+
+    private AtomicLongArray segments(String cacheName) {
+        return generations.computeIfAbsent(cacheName, name -> new AtomicLongArray(SEGMENTS));
+    }
+
+    private static int segment(Object key) {
+        return Math.floorMod(key.hashCode(), SEGMENTS);
+    }
+}
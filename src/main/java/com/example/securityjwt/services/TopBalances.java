@@ -0,0 +1,154 @@
+package com.example.securityjwt.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plus grands soldes de la banque, sur un nombre borné de comptes candidats (capacity)
+ * Invariant : tout compte absent a un solde inférieur ou égal à floor, tout candidat un solde
+ * supérieur ou égal ; les candidats sont donc exactement les plus grands soldes
+ * Un candidat qui passe sous floor sort de l'ensemble (un absent pourrait le dépasser) :
+ * sous size candidats, needsRefill() demande un rechargement depuis la base
+ * Un mouvement sur un non-candidat qui reste sous floor ne prend aucun verrou :
+ * c'est le cas de presque tous les mouvements
+ */
+final class TopBalances {
+
+    record Entry(long accountId, long balance) {
+    }
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingLong(Entry::balance).thenComparingLong(Entry::accountId);
+
+    private final int size;
+    private final int capacity;
+
+    // Modifiés sous le verrou de l'instance ; members et floor sont aussi lus sans verrou (chemin rapide)
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<Long, Long> members = new ConcurrentHashMap<>();
+    // Long.MIN_VALUE : aucun compte absent
+    private volatile long floor = Long.MIN_VALUE;
+    // Rechargement en cours : dernier solde des comptes modifiés depuis sa lecture en base
+    // (tous les mouvements passent alors par le verrou pour y être enregistrés)
+    private Map<Long, Long> touchedDuringRefill;
+    private volatile boolean refilling;
+
+    TopBalances(int size, int capacity) {
+        this.size = size;
+        this.capacity = Math.max(size, capacity);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void update(long accountId, long balance) {
+        if (!refilling && balance <= floor && !members.containsKey(accountId)) {
+            return;
+        }
+        synchronized (this) {
+            if (touchedDuringRefill != null) {
+                touchedDuringRefill.put(accountId, balance);
+            }
+            Long previous = members.remove(accountId);
+            if (previous != null) {
+                entries.remove(new Entry(accountId, previous));
+            }
+            if (balance >= floor) {
+                insert(accountId, balance);
+            }
+        }
+    }
+
+    /**
+     * Remplace tout le contenu ; complete : tous les comptes de la banque sont dans top
+     */
+    synchronized void reset(List<Entry> top, boolean complete) {
+        entries.clear();
+        members.clear();
+        floor = Long.MIN_VALUE;
+        for (Entry entry : top) {
+            insert(entry.accountId(), entry.balance());
+        }
+        if (!complete && !entries.isEmpty()) {
+            floor = Math.max(floor, entries.first().balance());
+        }
+    }
+
+    synchronized boolean needsRefill() {
+        return entries.size() < size && floor != Long.MIN_VALUE && touchedDuringRefill == null;
+    }
+
+    synchronized void refillStarted() {
+        touchedDuringRefill = new HashMap<>();
+        refilling = true;
+    }
+
+    /**
+     * Fusionne les plus grands soldes relus en base (complete : tous les comptes)
+     * Un compte modifié pendant la lecture garde la valeur déjà connue, plus récente
+     */
+    synchronized void refillCompleted(List<Entry> top, boolean complete) {
+        Map<Long, Long> touched = touchedDuringRefill;
+        touchedDuringRefill = null;
+        refilling = false;
+        if (touched == null) {
+            return;
+        }
+        // Nouveau plancher : comptes non relus, et comptes modifiés pendant la lecture restés absents
+        long newFloor = complete || top.isEmpty() ? Long.MIN_VALUE : top.get(top.size() - 1).balance();
+        for (Map.Entry<Long, Long> entry : touched.entrySet()) {
+            if (!members.containsKey(entry.getKey())) {
+                newFloor = Math.max(newFloor, entry.getValue());
+            }
+        }
+        floor = newFloor;
+        for (Entry entry : top) {
+            if (!touched.containsKey(entry.accountId()) && !members.containsKey(entry.accountId())) {
+                insert(entry.accountId(), entry.balance());
+            }
+        }
+        // Candidats désormais sous le plancher : un absent peut les dépasser
+        while (!entries.isEmpty() && entries.first().balance() < floor) {
+            members.remove(entries.pollFirst().accountId());
+        }
+    }
+
+    synchronized void refillFailed() {
+        touchedDuringRefill = null;
+        refilling = false;
+    }
+
+    /**
+     * Les n plus grands soldes (n borné par size), du plus grand au plus petit
+     */
+    synchronized List<Entry> top(int n) {
+        int limit = Math.min(n, size);
+        List<Entry> top = new ArrayList<>(limit);
+        for (Entry entry : entries.descendingSet()) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    private void insert(long accountId, long balance) {
+        entries.add(new Entry(accountId, balance));
+        members.put(accountId, balance);
+        if (entries.size() > capacity) {
+            Entry evicted = entries.pollFirst();
+            members.remove(evicted.accountId());
+        }
+        // Ensemble plein : un absent doit dépasser le plus petit candidat pour entrer
+        if (entries.size() == capacity) {
+            floor = Math.max(floor, entries.first().balance());
+        }
+    }
+}
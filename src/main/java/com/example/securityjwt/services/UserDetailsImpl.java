@@ -31,6 +31,12 @@ public class UserDetailsImpl implements UserDetails {
     // Collection des autorités/rôles de l'utilisateur
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Compte actif ou bloqué (champ 'enabled' de l'entité User)
+    private boolean enabled = true;
+
+    // Version des tokens de l'utilisateur (champ 'tokenVersion' de l'entité User)
+    private long tokenVersion;
+
     /**
      * Constructeur privé - utiliser la méthode build() pour créer une instance
      */
@@ -55,13 +61,16 @@ public class UserDetailsImpl implements UserDetails {
                 .map(role -> new SimpleGrantedAuthority(role.getName().name()))
                 .collect(Collectors.toList());
 
-        return new UserDetailsImpl(
+        UserDetailsImpl userDetails = new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
                 user.getFullName(),
                 user.getPassword(),
                 authorities);
+        userDetails.enabled = user.isEnabled();
+        userDetails.tokenVersion = user.getTokenVersion();
+        return userDetails;
     }
 
     // ===== Méthodes obligatoires de UserDetails =====
@@ -112,11 +121,11 @@ public class UserDetailsImpl implements UserDetails {
 
     /**
      * Le compte est activé
-     * Peut être lié au champ 'enabled' de l'entité User
+     * Lié au champ 'enabled' de l'entité User
      */
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 
     // ===== Méthodes utilitaires =====
@@ -133,4 +142,5 @@ public class UserDetailsImpl implements UserDetails {
     public Long getId() { return id; }
     public String getEmail() { return email; }
     public String getFullName() { return fullName; }
+    public long getTokenVersion() { return tokenVersion; }
 }
\ No newline at end of file
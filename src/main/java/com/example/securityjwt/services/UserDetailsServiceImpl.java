@@ -1,31 +1,97 @@
 package com.example.securityjwt.services;
 
+import com.example.securityjwt.entity.User;
 import com.example.securityjwt.repositories.UserRepository;
-import jakarta.transaction.Transactional;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 /**
  * Service qui implémente UserDetailsService de Spring Security
- * Charge les détails de l'utilisateur depuis la base de données
+ * Charge les détails de l'utilisateur depuis la base de données,
+ * avec un cache borné devant la requête (la plus fréquente du système)
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${bankmanagement.app.userCacheSize:10000}")
+    private long userCacheSize;
+
+    @Value("${bankmanagement.app.userCacheTtlSeconds:300}")
+    private long userCacheTtlSeconds;
+
+    // username -> UserDetailsImpl déjà construit
+    private Cache<String, UserDetailsImpl> userCache;
+
+    @PostConstruct
+    void init() {
+        userCache = Caffeine.newBuilder()
+                .maximumSize(userCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .recordStats()
+                .build();
+        // Exposé avec les caches de lecture (cache_gets, cache_evictions... {cache="users"})
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
+    }
+
     /**
      * Méthode obligatoire de UserDetailsService
      * Appelée automatiquement par Spring Security lors de l'authentification
+     * Pas de @Transactional ici : un accès au cache ne doit pas emprunter de connexion
+     * (les rôles sont chargés en EAGER par la requête du repository)
      */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userCache.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * Appelée par DaoAuthenticationProvider après une connexion réussie quand le hachage
+     * stocké n'a pas le coût BCrypt configuré : newPassword est le nouveau hachage
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        userRepository.save(entity);
+        evictUser(user.getUsername());
+        return loadUserByUsername(user.getUsername());
+    }
+
+    /**
+     * Retire un utilisateur du cache après une modification (inscription, rôles, activation)
+     */
+    public void evictUser(String username) {
+        userCache.invalidate(username);
+    }
+
+    /**
+     * Statistiques du cache : hits, misses, évictions
+     */
+    public CacheStats cacheStats() {
+        return userCache.stats();
+    }
+
+    private UserDetailsImpl loadFromDatabase(String username) {
 
         // Recherche l'utilisateur dans la base de données
         User user = userRepository.findByUsername(username)
@@ -34,4 +100,4 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         // Convertit l'entité User en UserDetails (format Spring Security)
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+}
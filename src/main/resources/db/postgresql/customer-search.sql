@@ -0,0 +1,6 @@
+-- Recherche de clients par trigrammes (bankmanagement.search.mode=pg_trgm)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_customer_name_trgm ON customer USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_customer_email_trgm ON customer USING gin (email gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_customer_phone ON customer (phone text_pattern_ops);
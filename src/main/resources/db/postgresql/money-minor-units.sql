@@ -0,0 +1,72 @@
+-- Passage des montants en unités mineures (centimes, BIGINT) et ajout de la devise des comptes
+-- À exécuter avant le démarrage de la version qui utilise Money, application arrêtée
+-- La conversion passe par numeric : float8 -> numeric ne garde que 15 chiffres significatifs,
+-- ce qui efface la dérive binaire du double (0.30000000000000004 -> 0.30) ; ROUND ne fait
+-- donc que retirer ce bruit. Les contrôles lèvent une exception (et annulent toute la migration)
+-- si des montants ont réellement plus de deux décimales, ou si les totaux changent.
+
+BEGIN;
+
+-- Contrôle préalable : des montants à plus de deux décimales sont à arbitrer avant de poursuivre
+-- (liste : mêmes conditions WHERE dans un SELECT)
+DO $$
+DECLARE
+    sub_cent_accounts BIGINT;
+    sub_cent_operations BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO sub_cent_accounts FROM bank_account
+     WHERE balance::numeric <> ROUND(balance::numeric, 2);
+    SELECT COUNT(*) INTO sub_cent_operations FROM account_operation
+     WHERE amount::numeric <> ROUND(amount::numeric, 2);
+    IF sub_cent_accounts > 0 OR sub_cent_operations > 0 THEN
+        RAISE EXCEPTION 'Montants à plus de deux décimales : % comptes, % opérations',
+            sub_cent_accounts, sub_cent_operations;
+    END IF;
+END $$;
+
+ALTER TABLE bank_account
+    ADD COLUMN balance_minor BIGINT,
+    ADD COLUMN over_draft_minor BIGINT,
+    ADD COLUMN currency VARCHAR(3);
+
+UPDATE bank_account SET
+    balance_minor = ROUND(balance::numeric * 100),
+    over_draft_minor = CASE WHEN account_type = 'CA' THEN ROUND(COALESCE(over_draft, 0)::numeric * 100) END,
+    currency = 'EUR';
+
+ALTER TABLE bank_account ALTER COLUMN balance_minor SET NOT NULL;
+
+ALTER TABLE account_operation
+    ADD COLUMN amount_minor BIGINT,
+    ADD COLUMN balance_after_minor BIGINT;
+
+UPDATE account_operation SET
+    amount_minor = ROUND(amount::numeric * 100),
+    balance_after_minor = ROUND(balance_after::numeric * 100);
+
+ALTER TABLE account_operation ALTER COLUMN amount_minor SET NOT NULL;
+
+-- Vérification avant de supprimer les anciennes colonnes : totaux en centimes identiques
+DO $$
+DECLARE
+    balances_before NUMERIC;
+    balances_after NUMERIC;
+    amounts_before NUMERIC;
+    amounts_after NUMERIC;
+BEGIN
+    SELECT ROUND(SUM(balance::numeric) * 100), SUM(balance_minor)
+      INTO balances_before, balances_after FROM bank_account;
+    SELECT ROUND(SUM(amount::numeric) * 100), SUM(amount_minor)
+      INTO amounts_before, amounts_after FROM account_operation;
+    IF balances_before IS DISTINCT FROM balances_after THEN
+        RAISE EXCEPTION 'Total des soldes modifié : % avant, % après', balances_before, balances_after;
+    END IF;
+    IF amounts_before IS DISTINCT FROM amounts_after THEN
+        RAISE EXCEPTION 'Total des opérations modifié : % avant, % après', amounts_before, amounts_after;
+    END IF;
+END $$;
+
+ALTER TABLE bank_account DROP COLUMN balance, DROP COLUMN over_draft;
+ALTER TABLE account_operation DROP COLUMN amount, DROP COLUMN balance_after;
+
+COMMIT;
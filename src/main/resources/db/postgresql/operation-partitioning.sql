@@ -0,0 +1,70 @@
+-- Partitionnement mensuel de account_operation sur operation_time (profil postgresql)
+-- À exécuter une fois, application arrêtée ; les partitions futures sont ensuite créées par
+-- OperationPartitionManager (bankmanagement.partitioning.monthsAhead) et les plus anciennes
+-- archivées en segments sur disque (bankmanagement.partitioning.archiveAfterMonths)
+-- La clé primaire d'une table partitionnée doit contenir la clé de partition : (id, operation_time)
+-- Les identifiants Snowflake restant uniques, l'unicité de id seul est conservée en pratique
+
+BEGIN;
+
+ALTER TABLE account_operation RENAME TO account_operation_unpartitioned;
+ALTER INDEX IF EXISTS idx_operation_account_time_id RENAME TO idx_operation_account_time_id_old;
+
+CREATE TABLE account_operation (
+    id                  BIGINT       NOT NULL,
+    operation_time      TIMESTAMP(6) NOT NULL,
+    amount_minor        BIGINT       NOT NULL,
+    description         VARCHAR(255),
+    operation_type      VARCHAR(255),
+    account_id          BIGINT REFERENCES bank_account (id),
+    performed_by        VARCHAR(255),
+    balance_after_minor BIGINT,
+    PRIMARY KEY (id, operation_time)
+) PARTITION BY RANGE (operation_time);
+
+-- Index partitionné : créé automatiquement sur chaque partition, présente et future
+CREATE INDEX idx_operation_account_time_id ON account_operation (account_id, operation_time DESC, id DESC);
+
+-- Une partition par mois, du mois de la plus ancienne opération jusqu'à trois mois après le mois courant
+-- Nom : account_operation_pYYYYMM (le format attendu par OperationPartitionManager)
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month',
+            COALESCE((SELECT MIN(operation_time) FROM account_operation_unpartitioned), now()))::date;
+    last_month DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF account_operation FOR VALUES FROM (%L) TO (%L)',
+                'account_operation_p' || to_char(month_start, 'YYYYMM'),
+                month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO account_operation (id, operation_time, amount_minor, description, operation_type,
+                               account_id, performed_by, balance_after_minor)
+SELECT id, operation_time, amount_minor, description, operation_type,
+       account_id, performed_by, balance_after_minor
+FROM account_operation_unpartitioned;
+
+-- Contrôle avant suppression de l'ancienne table : mêmes lignes, mêmes totaux, sinon tout est annulé
+DO $$
+DECLARE
+    partitioned_rows BIGINT;
+    original_rows BIGINT;
+    partitioned_total NUMERIC;
+    original_total NUMERIC;
+BEGIN
+    SELECT COUNT(*), SUM(amount_minor) INTO partitioned_rows, partitioned_total FROM account_operation;
+    SELECT COUNT(*), SUM(amount_minor) INTO original_rows, original_total FROM account_operation_unpartitioned;
+    IF partitioned_rows <> original_rows OR partitioned_total IS DISTINCT FROM original_total THEN
+        RAISE EXCEPTION 'Copie incomplète : % lignes (total %) au lieu de % (total %)',
+            partitioned_rows, partitioned_total, original_rows, original_total;
+    END IF;
+END $$;
+
+DROP TABLE account_operation_unpartitioned;
+
+COMMIT;
+
+ANALYZE account_operation;
@@ -0,0 +1,18 @@
+-- Numéros d'événement d'outbox par compte (ordre de publication, voir OperationOutbox)
+-- À exécuter avant le démarrage de la version qui l'utilise (ddl-auto=validate), outbox vide :
+-- les événements en attente n'ont pas de numéro et seraient publiés avant les suivants
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM operation_outbox) THEN
+        RAISE EXCEPTION 'operation_outbox is not empty: wait for the publisher to drain it';
+    END IF;
+END $$;
+
+ALTER TABLE bank_account ADD COLUMN IF NOT EXISTS event_sequence BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE operation_outbox ADD COLUMN IF NOT EXISTS account_sequence BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_partition_id
+    ON operation_outbox (partition_key, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_partition_account_sequence
+    ON operation_outbox (partition_key, account_id, account_sequence);
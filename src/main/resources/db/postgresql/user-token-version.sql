@@ -0,0 +1,5 @@
+-- Version des tokens par utilisateur (révocation persistée, voir TokenRevocationRegistry)
+-- À exécuter avant le démarrage de la version qui l'utilise (ddl-auto=validate)
+-- Les tokens émis avant portent une version horodatée : la première révocation les rejette aussi
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
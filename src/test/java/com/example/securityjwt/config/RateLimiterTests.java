@@ -0,0 +1,132 @@
+package com.example.securityjwt.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimiterTests {
+
+    private static final String PATH = "/api/accounts";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void burstIsAcceptedThenNextRequestWaitsOneInterval() {
+        // 10 requêtes par seconde, rafale de 5
+        RateLimiter rateLimiter = rateLimiter("/**=10:5");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(PATH, null, "10.0.0.1"));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire(PATH, null, "10.0.0.1"));
+        // Un refus ne consomme rien : même délai à la requête suivante
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire(PATH, null, "10.0.0.1"));
+
+        // Autre client, autre seau
+        assertEquals(0, rateLimiter.tryAcquire(PATH, null, "10.0.0.2"));
+    }
+
+    @Test
+    void tokensRefillOverTimeUpToTheBurst() {
+        RateLimiter rateLimiter = rateLimiter("/**=10:5");
+        Authentication alice = user("alice");
+        drain(rateLimiter, alice);
+
+        // Un jeton toutes les 100 ms
+        advance(100);
+        assertEquals(0, rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+
+        advance(250);
+        assertEquals(0, rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+
+        // Longue inactivité : le seau est plein, mais jamais au-delà de la rafale
+        advance(60_000);
+        assertEquals(5, drain(rateLimiter, alice));
+    }
+
+    @Test
+    void rulesAreMatchedInOrderWithPerIpCounting() {
+        RateLimiter rateLimiter = rateLimiter("/api/auth/**@ip=1:2,/**=100:100");
+        Authentication alice = user("alice");
+        Authentication bob = user("bob");
+
+        // Même adresse : alice et bob partagent le seau de /api/auth
+        assertEquals(0, rateLimiter.tryAcquire("/api/auth/signin", alice, "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("/api/auth/signin", bob, "10.0.0.1"));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire("/api/auth/signin", alice, "10.0.0.1"));
+        // La règle générale a son propre seau
+        assertEquals(0, rateLimiter.tryAcquire(PATH, alice, "10.0.0.1"));
+    }
+
+    @Test
+    void rejectionCarriesRetryAfterRoundedUpToTheSecond() throws Exception {
+        // Un jeton toutes les 2 s, rafale de 1
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter("/**=0.5:1"));
+
+        MockHttpServletResponse accepted = filter(filter);
+        assertEquals(200, accepted.getStatus());
+        assertNull(accepted.getHeader(HttpHeaders.RETRY_AFTER));
+
+        advance(500);
+        MockHttpServletResponse rejected = filter(filter);
+        assertEquals(429, rejected.getStatus());
+        // 1,5 s d'attente
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNotNull(rejected.getContentAsString());
+
+        advance(1_000);
+        assertEquals("1", filter(filter).getHeader(HttpHeaders.RETRY_AFTER));
+
+        advance(500);
+        assertEquals(200, filter(filter).getStatus());
+    }
+
+    private RateLimiter rateLimiter(String rules) {
+        RateLimiter rateLimiter = new RateLimiter(clock::get);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "rulesSpec", rules);
+        ReflectionTestUtils.setField(rateLimiter, "maximumKeys", 1_000L);
+        rateLimiter.init();
+        return rateLimiter;
+    }
+
+    private static MockHttpServletResponse filter(RateLimitFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static int drain(RateLimiter rateLimiter, Authentication authentication) {
+        int accepted = 0;
+        while (rateLimiter.tryAcquire(PATH, authentication, "10.0.0.1") == 0) {
+            accepted++;
+        }
+        return accepted;
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static Authentication user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.securityjwt.config;
+
+import com.example.securityjwt.entity.User;
+import com.example.securityjwt.repositories.UserRepository;
+import com.example.securityjwt.services.UserDetailsImpl;
+import com.example.securityjwt.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Un token valide ne suffit pas à accepter un utilisateur révoqué ou désactivé
+@SpringBootTest
+class TokenRevocationTests {
+
+    @Autowired
+    AuthTokenFilter authTokenFilter;
+
+    @Autowired
+    JwtUtils jwtUtils;
+
+    @Autowired
+    TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void revokedTokensStayRejectedWhenTheCacheIsReloaded() throws Exception {
+        String username = createUser();
+        String token = issueToken(username);
+        assertTrue(authenticates(token));
+
+        revocationRegistry.revoke(username);
+        assertFalse(authenticates(token));
+
+        // Cache vidé (redémarrage, autre instance) : la version est relue en base
+        userDetailsService.evictUser(username);
+        assertFalse(authenticates(token));
+
+        assertTrue(authenticates(issueToken(username)));
+    }
+
+    @Test
+    void disabledUserIsRejectedDespiteEnabledClaim() throws Exception {
+        String username = createUser();
+        String token = issueToken(username);
+
+        // Désactivation faite sur une autre instance : pas de révocation locale, seulement la base
+        User user = userRepository.findByUsername(username).orElseThrow();
+        user.setEnabled(false);
+        userRepository.save(user);
+        userDetailsService.evictUser(username);
+
+        assertFalse(authenticates(token));
+    }
+
+    private String createUser() {
+        User user = new User();
+        user.setUsername("revocation-" + UUID.randomUUID());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("{noop}password");
+        return userRepository.save(user).getUsername();
+    }
+
+    private String issueToken(String username) {
+        UserDetailsImpl user = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private boolean authenticates(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
+}
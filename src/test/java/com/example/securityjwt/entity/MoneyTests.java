@@ -0,0 +1,40 @@
+package com.example.securityjwt.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTests {
+
+    @Test
+    void parsesExactlyAndRejectsSubCentAmounts() {
+        assertEquals(1234, Money.parse("12.34").minorUnits());
+        assertEquals(1200, Money.parse("12").minorUnits());
+        assertEquals(-5, Money.parse("-0.05").minorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001"));
+    }
+
+    @Test
+    void noDriftWhereDoubleDrifts() {
+        Money total = Money.ZERO;
+        double drifting = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            total = total.plus(Money.parse("0.10"));
+            drifting += 0.10;
+        }
+        assertEquals(new BigDecimal("100000.00"), total.toBigDecimal());
+        assertNotEquals(100_000.0, drifting);
+    }
+
+    @Test
+    void serializesAsDecimalNumber() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("12.30", mapper.writeValueAsString(Money.ofMinor(1230)));
+        assertEquals(Money.ofMinor(1230), mapper.readValue("12.3", Money.class));
+    }
+}
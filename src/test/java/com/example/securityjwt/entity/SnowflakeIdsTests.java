@@ -0,0 +1,104 @@
+package com.example.securityjwt.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdsTests {
+
+    private static final long NOW = Instant.parse("2025-06-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void idsAreUniqueAndIncreasingUnderContention() throws Exception {
+        // Horloge figée : les 8 threads épuisent le compteur et débordent sans cesse sur la milliseconde suivante
+        assertUniqueAndIncreasing(new SnowflakeIds(7, () -> NOW));
+        assertUniqueAndIncreasing(new SnowflakeIds(8, System::currentTimeMillis));
+    }
+
+    @Test
+    void exhaustedCounterRollsOverToNextMillisecond() {
+        SnowflakeIds ids = new SnowflakeIds(3, () -> NOW);
+        long first = ids.nextId();
+        long last = first;
+        for (int i = 1; i < 4096; i++) {
+            last = ids.nextId();
+        }
+        assertEquals(Instant.ofEpochMilli(NOW), SnowflakeIds.timestampOf(last));
+        assertEquals(4095, last - first);
+
+        long rolledOver = ids.nextId();
+        assertEquals(Instant.ofEpochMilli(NOW + 1), SnowflakeIds.timestampOf(rolledOver));
+        assertEquals(SnowflakeIds.firstIdAt(Instant.ofEpochMilli(NOW + 1)) | (3L << SnowflakeIds.SEQUENCE_BITS),
+                rolledOver);
+        assertEquals(3, SnowflakeIds.nodeOf(rolledOver));
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIds ids = new SnowflakeIds(5, clock::get);
+        long beforeJump = ids.nextId();
+
+        // Correction NTP : l'horloge recule d'une seconde
+        clock.set(NOW - 1_000);
+        long previous = beforeJump;
+        for (int i = 0; i < 10_000; i++) {
+            long id = ids.nextId();
+            assertTrue(id > previous);
+            assertEquals(5, SnowflakeIds.nodeOf(id));
+            previous = id;
+        }
+        // Les identifiants continuent après la dernière milliseconde émise, jamais avant
+        assertTrue(SnowflakeIds.timestampOf(previous).toEpochMilli() >= NOW);
+
+        // L'horloge rattrape puis dépasse : retour à l'horodatage réel
+        clock.set(NOW + 60_000);
+        long caughtUp = ids.nextId();
+        assertEquals(Instant.ofEpochMilli(NOW + 60_000), SnowflakeIds.timestampOf(caughtUp));
+        assertTrue(caughtUp > previous);
+    }
+
+    private static void assertUniqueAndIncreasing(SnowflakeIds ids) throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                long[] generated = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    generated[i] = ids.nextId();
+                }
+                return generated;
+            }));
+        }
+        start.countDown();
+
+        Set<Long> all = new HashSet<>(threads * perThread * 2);
+        for (Future<long[]> future : futures) {
+            long[] generated = future.get(60, TimeUnit.SECONDS);
+            for (int i = 0; i < generated.length; i++) {
+                // Croissants dans chaque thread : les inserts d'un même appelant restent en fin d'index
+                assertTrue(i == 0 || generated[i] > generated[i - 1]);
+                all.add(generated[i]);
+            }
+        }
+        pool.shutdown();
+        assertEquals(threads * perThread, all.size());
+    }
+}
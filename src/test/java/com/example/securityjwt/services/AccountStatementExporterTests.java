@@ -0,0 +1,51 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationExportRow;
+import com.example.securityjwt.enums.OperationType;
+import com.example.securityjwt.enums.StatementFormat;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountStatementExporterTests {
+
+    private final AccountOperationRepository accountOperationRepository = mock(AccountOperationRepository.class);
+    private final OperationArchive operationArchive = mock(OperationArchive.class);
+    private final AccountStatementExporter exporter = new AccountStatementExporter(
+            mock(BankAccountRepository.class), accountOperationRepository, operationArchive);
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(operationArchive.statement(1L)).thenReturn(List.of(
+                new OperationExportRow(1L, time, OperationType.CREDIT, 1_000, "Versement", "alice")));
+        when(accountOperationRepository.streamStatement(1L)).thenReturn(Stream.of(
+                new OperationExportRow(2L, time.plusDays(1), OperationType.DEBIT, 250, "Retrait", "alice"),
+                new OperationExportRow(3L, time.plusDays(2), OperationType.CREDIT, 5, null, "bob")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(1L, StatementFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(4, lines.length);
+        assertEquals("", lines[3]);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int i = 0; i < 3; i++) {
+            // Chaque ligne est un objet JSON complet, sans séparateur devant
+            assertEquals('{', lines[i].charAt(0));
+            assertEquals(String.valueOf(i + 1), objectMapper.readTree(lines[i]).get("id").asText());
+        }
+        assertEquals(2.5, objectMapper.readTree(lines[1]).get("amount").asDouble());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.securityjwt.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redémarrage du moteur en mémoire : journal synchronisé, instantanés et point de reprise
+ * BalanceSnapshots.recover est le rejeu exécuté par InMemoryBalanceEngine au démarrage
+ */
+class BalanceJournalRecoveryTests {
+
+    private static final long SEGMENT_MAX_BYTES = 64 * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void acknowledgedRecordsAreReplayedAfterCrash() throws IOException {
+        BalanceJournal journal = new BalanceJournal(directory, 1, SEGMENT_MAX_BYTES);
+        writeMovements(journal);
+
+        // Chaque futur est complété après force() : relu sans fermeture du journal
+        BalanceSnapshots.Recovery recovery = BalanceSnapshots.recover(directory, 0);
+        journal.close();
+
+        assertEquals(expectedBalances(), recovery.balances());
+        assertEquals(6, recovery.lastSequence());
+        assertEquals(6, recovery.replayed());
+        assertEquals(6, recovery.unpersisted().size());
+    }
+
+    @Test
+    void truncatedTailIsIgnoredAndJournalContinues() throws IOException {
+        BalanceJournal journal = new BalanceJournal(directory, 1, SEGMENT_MAX_BYTES);
+        writeMovements(journal);
+        Path segment = journal.activeSegment();
+        journal.close();
+
+        // Entrée à moitié écrite au moment du crash : en-tête annonçant 100 octets, 3 présents
+        ByteBuffer partial = ByteBuffer.allocate(11).putInt(100).putInt(42).put(new byte[3]);
+        Files.write(segment, partial.array(), StandardOpenOption.APPEND);
+
+        BalanceSnapshots.Recovery recovery = BalanceSnapshots.recover(directory, 0);
+        assertEquals(expectedBalances(), recovery.balances());
+        assertEquals(6, recovery.lastSequence());
+
+        // Redémarrage : nouveau segment à la séquence suivante
+        BalanceJournal restarted = new BalanceJournal(directory, recovery.lastSequence() + 1, SEGMENT_MAX_BYTES);
+        LedgerRecord credit = restarted.append(record(LedgerRecord.Type.CREDIT, 1L, null, 5)).join();
+        restarted.close();
+        assertEquals(7, credit.sequence());
+
+        BalanceSnapshots.Recovery again = BalanceSnapshots.recover(directory, 0);
+        assertEquals(7, again.lastSequence());
+        assertEquals(expectedBalances().get(1L) + 5, (long) again.balances().get(1L));
+    }
+
+    @Test
+    void snapshotFoldsPersistedSegmentsWithoutChangingBalances() throws IOException {
+        // Un segment par entrée
+        BalanceJournal journal = new BalanceJournal(directory, 1, 1);
+        writeMovements(journal);
+        journal.close();
+        assertEquals(7, BalanceJournal.segments(directory).size());
+
+        BalanceSnapshots.compact(directory, journal.activeSegment(), 6);
+
+        assertEquals(List.of(journal.activeSegment()), BalanceJournal.segments(directory));
+        BalanceSnapshots.Snapshot snapshot = BalanceSnapshots.loadLatest(directory);
+        assertEquals(6, snapshot.lastSequence());
+        assertEquals(expectedBalances(), snapshot.balances());
+
+        BalanceSnapshots.Recovery recovery = BalanceSnapshots.recover(directory, 6);
+        assertEquals(expectedBalances(), recovery.balances());
+        assertEquals(0, recovery.replayed());
+        assertTrue(recovery.unpersisted().isEmpty());
+    }
+
+    @Test
+    void recordsAfterCheckpointAreKeptAndResent() throws IOException {
+        BalanceJournal journal = new BalanceJournal(directory, 1, 1);
+        writeMovements(journal);
+        journal.close();
+
+        // La base n'a persisté que jusqu'à la séquence 3
+        BalanceSnapshots.compact(directory, journal.activeSegment(), 3);
+
+        assertEquals(3, BalanceSnapshots.loadLatest(directory).lastSequence());
+        assertEquals(4, BalanceJournal.segments(directory).size());
+
+        BalanceSnapshots.Recovery recovery = BalanceSnapshots.recover(directory, 3);
+        assertEquals(expectedBalances(), recovery.balances());
+        assertEquals(6, recovery.lastSequence());
+        assertEquals(List.of(4L, 5L, 6L), recovery.unpersisted().stream().map(LedgerRecord::sequence).toList());
+
+        // Nouvelle compaction avant que le writer n'avance : rien de ce qui reste à persister n'est perdu
+        BalanceSnapshots.compact(directory, journal.activeSegment(), 3);
+        assertEquals(recovery.unpersisted(), BalanceSnapshots.recover(directory, 3).unpersisted());
+    }
+
+    /**
+     * Séquences 1 à 6 : ouverture de deux comptes, crédit, débit, virement, débit
+     */
+    private static void writeMovements(BalanceJournal journal) {
+        List<LedgerRecord> records = List.of(
+                record(LedgerRecord.Type.OPEN, 1L, null, 1_000),
+                record(LedgerRecord.Type.OPEN, 2L, null, 500),
+                record(LedgerRecord.Type.CREDIT, 1L, null, 250),
+                record(LedgerRecord.Type.DEBIT, 2L, null, 100),
+                record(LedgerRecord.Type.TRANSFER, 1L, 2L, 300),
+                record(LedgerRecord.Type.DEBIT, 1L, null, 50));
+        for (LedgerRecord record : records) {
+            journal.append(record).join();
+        }
+    }
+
+    private static Map<Long, Long> expectedBalances() {
+        return Map.of(1L, 1_000L + 250 - 300 - 50, 2L, 500L - 100 + 300);
+    }
+
+    private static LedgerRecord record(LedgerRecord.Type type, Long accountId, Long counterAccountId, long amount) {
+        return LedgerRecord.of(type, accountId, counterAccountId, amount, "recovery", "test");
+    }
+}
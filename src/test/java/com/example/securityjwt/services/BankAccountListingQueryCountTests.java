@@ -0,0 +1,73 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Customer;
+import com.example.securityjwt.entity.SavingAccount;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BankAccountListingQueryCountTests {
+
+    @Autowired
+    BankAccountService bankAccountService;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void accountListingUsesOneQueryRegardlessOfSize() {
+        Customer first = createCustomerWithAccounts(3);
+        assertEquals(1, statementsFor(() -> bankAccountService.bankAccountList()));
+        assertEquals(1, statementsFor(() -> bankAccountService.getAccountsByCustomerId(first.getId())));
+
+        Customer second = createCustomerWithAccounts(40);
+        assertEquals(1, statementsFor(() -> bankAccountService.bankAccountList()));
+        assertEquals(1, statementsFor(() -> bankAccountService.getAccountsByCustomerId(second.getId())));
+    }
+
+    private long statementsFor(Runnable call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Customer createCustomerWithAccounts(int accounts) {
+        Customer customer = new Customer();
+        customer.setName("Customer " + accounts);
+        customer.setEmail("customer" + accounts + "@mail.com");
+        customer = customerRepository.save(customer);
+
+        for (int i = 0; i < accounts; i++) {
+            if (i % 2 == 0) {
+                CurrentAccount account = new CurrentAccount();
+                account.setBalance(100);
+                account.setOverDraft(50);
+                account.setCustomer(customer);
+                bankAccountRepository.save(account);
+            } else {
+                SavingAccount account = new SavingAccount();
+                account.setBalance(100);
+                account.setInterestRate(2.5);
+                account.setCustomer(customer);
+                bankAccountRepository.save(account);
+            }
+        }
+        return customer;
+    }
+}
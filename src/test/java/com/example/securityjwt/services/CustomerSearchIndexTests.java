@@ -0,0 +1,61 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerSearchIndexTests {
+
+    @Test
+    void findsByPrefixTypoAndPhone() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.index(customer(1L, "Jean Dupont", "jean.dupont@mail.com", "06 12 34 56 78"));
+        index.index(customer(2L, "Hélène Durand", "h.durand@mail.com", "07 00 00 00 00"));
+        index.index(customer(3L, "Paul Lefebvre", "paul@mail.com", null));
+
+        assertEquals(List.of(1L), index.search("dupon", 10));
+        assertEquals(List.of(1L), index.search("dupomt", 10));
+        assertEquals(List.of(2L), index.search("helene", 10));
+        assertEquals(List.of(1L), index.search("0612", 10));
+    }
+
+    @Test
+    void reindexAndRemoveReplaceOldTerms() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.index(customer(1L, "Jean Dupont", "jean@mail.com", null));
+        index.index(customer(1L, "Jean Martin", "jean@mail.com", null));
+
+        assertTrue(index.search("dupont", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("martin", 10));
+
+        index.remove(1L);
+        assertTrue(index.search("martin", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rareTermIsFoundAmongManyCommonOnes() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        for (long id = 1; id <= 30_000; id++) {
+            index.index(customer(id, "Jean Dupont", "jean.dupont" + id + "@mail.com", null));
+        }
+        index.index(customer(50_000L, "Jean Qwertz", "jq@mail.com", null));
+
+        assertEquals(50_000L, index.search("jean qwertz", 5).get(0));
+        assertEquals(50_000L, index.search("jean qwertx", 5).get(0));
+        assertEquals(5, index.search("jean dupont", 5).size());
+    }
+
+    private static Customer customer(Long id, String name, String email, String phone) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setPhone(phone);
+        return customer;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.DebitCreditDTO;
+import com.example.securityjwt.dtos.MessageResponse;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.IdempotencyRecord;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.exception.IdempotencyKeyReusedException;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import com.example.securityjwt.exception.MovementOutcomeUnknownException;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "bankmanagement.idempotency.store=database")
+class IdempotencyServiceTests {
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    LedgerEngine ledgerEngine;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Test
+    void concurrentRequestsWithSameKeyRunOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(1L, 10);
+        AtomicInteger executions = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return idempotencyService.execute(key, "debit", request, () -> {
+                    executions.incrementAndGet();
+                    sleep(200);
+                    return ResponseEntity.ok(new MessageResponse("Débit effectué"));
+                });
+            }));
+        }
+        start.countDown();
+
+        int replayed = 0;
+        for (Future<ResponseEntity<?>> future : futures) {
+            ResponseEntity<?> response = future.get(30, TimeUnit.SECONDS);
+            assertEquals(200, response.getStatusCode().value());
+            if ("true".equals(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))) {
+                replayed++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(7, replayed);
+    }
+
+    @Test
+    void storedResponseIsReplayedWithoutNewMovement() {
+        Long account = createAccount(1_000);
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(account, 100);
+
+        ResponseEntity<?> first = idempotencyService.execute(key, "credit", request, () -> {
+            ledgerEngine.credit(account, 100, "idempotent", "test");
+            return ResponseEntity.ok(new MessageResponse("Crédit effectué"));
+        });
+        ResponseEntity<?> second = idempotencyService.execute(key, "credit", request, () -> {
+            ledgerEngine.credit(account, 100, "idempotent", "test");
+            return ResponseEntity.ok(new MessageResponse("Crédit effectué"));
+        });
+
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"message\":\"Crédit effectué\"}", second.getBody());
+        assertEquals(1_100, balanceOf(account));
+        // Réponse validée avec le mouvement
+        IdempotencyRecord record = idempotencyRecordRepository.findById("anonymous:" + key).orElseThrow();
+        assertEquals(200, record.getStatus());
+    }
+
+    @Test
+    void reusedKeyWithOtherContentIsRejected() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute(key, "debit", request(1L, 10),
+                () -> ResponseEntity.ok(new MessageResponse("Débit effectué")));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute(key, "debit",
+                request(1L, 20), () -> ResponseEntity.ok(new MessageResponse("Débit effectué"))));
+    }
+
+    @Test
+    void failedActionRollsBackMovementAndReleasesKey() {
+        Long account = createAccount(1_000);
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(account, 100);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(key, "credit", request, () -> {
+            ledgerEngine.credit(account, 100, "idempotent", "test");
+            throw new IllegalStateException("failure after the movement");
+        }));
+        assertEquals(1_000, balanceOf(account));
+
+        ResponseEntity<?> retry = idempotencyService.execute(key, "credit", request, () -> {
+            ledgerEngine.credit(account, 100, "idempotent", "test");
+            return ResponseEntity.ok(new MessageResponse("Crédit effectué"));
+        });
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals(1_100, balanceOf(account));
+    }
+
+    @Test
+    void abandonedReservationIsTakenOver() {
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(1L, 10);
+        // Réservation d'une première tentative arrêtée avant la validation (rien n'a été validé)
+        idempotencyService.execute(key, "debit", request,
+                () -> ResponseEntity.ok(new MessageResponse("Débit effectué")));
+        IdempotencyRecord record = idempotencyRecordRepository.findById("anonymous:" + key).orElseThrow();
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        record.setIdempotencyKey("anonymous:abandoned-" + key);
+        record.setStatus(null);
+        record.setResponseBody(null);
+        record.setCreatedAt(longAgo);
+        idempotencyRecordRepository.save(record);
+
+        AtomicInteger executions = new AtomicInteger();
+        ResponseEntity<?> response = idempotencyService.execute("abandoned-" + key, "debit", request, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(new MessageResponse("Débit effectué"));
+        });
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void pendingMovementKeepsKeyUntilApplied() {
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(1L, 10);
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        assertThrows(MovementOutcomeUnknownException.class, () -> idempotencyService.execute(key, "debit", request,
+                () -> {
+                    throw new MovementOutcomeUnknownException("pending", outcome, null);
+                }));
+        // Mouvement journalisé après le délai d'attente
+        outcome.complete(null);
+
+        AtomicInteger executions = new AtomicInteger();
+        ResponseEntity<?> retry = idempotencyService.execute(key, "debit", request, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(new MessageResponse("Débit effectué"));
+        });
+
+        assertEquals(0, executions.get());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"message\":\"Mouvement effectué\"}", retry.getBody());
+    }
+
+    @Test
+    void pendingMovementReleasesKeyWhenRejected() throws InterruptedException {
+        String key = UUID.randomUUID().toString();
+        DebitCreditDTO request = request(1L, 10);
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        assertThrows(MovementOutcomeUnknownException.class, () -> idempotencyService.execute(key, "debit", request,
+                () -> {
+                    throw new MovementOutcomeUnknownException("pending", outcome, null);
+                }));
+        outcome.completeExceptionally(new InsufficientBalanceException("Balance not sufficient"));
+
+        // La clé est libérée de façon asynchrone
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (idempotencyRecordRepository.findById("anonymous:" + key).isPresent()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        AtomicInteger executions = new AtomicInteger();
+        ResponseEntity<?> retry = idempotencyService.execute(key, "debit", request, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(new MessageResponse("Débit effectué"));
+        });
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatusCode().value());
+    }
+
+    private static DebitCreditDTO request(Long accountId, long amount) {
+        DebitCreditDTO request = new DebitCreditDTO();
+        request.setAccountId(accountId);
+        request.setAmount(Money.ofMinor(amount));
+        request.setDescription("idempotent");
+        return request;
+    }
+
+    private Long createAccount(long balance) {
+        CurrentAccount account = new CurrentAccount();
+        account.setBalance(balance);
+        return bankAccountRepository.save(account).getId();
+    }
+
+    private long balanceOf(Long accountId) {
+        return bankAccountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.InterestAccrualReportDTO;
+import com.example.securityjwt.entity.LedgerCheckpoint;
+import com.example.securityjwt.entity.SavingAccount;
+import com.example.securityjwt.entity.SnowflakeIds;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import com.example.securityjwt.repositories.LedgerCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+
+@SpringBootTest(properties = {
+        "bankmanagement.interest.chunkSize=5",
+        "bankmanagement.interest.parallelism=1",
+        "bankmanagement.interest.partitionDays=30"
+})
+class InterestAccrualJobTests {
+
+    // 1 000 000 centimes à 3,65 % sur 365 jours : 100 centimes par jour
+    private static final long BALANCE = 1_000_000;
+    private static final double RATE = 3.65;
+    private static final long DAILY_INTEREST = 100;
+
+    @Autowired
+    InterestAccrualJob interestAccrualJob;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    LedgerCheckpointRepository checkpointRepository;
+
+    // Arrêt simulé : l'invalidation qui suit la validation d'un lot échoue, le lot suivant n'est pas lancé
+    @MockitoSpyBean
+    ReadCacheInvalidator readCacheInvalidator;
+
+    @Test
+    void rerunAfterStopResumesFromCheckpointWithoutCreditingTwice() {
+        List<Long> accounts = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            accounts.add(createSavingAccount());
+        }
+        LocalDate accrualDate = LocalDate.of(2001, 2, 3);
+        String checkpointName = "interest:" + accrualDate + ":" + partitionOf(accounts.get(0));
+
+        // Premier lot validé, arrêt juste après
+        doCallRealMethod()
+                .doThrow(new IllegalStateException("stopped"))
+                .doCallRealMethod()
+                .when(readCacheInvalidator).accountsChanged(any());
+        assertThrows(IllegalStateException.class, () -> interestAccrualJob.accrue(accrualDate));
+
+        long stoppedAt = checkpointRepository.findById(checkpointName)
+                .map(LedgerCheckpoint::getLastSequence)
+                .orElseThrow();
+        long creditedBeforeStop = accounts.stream().filter(id -> id <= stoppedAt).count();
+        assertTrue(creditedBeforeStop < accounts.size(), "stopped before the end of the partition");
+        for (Long id : accounts) {
+            assertEquals(id <= stoppedAt ? BALANCE + DAILY_INTEREST : BALANCE, balanceOf(id));
+        }
+
+        // Reprise pour la même date : seuls les comptes après le point de reprise sont lus
+        InterestAccrualReportDTO report = interestAccrualJob.accrue(accrualDate);
+        assertTrue(report.getAccounts() >= accounts.size() - creditedBeforeStop);
+        for (Long id : accounts) {
+            assertEquals(BALANCE + DAILY_INTEREST, balanceOf(id));
+        }
+
+        // Troisième passage : la tranche est terminée, aucun compte relu
+        InterestAccrualReportDTO again = interestAccrualJob.accrue(accrualDate);
+        assertEquals(0, again.getCredited());
+        for (Long id : accounts) {
+            assertEquals(BALANCE + DAILY_INTEREST, balanceOf(id));
+        }
+    }
+
+    private Long createSavingAccount() {
+        SavingAccount account = new SavingAccount();
+        account.setBalance(BALANCE);
+        account.setInterestRate(RATE);
+        return bankAccountRepository.save(account).getId();
+    }
+
+    private long balanceOf(Long accountId) {
+        return bankAccountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    // Même découpage que InterestAccrualJob (partitionDays=30)
+    private static long partitionOf(long accountId) {
+        return Duration.between(Instant.ofEpochMilli(SnowflakeIds.EPOCH), SnowflakeIds.timestampOf(accountId))
+                .toDays() / 30;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.TransferDTO;
+import com.example.securityjwt.entity.AccountDailySummary;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.entity.Money;
+import com.example.securityjwt.exception.InsufficientBalanceException;
+import com.example.securityjwt.repositories.AccountDailySummaryRepository;
+import com.example.securityjwt.repositories.AccountOperationRepository;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LedgerEngineConcurrencyTests {
+
+    private static final int TRANSFERS = 600;
+
+    @Autowired
+    LedgerEngine ledgerEngine;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    AccountOperationRepository accountOperationRepository;
+
+    @Autowired
+    AccountDailySummaryRepository summaryRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCrossTransfersLoseNoUpdate() throws Exception {
+        Long a = createAccount(1_000);
+        Long b = createAccount(1_000);
+        long operationsBefore = accountOperationRepository.count();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger aToB = new AtomicInteger();
+        AtomicInteger bToA = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    if (forward) {
+                        ledgerEngine.transfer(a, b, 1, "stress");
+                        aToB.incrementAndGet();
+                    } else {
+                        ledgerEngine.transfer(b, a, 1, "stress");
+                        bToA.incrementAndGet();
+                    }
+                } catch (InsufficientBalanceException ignored) {
+                    // Refus légitime, le solde reste cohérent
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        long balanceA = balanceOf(a);
+        long balanceB = balanceOf(b);
+        assertEquals(2_000, balanceA + balanceB);
+        assertEquals(1_000 - aToB.get() + bToA.get(), balanceA);
+        assertEquals(1_000 + aToB.get() - bToA.get(), balanceB);
+        assertEquals(operationsBefore + 2L * (aToB.get() + bToA.get()), accountOperationRepository.count());
+        assertTrue(aToB.get() + bToA.get() > 0);
+    }
+
+    @Test
+    void singleTransfersAndBatchesLockInTheSameOrder() throws Exception {
+        // Identifiants dont l'ordre numérique et l'ordre des chaînes diffèrent ("10" < "9")
+        Long a = createAccount(9L, 1_000);
+        Long b = createAccount(10L, 1_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int kind = i % 4;
+            futures.add(pool.submit(() -> {
+                start.await();
+                switch (kind) {
+                    case 0 -> ledgerEngine.transfer(a, b, 1, "stress");
+                    case 1 -> ledgerEngine.transfer(b, a, 1, "stress");
+                    default -> ledgerEngine.transferBatch(List.of(transfer(a, b), transfer(b, a)), "stress");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        // Un interblocage se termine en expiration du verrou : l'exception remonte ici
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1_000, balanceOf(a));
+        assertEquals(1_000, balanceOf(b));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        Long account = createAccount(100);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    ledgerEngine.debit(account, 1, "stress", "stress");
+                    accepted.incrementAndGet();
+                } catch (InsufficientBalanceException ignored) {
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100, accepted.get());
+        assertEquals(0, balanceOf(account));
+    }
+
+    @Test
+    void dailySummaryFollowsConcurrentMovements() throws Exception {
+        Long account = createAccount(1_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean debit = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                if (debit) {
+                    ledgerEngine.debit(account, 3, "stress", "stress");
+                } else {
+                    ledgerEngine.credit(account, 5, "stress", "stress");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        LocalDate today = LocalDate.now();
+        List<AccountDailySummary> summaries = summaryRepository.findByAccountIdAndDayBetweenOrderByDay(
+                account, today.minusDays(1), today);
+        long count = summaries.stream().mapToLong(AccountDailySummary::getOperationCount).sum();
+        long credits = summaries.stream().mapToLong(AccountDailySummary::getCredits).sum();
+        long debits = summaries.stream().mapToLong(AccountDailySummary::getDebits).sum();
+        assertEquals(200, count);
+        assertEquals(500, credits);
+        assertEquals(300, debits);
+        assertEquals(balanceOf(account), summaries.get(summaries.size() - 1).getClosingBalance());
+    }
+
+    private Long createAccount(long balance) {
+        CurrentAccount account = new CurrentAccount();
+        account.setBalance(balance);
+        return bankAccountRepository.save(account).getId();
+    }
+
+    private Long createAccount(Long id, long balance) {
+        jdbcTemplate.update("INSERT INTO bank_account (id, account_type, balance_minor, over_draft_minor, "
+                + "event_sequence) VALUES (?, 'CA', ?, 0, 0)", id, balance);
+        return id;
+    }
+
+    private static TransferDTO transfer(Long source, Long destination) {
+        TransferDTO transfer = new TransferDTO();
+        transfer.setAccountSource(source);
+        transfer.setAccountDestination(destination);
+        transfer.setAmount(Money.ofMinor(1));
+        return transfer;
+    }
+
+    private long balanceOf(Long accountId) {
+        return bankAccountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.dtos.OperationEventDTO;
+import com.example.securityjwt.entity.CurrentAccount;
+import com.example.securityjwt.repositories.BankAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Base dédiée : les publieurs des autres contextes de test (gardés en cache) videraient la même outbox
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-tests",
+        "bankmanagement.outbox.file.enabled=false",
+        "bankmanagement.outbox.memory.enabled=true",
+        "bankmanagement.outbox.publisherThreads=4",
+        "bankmanagement.outbox.batchSize=7"
+})
+class OperationOutboxTests {
+
+    @Autowired
+    LedgerEngine ledgerEngine;
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    InMemoryOutboxSink sink;
+
+    @Test
+    void publishesEveryOperationInAccountOrder() throws Exception {
+        Long a = createAccount(1_000);
+        Long b = createAccount(1_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                if (forward) {
+                    ledgerEngine.transfer(a, b, 3, "outbox");
+                } else {
+                    ledgerEngine.credit(a, 5, "outbox", "outbox");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // 100 virements (débit + crédit) et 100 crédits
+        List<OperationEventDTO> eventsOfA = awaitEvents(a, 200);
+        List<OperationEventDTO> eventsOfB = awaitEvents(b, 100);
+
+        // Dans l'ordre des mouvements : chaque solde part du précédent
+        assertFollowsBalances(eventsOfA, 1_000, balanceOf(a));
+        assertFollowsBalances(eventsOfB, 1_000, balanceOf(b));
+        assertSequenced(eventsOfA);
+        assertSequenced(eventsOfB);
+    }
+
+    private List<OperationEventDTO> awaitEvents(Long accountId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        List<OperationEventDTO> events;
+        do {
+            events = sink.events().stream().filter(event -> accountId.equals(event.getAccountId())).toList();
+            if (events.size() >= expected) {
+                break;
+            }
+            Thread.sleep(50);
+        } while (System.currentTimeMillis() < deadline);
+        assertEquals(expected, events.stream().map(OperationEventDTO::getEventId).distinct().count());
+        return events;
+    }
+
+    private static void assertFollowsBalances(List<OperationEventDTO> events, long initial, long last) {
+        long balance = initial;
+        for (OperationEventDTO event : events) {
+            long amount = event.getAmount().minorUnits();
+            balance += switch (event.getOperationType()) {
+                case CREDIT -> amount;
+                case DEBIT -> -amount;
+            };
+            assertEquals(balance, event.getBalanceAfter().minorUnits());
+        }
+        assertEquals(last, balance);
+    }
+
+    /**
+     * Numéros d'événement du compte sans trou ni doublon, livrés dans l'ordre
+     */
+    private static void assertSequenced(List<OperationEventDTO> events) {
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i + 1, events.get(i).getAccountSequence());
+        }
+    }
+
+    private Long createAccount(long balance) {
+        CurrentAccount account = new CurrentAccount();
+        account.setBalance(balance);
+        return bankAccountRepository.save(account).getId();
+    }
+
+    private long balanceOf(Long accountId) {
+        return bankAccountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+}
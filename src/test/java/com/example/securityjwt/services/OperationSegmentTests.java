@@ -0,0 +1,128 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.entity.AccountOperation;
+import com.example.securityjwt.enums.OperationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationSegmentTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+    private static final LocalDateTime END_OF_MONTH = MONTH.atEndOfMonth().atTime(23, 59, 59, 999_999_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsEveryColumn() throws IOException {
+        // Identifiants non monotones (écarts négatifs), montants négatifs, mêmes dates, valeurs nulles
+        List<AccountOperation> first = List.of(
+                operation(9_000_000_000_000L, END_OF_MONTH, 12_345, OperationType.CREDIT, 99_999L, "Salaire", "alice"),
+                operation(9_000_000_000_500L, END_OF_MONTH, -1, OperationType.DEBIT, null, null, "alice"),
+                operation(8_999_999_999_000L, END_OF_MONTH.minusNanos(1_000), Long.MAX_VALUE / 4,
+                        OperationType.CREDIT, -42L, "Salaire", null),
+                operation(1L, MONTH.atDay(1).atStartOfDay(), 0, OperationType.DEBIT, 0L, "Frais été", "bob"));
+        List<AccountOperation> second = List.of(
+                operation(42L, MONTH.atDay(15).atTime(12, 0), Long.MIN_VALUE / 4, OperationType.DEBIT,
+                        Long.MIN_VALUE / 4, "Retrait", "carol"));
+
+        Path file = directory.resolve("roundtrip.seg");
+        try (OperationSegment.Writer writer = new OperationSegment.Writer(file, MONTH)) {
+            writer.append(7, first);
+            writer.append(1_000_000_000_000L, second);
+            writer.finish();
+        }
+
+        try (OperationSegment segment = OperationSegment.open(file)) {
+            assertEquals(MONTH, segment.month());
+            assertEquals(5, segment.rows());
+            assertEquals(first, segment.read(7));
+            assertEquals(second, segment.read(1_000_000_000_000L));
+            assertEquals(4, segment.count(7));
+            assertEquals(List.of(), segment.read(8));
+            assertEquals(0, segment.count(8));
+        }
+    }
+
+    @Test
+    void emptySegmentIsReadable() throws IOException {
+        Path file = directory.resolve("empty.seg");
+        try (OperationSegment.Writer writer = new OperationSegment.Writer(file, MONTH)) {
+            // Un compte sans opération n'a pas de bloc
+            writer.append(3, List.of());
+            writer.finish();
+        }
+
+        try (OperationSegment segment = OperationSegment.open(file)) {
+            assertEquals(0, segment.rows());
+            assertEquals(List.of(), segment.read(3));
+            assertEquals(0, segment.count(3));
+        }
+    }
+
+    @Test
+    void manyBlocksAreReadIndependently() throws IOException {
+        Random random = new Random(2024);
+        int accountCount = 300;
+        List<List<AccountOperation>> expected = new ArrayList<>();
+        Path file = directory.resolve("many.seg");
+        long rows = 0;
+        try (OperationSegment.Writer writer = new OperationSegment.Writer(file, MONTH)) {
+            for (int account = 0; account < accountCount; account++) {
+                // Blocs de tailles variées, certains bien au-delà du tampon de compression (8 Ko)
+                int size = 1 + random.nextInt(account % 10 == 0 ? 5_000 : 50);
+                List<AccountOperation> operations = new ArrayList<>(size);
+                LocalDateTime time = END_OF_MONTH;
+                long id = 5_000_000_000L + account * 1_000_000L;
+                for (int i = 0; i < size; i++) {
+                    operations.add(operation(id, time, random.nextInt(200_000) - 100_000,
+                            random.nextBoolean() ? OperationType.DEBIT : OperationType.CREDIT,
+                            random.nextInt(4) == 0 ? null : random.nextLong(10_000_000),
+                            "Opération " + random.nextInt(20), "user" + random.nextInt(3)));
+                    time = time.minusNanos(random.nextInt(1_000_000) * 1_000L);
+                    id -= 1 + random.nextInt(1_000);
+                }
+                writer.append(account * 2L + 1, operations);
+                expected.add(operations);
+                rows += size;
+            }
+            assertThrows(IllegalArgumentException.class, () -> writer.append(1, List.of()));
+            writer.finish();
+        }
+
+        try (OperationSegment segment = OperationSegment.open(file)) {
+            assertEquals(rows, segment.rows());
+            assertTrue(rows > 10_000);
+            for (int account = accountCount - 1; account >= 0; account--) {
+                assertEquals(expected.get(account), segment.read(account * 2L + 1));
+                assertEquals(List.of(), segment.read(account * 2L));
+            }
+        }
+    }
+
+    private static AccountOperation operation(long id, LocalDateTime time, long amount, OperationType type,
+                                              Long balanceAfter, String description, String performedBy) {
+        AccountOperation operation = new AccountOperation();
+        operation.setId(id);
+        operation.setOperationTime(time.truncatedTo(ChronoUnit.MICROS));
+        operation.setAmount(amount);
+        operation.setOperationType(type);
+        operation.setBalanceAfter(balanceAfter);
+        operation.setDescription(description);
+        operation.setPerformedBy(performedBy);
+        return operation;
+    }
+}
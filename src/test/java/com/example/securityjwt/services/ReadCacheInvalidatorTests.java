@@ -0,0 +1,62 @@
+package com.example.securityjwt.services;
+
+import com.example.securityjwt.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReadCacheInvalidatorTests {
+
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager(CacheConfig.BANK_ACCOUNTS, CacheConfig.CUSTOMERS);
+
+    private final ReadCacheInvalidator invalidator = new ReadCacheInvalidator(cacheManager);
+
+    @Test
+    void loadedValueIsCachedAndReused() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void readStartedBeforeInvalidationIsNotCached() {
+        // Le commit et son invalidation ont lieu pendant le chargement de l'ancienne valeur
+        String stale = invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> {
+            invalidator.accountsChanged(List.of(1L));
+            return "stale";
+        });
+
+        assertEquals("stale", stale);
+        assertNull(cacheManager.getCache(CacheConfig.BANK_ACCOUNTS).get(1L));
+        assertEquals("fresh", invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> "fresh"));
+    }
+
+    @Test
+    void invalidationOfAnotherKeyDoesNotPreventCaching() {
+        invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> {
+            invalidator.accountsChanged(List.of(2L));
+            return "v1";
+        });
+
+        assertNotNull(cacheManager.getCache(CacheConfig.BANK_ACCOUNTS).get(1L));
+    }
+
+    @Test
+    void customerChangeDropsAccountReadsInFlight() {
+        invalidator.read(CacheConfig.BANK_ACCOUNTS, 1L, () -> {
+            invalidator.customerChanged(7L);
+            return "old customer";
+        });
+
+        assertNull(cacheManager.getCache(CacheConfig.BANK_ACCOUNTS).get(1L));
+    }
+}
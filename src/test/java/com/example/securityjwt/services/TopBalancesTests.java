@@ -0,0 +1,49 @@
+package com.example.securityjwt.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopBalancesTests {
+
+    @Test
+    void followsRisesAndFallsWhenAllAccountsAreTracked() {
+        TopBalances top = new TopBalances(2, 5);
+        top.reset(List.of(entry(1, 300), entry(2, 200), entry(3, 100)), true);
+
+        top.update(3, 500);
+        top.update(1, 50);
+        top.update(4, 250);
+
+        assertEquals(List.of(entry(3, 500), entry(4, 250)), top.top(10));
+        assertFalse(top.needsRefill());
+    }
+
+    @Test
+    void refillsFromDatabaseWhenCandidatesFallBelowFloor() {
+        TopBalances top = new TopBalances(2, 3);
+        top.reset(List.of(entry(1, 100), entry(2, 90), entry(3, 80)), false);
+
+        // Sous le plancher : un compte non suivi pourrait les dépasser
+        top.update(1, 10);
+        top.update(2, 5);
+        assertTrue(top.needsRefill());
+        assertEquals(List.of(entry(3, 80)), top.top(2));
+
+        top.refillStarted();
+        // Mouvement pendant la relecture : la valeur connue l'emporte sur celle lue en base
+        top.update(7, 85);
+        top.refillCompleted(List.of(entry(3, 80), entry(7, 70), entry(4, 60)), false);
+
+        assertEquals(List.of(entry(7, 85), entry(3, 80)), top.top(2));
+        assertFalse(top.needsRefill());
+    }
+
+    private static TopBalances.Entry entry(long accountId, long balance) {
+        return new TopBalances.Entry(accountId, balance);
+    }
+}